@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Reads lines on a dedicated daemon thread, on behalf of callers that do not
+ * want to block. The thread only exists while there are pending requests. A
+ * line read for a request that was cancelled in the meantime is put back in
+ * the reader, so that no input is lost.
+ * 
+ * <p>A blocking read cannot be interrupted, so the thread may still be 
+ * reading after a request is cancelled. While the thread is running, every 
+ * other read must therefore go through it, with {@link #read(ConsoleReader.Read)}, 
+ * so that input is returned in order. Once it has served every request, 
+ * reads can be done directly again.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class AsyncLineReader {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final String THREAD_NAME = "consolex-stdin-reader";
+	private final Supplier<ConsoleReader> reader;
+	private final Queue<Request<?>> requests;
+	private volatile Thread thread;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Reads lines on a dedicated thread.
+	 * 
+	 * @param		reader Provides the reader used for each request
+	 */
+	AsyncLineReader(Supplier<ConsoleReader> reader) {
+		this.reader = reader;
+		this.requests = new ArrayDeque<>();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Requests a line.
+	 * 
+	 * @return		Future completed with the line, with null if the end of
+	 * the input has been reached or exceptionally if the input cannot be read.
+	 * Cancelling it does not discard the line being read.
+	 */
+	CompletableFuture<String> readLine() {
+		Request<String> request = new Request<>(ConsoleReader::readLine, true);
+		
+		submit(request);
+		
+		return request.future;
+	}
+	
+	/**
+	 * Performs a read on the thread and waits for it, without being 
+	 * interrupted, as a direct read would.
+	 * 
+	 * @param		operation Read to be performed
+	 * 
+	 * @return		Result of the read
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 */
+	<T> T read(ConsoleReader.Read<T> operation) throws IOException {
+		Request<T> request = new Request<>(operation, false);
+		
+		submit(request);
+		
+		try {
+			return request.future.join();
+		}
+		catch (CompletionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+	
+	/**
+	 * Rethrows the cause of a failed read as it is, if it is unchecked.
+	 * 
+	 * @param		cause Cause of the failure
+	 * 
+	 * @return		Exception to be thrown, which wraps the cause unless it is
+	 * already an IOException
+	 */
+	static IOException rethrow(Throwable cause) {
+		if (cause instanceof IOException)
+			return (IOException) cause;
+		
+		if (cause instanceof RuntimeException)
+			throw (RuntimeException) cause;
+		
+		if (cause instanceof Error)
+			throw (Error) cause;
+		
+		return new IOException(cause);
+	}
+	
+	private void submit(Request<?> request) {
+		synchronized (requests) {
+			requests.add(request);
+			startThread();
+		}
+	}
+	
+	private void startThread() {
+		if (thread != null)
+			return;
+		
+		thread = new Thread(this::serveRequests, THREAD_NAME);
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	private void serveRequests() {
+		try {
+			Request<?> request;
+			
+			while ((request = nextRequest()) != null) {
+				request.perform(reader.get());
+			}
+		}
+		finally {
+			synchronized (requests) {
+				thread = null;
+				
+				if (!requests.isEmpty())
+					startThread();
+			}
+		}
+	}
+	
+	/**
+	 * Takes the next request that has not been cancelled.
+	 * 
+	 * @return		Request or null if there are none, in which case the 
+	 * thread stops
+	 */
+	private Request<?> nextRequest() {
+		synchronized (requests) {
+			while (!requests.isEmpty() && requests.peek().future.isDone()) {
+				requests.poll();
+			}
+			
+			return requests.poll();
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	/**
+	 * Checks whether the thread is serving requests, in which case every 
+	 * read must go through it.
+	 * 
+	 * @return		True if the thread is running
+	 */
+	boolean isRunning() {
+		return (thread != null);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Read requested by a caller, with the future that receives its result.
+	 */
+	private static class Request<T> {
+		
+		private final ConsoleReader.Read<T> operation;
+		private final boolean returnsLine;
+		private final CompletableFuture<T> future;
+		
+		Request(ConsoleReader.Read<T> operation, boolean returnsLine) {
+			this.operation = operation;
+			this.returnsLine = returnsLine;
+			this.future = new CompletableFuture<>();
+		}
+		
+		/**
+		 * Performs the read, holding the reader so that a line that has to be
+		 * put back is put back before any other read.
+		 */
+		void perform(ConsoleReader consoleReader) {
+			synchronized (consoleReader) {
+				try {
+					T result = operation.apply(consoleReader);
+					
+					if (!future.complete(result) && returnsLine && (result != null))
+						consoleReader.unreadLine((String) result);
+				}
+				catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Responsible for displaying log messages on a background thread. Callers 
+ * only publish messages into a {@link LogRingBuffer}, and a single drainer 
+ * thread formats them and writes them in batches.
+ * 
+ * <p>Stopping is done once, by whichever of {@link #shutdown()} and the 
+ * shutdown hook comes first. Messages published while it stops are either 
+ * written by its last drain or counted as dropped.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class AsyncLogDispatcher {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int BATCH_SIZE = 256;
+	private static final String DRAINER_NAME = "consolex-log-drainer";
+	private static final long FLUSH_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final int RUNNING = 0;
+	private static final int STOPPING = 1;
+	private static final int STOPPED = 2;
+	private final LogRingBuffer buffer;
+	private final WaitStrategy waitStrategy;
+	private final OverflowPolicy overflowPolicy;
+	private final DropCounters droppedMessages;
+	private final Supplier<OutputSink> sink;
+	private final LogEvent[] batch;
+	private final StringBuilder output;
+	private final Thread drainer;
+	private final Thread shutdownHook;
+	private final AtomicInteger state;
+	private volatile boolean waiting;
+	private volatile long drained;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates and starts an asynchronous dispatcher.
+	 * 
+	 * @param		capacity Queue capacity (rounded up to a power of two)
+	 * @param		waitStrategy How the drainer waits for messages
+	 * @param		overflowPolicy What to do when the queue is full
+	 * @param		droppedMessages Counters of discarded messages
+	 * @param		sink Provides the sink where messages will be written
+	 * 
+	 * @throws		IllegalArgumentException If capacity is not positive or 
+	 * if wait strategy or overflow policy is null
+	 */
+	AsyncLogDispatcher(int capacity, WaitStrategy waitStrategy, 
+					   OverflowPolicy overflowPolicy, DropCounters droppedMessages,
+					   Supplier<OutputSink> sink) {
+		this(capacity, waitStrategy, overflowPolicy, droppedMessages, sink, DRAINER_NAME);
+	}
+	
+	/**
+	 * Creates and starts an asynchronous dispatcher whose drainer thread has
+	 * a given name.
+	 * 
+	 * @param		capacity Queue capacity (rounded up to a power of two)
+	 * @param		waitStrategy How the drainer waits for messages
+	 * @param		overflowPolicy What to do when the queue is full
+	 * @param		droppedMessages Counters of discarded messages
+	 * @param		sink Provides the sink where messages will be written
+	 * @param		drainerName Name of the drainer thread
+	 * 
+	 * @throws		IllegalArgumentException If capacity is not positive or 
+	 * if wait strategy or overflow policy is null
+	 */
+	AsyncLogDispatcher(int capacity, WaitStrategy waitStrategy, 
+					   OverflowPolicy overflowPolicy, DropCounters droppedMessages,
+					   Supplier<OutputSink> sink, String drainerName) {
+		if (waitStrategy == null)
+			throw new IllegalArgumentException("Wait strategy cannot be null");
+		
+		if (overflowPolicy == null)
+			throw new IllegalArgumentException("Overflow policy cannot be null");
+		
+		this.buffer = new LogRingBuffer(capacity);
+		this.waitStrategy = waitStrategy;
+		this.overflowPolicy = overflowPolicy;
+		this.droppedMessages = droppedMessages;
+		this.sink = sink;
+		this.batch = buildBatch();
+		this.output = new StringBuilder();
+		this.drainer = new Thread(this::drain, drainerName);
+		this.shutdownHook = new Thread(this::stop, "consolex-log-shutdown");
+		this.state = new AtomicInteger(RUNNING);
+		
+		drainer.setDaemon(true);
+		drainer.start();
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	private static LogEvent[] buildBatch() {
+		LogEvent[] events = new LogEvent[BATCH_SIZE];
+		
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			events[i] = new LogEvent();
+		}
+		
+		return events;
+	}
+	
+	/**
+	 * Publishes a message. If the queue is full, the overflow policy decides
+	 * whether the caller waits or some message is discarded.
+	 * 
+	 * @param		level Message level
+	 * @param		message Message
+	 * 
+	 * @return		False if the dispatcher is no longer running, in which 
+	 * case the message has not been handled; true otherwise
+	 */
+	boolean publish(LogLevel level, String message) {
+		if (!isRunning())
+			return false;
+		
+		if (!buffer.offer(level, message))
+			return publishOnFullQueue(level, message);
+		
+		signal();
+		
+		return true;
+	}
+	
+	private boolean isRunning() {
+		return (state.get() == RUNNING);
+	}
+	
+	private boolean publishOnFullQueue(LogLevel level, String message) {
+		if (overflowPolicy.shouldDropOldest())
+			return replaceOldest(level, message);
+		
+		if (!overflowPolicy.shouldBlock(level)) {
+			droppedMessages.increment(level);
+			
+			return true;
+		}
+		
+		return waitForRoom(level, message);
+	}
+	
+	private boolean replaceOldest(LogLevel level, String message) {
+		while (!buffer.offer(level, message)) {
+			LogLevel discarded = buffer.discardOldest();
+			
+			if (discarded != null)
+				droppedMessages.increment(discarded);
+		}
+		
+		signal();
+		
+		return true;
+	}
+	
+	private boolean waitForRoom(LogLevel level, String message) {
+		int attempt = 0;
+		
+		while (!buffer.offer(level, message)) {
+			if (!isRunning())
+				return false;
+			
+			LockSupport.unpark(drainer);
+			WaitStrategy.SLEEPING.idle(attempt++);
+		}
+		
+		signal();
+		
+		return true;
+	}
+	
+	/**
+	 * Wakes the drainer after a message has been published. If the final 
+	 * drain has already taken place, nothing else will write the messages 
+	 * left in the queue, so they are counted as dropped.
+	 */
+	private void signal() {
+		if (state.get() == STOPPED) {
+			discardRemaining();
+			return;
+		}
+		
+		if (waiting)
+			LockSupport.unpark(drainer);
+	}
+	
+	private void discardRemaining() {
+		LogLevel discarded;
+		
+		while ((discarded = buffer.discardOldest()) != null) {
+			droppedMessages.increment(discarded);
+		}
+	}
+	
+	private void drain() {
+		int idleRounds = 0;
+		
+		while (isRunning() || !buffer.isEmpty()) {
+			if (drainBatch() > 0) {
+				idleRounds = 0;
+				continue;
+			}
+			
+			drained = buffer.getConsumed();
+			
+			if (isRunning())
+				waitForMessages(idleRounds++);
+		}
+		
+		drained = buffer.getConsumed();
+	}
+	
+	private int drainBatch() {
+		int total = 0;
+		
+		while ((total < BATCH_SIZE) && buffer.poll(batch[total])) {
+			total++;
+		}
+		
+		if (total == 0)
+			return 0;
+		
+		long consumed = buffer.getConsumed();
+		
+		writeBatch(total);
+		drained = consumed;
+		
+		return total;
+	}
+	
+	private void writeBatch(int total) {
+		output.setLength(0);
+		
+		for (int i = 0; i < total; i++) {
+			if (i > 0)
+				output.append(System.lineSeparator());
+			
+			LogMessage.format(output, batch[i].getLevel(), batch[i].getMessage());
+			batch[i].clear();
+		}
+		
+		sink.get().writeLine(output);
+	}
+	
+	private void waitForMessages(int idleRounds) {
+		if (!waitStrategy.requiresSignal()) {
+			waitStrategy.idle(idleRounds);
+			return;
+		}
+		
+		waiting = true;
+		
+		if (buffer.isEmpty() && isRunning())
+			waitStrategy.idle(idleRounds);
+		
+		waiting = false;
+	}
+	
+	/**
+	 * Waits until every message published before this call has been written.
+	 */
+	void flush() {
+		if (Thread.currentThread() == drainer)
+			return;
+		
+		long target = buffer.getPublished();
+		
+		while ((drained < target) && drainer.isAlive()) {
+			LockSupport.unpark(drainer);
+			LockSupport.parkNanos(FLUSH_PARK_NANOS);
+		}
+	}
+	
+	/**
+	 * Writes pending messages and stops the drainer thread.
+	 */
+	void shutdown() {
+		stop();
+		
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		}
+		catch (IllegalStateException e) {
+			// JVM is already shutting down, so the hook is running anyway.
+		}
+	}
+	
+	private void stop() {
+		if (!state.compareAndSet(RUNNING, STOPPING)) {
+			awaitStopped();
+			return;
+		}
+		
+		LockSupport.unpark(drainer);
+		
+		if (Thread.currentThread() == drainer) {
+			state.set(STOPPED);
+			return;
+		}
+		
+		try {
+			drainer.join();
+		} 
+		catch (InterruptedException e) {
+			// The drainer still writes the queued messages before it exits
+			state.set(STOPPED);
+			Thread.currentThread().interrupt();
+			return;
+		}
+		
+		// Messages published while the drainer was finishing
+		while (drainBatch() > 0);
+		
+		state.set(STOPPED);
+		
+		// Publishers that have not seen the new state leave their messages 
+		// for this drain, and the others discard what is left
+		while (drainBatch() > 0);
+		
+		sink.get().flush();
+	}
+	
+	/**
+	 * Waits for a stop that is in progress on another thread, so that no
+	 * caller returns before pending messages are written.
+	 */
+	private void awaitStopped() {
+		if (Thread.currentThread() == drainer)
+			return;
+		
+		while (state.get() != STOPPED) {
+			LockSupport.parkNanos(FLUSH_PARK_NANOS);
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	int getCapacity() {
+		return buffer.getCapacity();
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs periodic housekeeping tasks on a single shared daemon thread.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class BackgroundScheduler {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static volatile ScheduledExecutorService executor;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private BackgroundScheduler() {
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Runs a task periodically. Exceptions thrown by the task are ignored, so
+	 * that they do not cancel next executions.
+	 * 
+	 * @param		task Task to be run
+	 * @param		periodNanos Interval between executions
+	 * 
+	 * @return		Scheduled task, which can be cancelled
+	 */
+	static ScheduledFuture<?> schedule(Runnable task, long periodNanos) {
+		return getExecutor().scheduleWithFixedDelay(
+				() -> runSafely(task), 
+				periodNanos, 
+				periodNanos, 
+				TimeUnit.NANOSECONDS
+		);
+	}
+	
+	/**
+	 * Runs a task on an object periodically, without keeping the object 
+	 * reachable. Once the object is garbage collected, the task is cancelled.
+	 * 
+	 * @param		owner Object the task runs on
+	 * @param		task Task to be run, which must not hold the owner itself
+	 * @param		periodNanos Interval between executions
+	 * 
+	 * @return		Scheduled task, which can be cancelled
+	 */
+	static <T> ScheduledFuture<?> schedule(T owner, Consumer<? super T> task, long periodNanos) {
+		WeakTask<T> weakTask = new WeakTask<>(owner, task);
+		ScheduledFuture<?> future = schedule(weakTask, periodNanos);
+		
+		weakTask.future = future;
+		
+		return future;
+	}
+	
+	private static void runSafely(Runnable task) {
+		try {
+			task.run();
+		}
+		catch (RuntimeException e) {
+			// A failing task must not stop the next executions.
+		}
+	}
+	
+	private static ScheduledExecutorService getExecutor() {
+		if (executor == null) {
+			synchronized (BackgroundScheduler.class) {
+				if (executor == null)
+					executor = buildExecutor();
+			}
+		}
+		
+		return executor;
+	}
+	
+	private static ScheduledExecutorService buildExecutor() {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "consolex-scheduler");
+			thread.setDaemon(true);
+			
+			return thread;
+		});
+		
+		scheduler.setRemoveOnCancelPolicy(true);
+		
+		return scheduler;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Task that reaches its owner through a weak reference, and cancels 
+	 * itself once the owner is gone.
+	 */
+	private static class WeakTask<T> implements Runnable {
+		
+		private final WeakReference<T> owner;
+		private final Consumer<? super T> task;
+		private volatile ScheduledFuture<?> future;
+		
+		WeakTask(T owner, Consumer<? super T> task) {
+			this.owner = new WeakReference<>(owner);
+			this.task = task;
+		}
+		
+		@Override
+		public void run() {
+			T current = owner.get();
+			
+			if (current != null)
+				task.accept(current);
+			else if (future != null)
+				future.cancel(false);
+		}
+	}
+}
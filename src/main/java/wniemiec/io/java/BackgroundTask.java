@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+/**
+ * Handle of a task that runs in the background until it is cancelled.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public interface BackgroundTask extends AutoCloseable {
+	
+	/**
+	 * Stops the task. Calling it more than once has no effect.
+	 */
+	void cancel();
+	
+	/**
+	 * Checks whether the task has been cancelled.
+	 * 
+	 * @return		True if the task has been cancelled
+	 */
+	boolean isCancelled();
+	
+	/**
+	 * Same as {@link #cancel()}.
+	 */
+	@Override
+	default void close() {
+		cancel();
+	}
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Output sink that encodes content into a reusable direct buffer and writes 
+ * it through a channel. Unlike {@link PrintStreamSink}, it does not flush 
+ * after every line unless its {@link FlushPolicy} says so, which makes it 
+ * suitable for writing large amounts of lines. Sinks that are open when the 
+ * JVM shuts down are flushed by a single shutdown hook, which does not keep
+ * them reachable.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public class ChannelOutputSink implements OutputSink {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final Set<ChannelOutputSink> openSinks = registerShutdownHook();
+	private final WritableByteChannel channel;
+	private final CharsetEncoder encoder;
+	private final ByteBuffer buffer;
+	private final byte[] lineSeparator;
+	private final FlushPolicy flushPolicy;
+	private final boolean ownsChannel;
+	private final ScheduledFuture<?> periodicFlush;
+	private long bufferedBytes;
+	private long lastFlush;
+	private boolean closed;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructors
+	//-------------------------------------------------------------------------
+	/**
+	 * Output sink that writes through a channel. The channel is closed when 
+	 * the sink is closed.
+	 * 
+	 * @param		channel Destination channel
+	 * @param		charset Charset used to encode content
+	 * @param		bufferSize Buffer capacity, in bytes
+	 * @param		flushPolicy When buffered content is written
+	 * 
+	 * @throws		IllegalArgumentException If channel, charset or flush 
+	 * policy is null or if buffer size is not positive
+	 */
+	public ChannelOutputSink(WritableByteChannel channel, Charset charset, 
+							 int bufferSize, FlushPolicy flushPolicy) {
+		this(channel, charset, bufferSize, flushPolicy, true);
+	}
+	
+	private ChannelOutputSink(WritableByteChannel channel, Charset charset, 
+							  int bufferSize, FlushPolicy flushPolicy, 
+							  boolean ownsChannel) {
+		if (channel == null)
+			throw new IllegalArgumentException("Channel cannot be null");
+		
+		if (charset == null)
+			throw new IllegalArgumentException("Charset cannot be null");
+		
+		if (flushPolicy == null)
+			throw new IllegalArgumentException("Flush policy cannot be null");
+		
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Buffer size must be positive");
+		
+		this.channel = channel;
+		this.encoder = buildEncoder(charset);
+		this.lineSeparator = LINE_SEPARATOR.getBytes(charset);
+		this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, minimumBufferSize(encoder)));
+		this.flushPolicy = flushPolicy;
+		this.ownsChannel = ownsChannel;
+		this.lastFlush = System.nanoTime();
+		this.periodicFlush = schedulePeriodicFlush(flushPolicy);
+		
+		openSinks.add(this);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Output sink that writes directly on the standard output file 
+	 * descriptor, flushing after every line.
+	 * 
+	 * @return		Standard output sink
+	 */
+	public static ChannelOutputSink stdout() {
+		return stdout(FlushPolicy.perLine());
+	}
+	
+	/**
+	 * Output sink that writes directly on the standard output file 
+	 * descriptor. Closing it does not close the standard output.
+	 * 
+	 * @param		flushPolicy When buffered content is written
+	 * 
+	 * @return		Standard output sink
+	 * 
+	 * @throws		IllegalArgumentException If flush policy is null
+	 */
+	public static ChannelOutputSink stdout(FlushPolicy flushPolicy) {
+		return new ChannelOutputSink(
+				new FileOutputStream(FileDescriptor.out).getChannel(), 
+				Charset.defaultCharset(), 
+				DEFAULT_BUFFER_SIZE, 
+				flushPolicy,
+				false
+		);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	private static Set<ChannelOutputSink> registerShutdownHook() {
+		Set<ChannelOutputSink> sinks = Collections.synchronizedSet(
+				Collections.newSetFromMap(new WeakHashMap<>())
+		);
+		
+		Runtime.getRuntime().addShutdownHook(new Thread(
+				() -> flushAll(sinks), 
+				"consolex-sink-shutdown"
+		));
+		
+		return sinks;
+	}
+	
+	/**
+	 * Flushes the sinks that are still open. A sink that fails does not 
+	 * prevent the others from being flushed.
+	 */
+	private static void flushAll(Set<ChannelOutputSink> sinks) {
+		List<ChannelOutputSink> open;
+		
+		synchronized (sinks) {
+			open = new ArrayList<>(sinks);
+		}
+		
+		for (ChannelOutputSink sink : open) {
+			try {
+				sink.flush();
+			}
+			catch (RuntimeException e) {
+				// Remaining sinks must still be flushed.
+			}
+		}
+	}
+	
+	private static CharsetEncoder buildEncoder(Charset charset) {
+		return charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+	
+	private static int minimumBufferSize(CharsetEncoder encoder) {
+		return (int) Math.ceil(encoder.maxBytesPerChar()) * 4;
+	}
+	
+	private ScheduledFuture<?> schedulePeriodicFlush(FlushPolicy policy) {
+		if (!policy.isPeriodic())
+			return null;
+		
+		return BackgroundScheduler.schedule(
+				this, 
+				ChannelOutputSink::flushIfIdle, 
+				policy.getIntervalNanos()
+		);
+	}
+	
+	private synchronized void flushIfIdle() {
+		if (!closed && (System.nanoTime() - lastFlush >= flushPolicy.getIntervalNanos()))
+			flushBuffer();
+	}
+	
+	@Override
+	public synchronized void write(CharSequence content) {
+		encode(content);
+		applyFlushPolicy(false);
+	}
+
+	@Override
+	public synchronized void writeLine(CharSequence content) {
+		encode(content);
+		put(lineSeparator);
+		applyFlushPolicy(true);
+	}
+	
+	private void put(byte[] bytes) {
+		if (buffer.remaining() < bytes.length)
+			writeBuffer();
+		
+		buffer.put(bytes);
+		bufferedBytes += bytes.length;
+	}
+	
+	private void encode(CharSequence content) {
+		if (closed)
+			throw new IllegalStateException("Sink is closed");
+		
+		CharBuffer input = CharBuffer.wrap(content);
+		int start = buffer.position();
+		
+		encoder.reset();
+		
+		// Malformed and unmappable input is replaced, so only overflow stops
+		// the encoder
+		while (encoder.encode(input, buffer, true).isOverflow()) {
+			start = drainEncoded(start);
+		}
+		
+		while (encoder.flush(buffer).isOverflow()) {
+			start = drainEncoded(start);
+		}
+		
+		bufferedBytes += buffer.position() - start;
+	}
+	
+	private int drainEncoded(int start) {
+		bufferedBytes += buffer.position() - start;
+		writeBuffer();
+		
+		return 0;
+	}
+	
+	private void applyFlushPolicy(boolean endOfLine) {
+		long nanosSinceFlush = System.nanoTime() - lastFlush;
+		
+		if (flushPolicy.shouldFlush(endOfLine, bufferedBytes, nanosSinceFlush))
+			flushBuffer();
+	}
+
+	/**
+	 * Copies the bytes of a file to the channel, after the buffered content.
+	 * When both ends support it, such as a file and the standard output on 
+	 * Linux, the copy is done by the operating system, without passing 
+	 * through the JVM.
+	 */
+	@Override
+	public synchronized boolean transferFrom(FileChannel file, Charset charset) 
+			throws IOException {
+		if (!encoder.charset().equals(charset))
+			return false;
+		
+		flushBuffer();
+		
+		long size = file.size();
+		long position = 0;
+		
+		while (position < size) {
+			long transferred = file.transferTo(position, size - position, channel);
+			
+			// File was truncated while it was being copied
+			if (transferred == 0)
+				break;
+			
+			position += transferred;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public synchronized void flush() {
+		if (!closed)
+			flushBuffer();
+	}
+	
+	private void flushBuffer() {
+		writeBuffer();
+		bufferedBytes = 0;
+		lastFlush = System.nanoTime();
+	}
+	
+	private void writeBuffer() {
+		buffer.flip();
+		
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			buffer.clear();
+		}
+	}
+	
+	@Override
+	public synchronized void close() {
+		if (closed)
+			return;
+		
+		try {
+			flushBuffer();
+		}
+		finally {
+			closed = true;
+			release();
+		}
+	}
+	
+	private void release() {
+		if (periodicFlush != null)
+			periodicFlush.cancel(false);
+		
+		openSinks.remove(this);
+		
+		if (ownsChannel)
+			closeChannel();
+	}
+	
+	private void closeChannel() {
+		try {
+			channel.close();
+		} 
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
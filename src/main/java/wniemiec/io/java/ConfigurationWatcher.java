@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Reloads a configuration file whenever it changes. Changes are noticed
+ * through a {@link WatchService} on the directory of the file and, when it
+ * is not available or misses an event, by checking the modification time
+ * and the size of the file periodically. A file that cannot be read or that
+ * is invalid is reported and changes nothing, and a configuration that fails
+ * to be applied is reported without stopping the watch.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class ConfigurationWatcher implements BackgroundTask {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final String THREAD_NAME = "consolex-config-watcher";
+	private final Path file;
+	private final Consumer<ConsoleConfiguration> configurator;
+	private final Consumer<Exception> errorHandler;
+	private final long pollIntervalNanos;
+	private final WatchService watchService;
+	private final Thread thread;
+	private FileTime lastModified;
+	private long lastSize;
+	private volatile boolean cancelled;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Starts watching a configuration file, which must have been applied
+	 * right before.
+	 * 
+	 * @param		file Absolute path of the file
+	 * @param		configurator Applies a configuration that has been read
+	 * @param		errorHandler Receives errors of reading or applying the file
+	 * @param		pollIntervalNanos Maximum interval between checks of the
+	 * file
+	 */
+	ConfigurationWatcher(Path file, Consumer<ConsoleConfiguration> configurator,
+						 Consumer<Exception> errorHandler, long pollIntervalNanos) {
+		this.file = file;
+		this.configurator = configurator;
+		this.errorHandler = errorHandler;
+		this.pollIntervalNanos = pollIntervalNanos;
+		this.watchService = FileFollower.watchDirectory(file.getParent());
+		this.thread = new Thread(this::watch, THREAD_NAME);
+		
+		hasChanged();
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	private void watch() {
+		try {
+			while (!cancelled) {
+				boolean notified = waitForChange();
+				
+				if ((hasChanged() || notified) && !cancelled)
+					reload();
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e) {
+			// Task was cancelled
+		}
+	}
+	
+	/**
+	 * Waits for a change in the directory of the file or for the poll
+	 * interval.
+	 * 
+	 * @return		True if the file has been reported as changed
+	 */
+	private boolean waitForChange() throws InterruptedException {
+		if (watchService == null) {
+			LockSupport.parkNanos(this, pollIntervalNanos);
+			return false;
+		}
+		
+		WatchKey key = watchService.poll(pollIntervalNanos, TimeUnit.NANOSECONDS);
+		boolean notified = false;
+		
+		if (key == null)
+			return false;
+		
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (file.getFileName().equals(event.context()))
+				notified = true;
+		}
+		
+		key.reset();
+		
+		return notified;
+	}
+	
+	/**
+	 * Checks whether the modification time or the size of the file changed
+	 * since the last check.
+	 */
+	private boolean hasChanged() {
+		FileTime modified = null;
+		long size = -1;
+		
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			
+			modified = attributes.lastModifiedTime();
+			size = attributes.size();
+		}
+		catch (IOException e) {
+			// File does not exist now, as while it is being replaced
+		}
+		
+		boolean changed = (size != lastSize) || !Objects.equals(modified, lastModified);
+		
+		lastModified = modified;
+		lastSize = size;
+		
+		return changed;
+	}
+	
+	private void reload() {
+		ConsoleConfiguration configuration;
+		
+		// A file that is being replaced is read once it exists again
+		if (Files.notExists(file))
+			return;
+		
+		try {
+			configuration = ConsoleConfiguration.load(file);
+		}
+		catch (IOException | IllegalArgumentException e) {
+			errorHandler.accept(e);
+			return;
+		}
+		
+		try {
+			configurator.accept(configuration);
+		}
+		catch (RuntimeException e) {
+			errorHandler.accept(e);
+		}
+	}
+	
+	@Override
+	public void cancel() {
+		if (cancelled)
+			return;
+		
+		// Not interrupted: it may be applying a configuration or reporting
+		// an error through a sink whose channel an interrupt would close
+		cancelled = true;
+		LockSupport.unpark(thread);
+		
+		if (watchService != null)
+			closeWatchService();
+	}
+	
+	private void closeWatchService() {
+		try {
+			watchService.close();
+		}
+		catch (IOException e) {
+			// Thread is already stopping
+		}
+	}
+	
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Console settings read from a properties file. The whole file is validated
+ * before anything is applied, so an invalid file changes nothing. Supported
+ * keys:
+ * 
+ * <ul>
+ * 	<li><code>level</code>: global log level</li>
+ * 	<li><code>level.&lt;package or class&gt;</code>: log level of a package
+ * 	or class. The levels in the file replace all levels set by name, even
+ * 	if there are none.</li>
+ * 	<li><code>marginLeft</code>: margin left</li>
+ * 	<li><code>sink</code>: <code>stdout</code> for
+ * 	{@link PrintStreamSink#systemOut()} or <code>channel</code> for
+ * 	{@link ChannelOutputSink#stdout()}</li>
+ * 	<li><code>history.enabled</code>, <code>history.capacity</code>,
+ * 	<code>history.maxBytes</code> and <code>history.storage</code>:
+ * 	history settings</li>
+ * </ul>
+ * 
+ * <p>Settings without a key in the file are not changed.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class ConsoleConfiguration {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final String LEVEL_PREFIX = "level.";
+	private static volatile ChannelOutputSink stdoutChannel;
+	private LogLevel level;
+	private final Map<String, LogLevel> levels;
+	private Integer marginLeft;
+	private String sink;
+	private Boolean historyEnabled;
+	private Integer historyCapacity;
+	private Long historyMaxBytes;
+	private HistoryStorage historyStorage;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private ConsoleConfiguration() {
+		levels = new HashMap<>();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Reads a configuration from a UTF-8 properties file.
+	 * 
+	 * @param		file Properties file
+	 * 
+	 * @return		Configuration
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If a key is unknown or if a value
+	 * is invalid
+	 */
+	static ConsoleConfiguration load(Path file) throws IOException {
+		Properties properties = new Properties();
+		
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		
+		return parse(properties);
+	}
+	
+	private static ConsoleConfiguration parse(Properties properties) {
+		ConsoleConfiguration configuration = new ConsoleConfiguration();
+		
+		for (String key : properties.stringPropertyNames()) {
+			configuration.parse(key, properties.getProperty(key).trim());
+		}
+		
+		return configuration;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	private void parse(String key, String value) {
+		switch (key) {
+			case "level":
+				level = parseLevel(key, value);
+				break;
+			case "marginLeft":
+				marginLeft = (int) parseNumber(key, value, 0, Integer.MAX_VALUE);
+				break;
+			case "sink":
+				sink = parseSink(key, value);
+				break;
+			case "history.enabled":
+				historyEnabled = parseBoolean(key, value);
+				break;
+			case "history.capacity":
+				historyCapacity = (int) parseNumber(key, value, 1, Integer.MAX_VALUE);
+				break;
+			case "history.maxBytes":
+				historyMaxBytes = parseNumber(key, value, 1, Long.MAX_VALUE);
+				break;
+			case "history.storage":
+				historyStorage = parseStorage(key, value);
+				break;
+			default:
+				if (!key.startsWith(LEVEL_PREFIX) || (key.length() == LEVEL_PREFIX.length()))
+					throw new IllegalArgumentException("Unknown configuration key: " + key);
+				
+				levels.put(key.substring(LEVEL_PREFIX.length()), parseLevel(key, value));
+		}
+	}
+	
+	/**
+	 * Parses a level by its name, such as <code>WARNING</code>, or by the
+	 * name shown in messages, such as <code>WARN</code>.
+	 */
+	private static LogLevel parseLevel(String key, String value) {
+		for (LogLevel candidate : LogLevel.values()) {
+			if (candidate.name().equalsIgnoreCase(value) || candidate.getName().equalsIgnoreCase(value))
+				return candidate;
+		}
+		
+		throw invalidValue(key, value);
+	}
+	
+	private static long parseNumber(String key, String value, long min, long max) {
+		try {
+			long number = Long.parseLong(value);
+			
+			if ((number < min) || (number > max))
+				throw invalidValue(key, value);
+			
+			return number;
+		}
+		catch (NumberFormatException e) {
+			throw invalidValue(key, value);
+		}
+	}
+	
+	private static String parseSink(String key, String value) {
+		if (!value.equals("stdout") && !value.equals("channel"))
+			throw invalidValue(key, value);
+		
+		return value;
+	}
+	
+	private static boolean parseBoolean(String key, String value) {
+		if (!value.equals("true") && !value.equals("false"))
+			throw invalidValue(key, value);
+		
+		return Boolean.parseBoolean(value);
+	}
+	
+	private static HistoryStorage parseStorage(String key, String value) {
+		try {
+			return HistoryStorage.valueOf(value.toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException e) {
+			throw invalidValue(key, value);
+		}
+	}
+	
+	private static IllegalArgumentException invalidValue(String key, String value) {
+		return new IllegalArgumentException("Invalid value of " + key + ": " + value);
+	}
+	
+	/**
+	 * Applies the configuration to a console. Levels are applied last, so
+	 * that messages enabled by them already use the new settings.
+	 * 
+	 * @param		out Console output
+	 */
+	void applyTo(OutputConsolex out) {
+		if (historyStorage != null)
+			out.setHistoryStorage(historyStorage);
+		
+		if (historyCapacity != null)
+			out.setHistoryCapacity(historyCapacity);
+		
+		if (historyMaxBytes != null)
+			out.setHistoryMaxBytes(historyMaxBytes);
+		
+		if (historyEnabled != null)
+			out.setHistoryEnabled(historyEnabled);
+		
+		if (sink != null)
+			out.setOutputSink(createSink());
+		
+		if (marginLeft != null)
+			out.setMarginLeft(marginLeft);
+		
+		out.setLoggerLevels((level == null) ? out.getLoggerLevel() : level, levels);
+	}
+	
+	/**
+	 * Creates the sink, sharing a single channel sink so that reloading the
+	 * configuration does not open a new one each time.
+	 */
+	private OutputSink createSink() {
+		if (sink.equals("stdout"))
+			return PrintStreamSink.systemOut();
+		
+		if (stdoutChannel == null) {
+			synchronized (ConsoleConfiguration.class) {
+				if (stdoutChannel == null)
+					stdoutChannel = ChannelOutputSink.stdout();
+			}
+		}
+		
+		return stdoutChannel;
+	}
+}
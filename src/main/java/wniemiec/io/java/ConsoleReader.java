@@ -0,0 +1,639 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads lines from an input stream through a single large byte buffer that
+ * is kept between calls, so that bytes read beyond a line are not lost.
+ * Lines are split on raw bytes, which requires an ASCII-compatible charset,
+ * such as UTF-8 or ISO-8859-1. As in {@link java.io.BufferedReader}, a line
+ * ends with '\n', '\r' or "\r\n".
+ * 
+ * <p>Tokens are separated by ASCII whitespace. Numbers are parsed from the 
+ * buffer bytes, without creating strings. Reading a token does not consume 
+ * the whitespace that follows it, so a {@link #readLine()} after the last 
+ * token of a line returns the rest of that line.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class ConsoleReader {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final int LINE_BUFFER_SIZE = 256;
+	private static final int MAX_LINE_BUFFER_SIZE = 1024 * 1024;
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final int MAX_EXACT_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	private final InputStream input;
+	private final Charset charset;
+	private byte[] buffer;
+	private int position;
+	private int limit;
+	private byte[] lineBuffer;
+	private int lineLength;
+	private boolean skipLineFeed;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Reader of lines from an input stream.
+	 * 
+	 * @param		input Input stream
+	 * @param		charset Charset of the input. It must be ASCII-compatible
+	 * @param		bufferSize Buffer size, in bytes
+	 */
+	ConsoleReader(InputStream input, Charset charset, int bufferSize) {
+		this.input = input;
+		this.charset = charset;
+		this.buffer = new byte[bufferSize];
+		this.lineBuffer = new byte[LINE_BUFFER_SIZE];
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Reads a line.
+	 * 
+	 * @return		Line without its line break or null if the end of the
+	 * input has been reached
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 */
+	synchronized String readLine() throws IOException {
+		boolean hasContent = false;
+		
+		lineLength = 0;
+		skipPendingLineFeed();
+		
+		while ((position < limit) || fill()) {
+			int start = position;
+			int end = indexOfLineEnd(start);
+			
+			hasContent = true;
+			
+			if (end >= 0) {
+				consumeLineEnd(end);
+				
+				// Lines that do not cross a refill are decoded from the buffer
+				if (lineLength == 0)
+					return decode(buffer, start, end);
+				
+				appendToLine(start, end);
+				
+				return decodeLine();
+			}
+			
+			appendToLine(start, limit);
+			position = limit;
+		}
+		
+		return hasContent ? decodeLine() : null;
+	}
+	
+	private int indexOfLineEnd(int from) {
+		for (int i = from; i < limit; i++) {
+			if ((buffer[i] == LINE_FEED) || (buffer[i] == CARRIAGE_RETURN))
+				return i;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Moves past a line break. A '\r' that is the last buffered byte may be
+	 * followed by a '\n' that has not been read yet, so that '\n' is skipped
+	 * by the next read instead of waiting for more input now.
+	 */
+	private void consumeLineEnd(int end) {
+		position = end + 1;
+		
+		if (buffer[end] != CARRIAGE_RETURN)
+			return;
+		
+		if (position == limit)
+			skipLineFeed = true;
+		else if (buffer[position] == LINE_FEED)
+			position++;
+	}
+	
+	private void skipPendingLineFeed() throws IOException {
+		if (!skipLineFeed)
+			return;
+		
+		skipLineFeed = false;
+		
+		if (((position < limit) || fill()) && (buffer[position] == LINE_FEED))
+			position++;
+	}
+	
+	/**
+	 * Refills the buffer.
+	 * 
+	 * @return		False if the end of the input has been reached
+	 */
+	private boolean fill() throws IOException {
+		int read = input.read(buffer, 0, buffer.length);
+		
+		position = 0;
+		limit = Math.max(read, 0);
+		
+		return (read > 0);
+	}
+	
+	private void appendToLine(int from, int to) {
+		int length = to - from;
+		
+		if (lineLength + length > lineBuffer.length) {
+			byte[] grown = new byte[Math.max(lineBuffer.length * 2, lineLength + length)];
+			
+			System.arraycopy(lineBuffer, 0, grown, 0, lineLength);
+			lineBuffer = grown;
+		}
+		
+		System.arraycopy(buffer, from, lineBuffer, lineLength, length);
+		lineLength += length;
+	}
+	
+	private String decodeLine() {
+		return decodeLine(lineLength);
+	}
+	
+	private String decodeLine(int length) {
+		String line = decode(lineBuffer, 0, length);
+		
+		lineLength = 0;
+		
+		if (lineBuffer.length > MAX_LINE_BUFFER_SIZE)
+			lineBuffer = new byte[LINE_BUFFER_SIZE];
+		
+		return line;
+	}
+	
+	private String decode(byte[] bytes, int from, int to) {
+		return new String(bytes, from, to - from, charset);
+	}
+	
+	/**
+	 * Puts a line back in front of the unread input, so that the next read
+	 * starts with it. It is used when a line has been read for a request 
+	 * that was cancelled in the meantime.
+	 * 
+	 * @param		line Line previously returned by {@link #readLine()}
+	 */
+	synchronized void unreadLine(String line) {
+		// A '\n' still to be skipped now follows the put back line, so the 
+		// line ends with '\r' to pair with it
+		byte lineEnd = skipLineFeed ? CARRIAGE_RETURN : LINE_FEED;
+		byte[] bytes = (line + (char) lineEnd).getBytes(charset);
+		
+		skipLineFeed = false;
+		int remaining = limit - position;
+		
+		if (bytes.length <= position) {
+			position -= bytes.length;
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			
+			return;
+		}
+		
+		byte[] updated = new byte[Math.max(buffer.length, bytes.length + remaining)];
+		
+		System.arraycopy(bytes, 0, updated, 0, bytes.length);
+		System.arraycopy(buffer, position, updated, bytes.length, remaining);
+		buffer = updated;
+		position = 0;
+		limit = bytes.length + remaining;
+	}
+	
+	/**
+	 * Reads the next token.
+	 * 
+	 * @return		Token or null if the end of the input has been reached
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 */
+	synchronized String readToken() throws IOException {
+		if (!skipWhitespace())
+			return null;
+		
+		return decodeLine(readTokenBytes());
+	}
+	
+	/**
+	 * Copies the next token to the line buffer.
+	 * 
+	 * @return		Token length
+	 */
+	private int readTokenBytes() throws IOException {
+		lineLength = 0;
+		
+		while ((position < limit) || fill()) {
+			int start = position;
+			
+			while ((position < limit) && !isWhitespace(buffer[position])) {
+				position++;
+			}
+			
+			appendToLine(start, position);
+			
+			if (position < limit)
+				break;
+		}
+		
+		return lineLength;
+	}
+	
+	private static boolean isWhitespace(byte b) {
+		return (b >= 0) && (b <= ' ');
+	}
+	
+	/**
+	 * Skips whitespace until the next token.
+	 * 
+	 * @return		False if the end of the input has been reached
+	 */
+	private boolean skipWhitespace() throws IOException {
+		skipLineFeed = false;
+		
+		while ((position < limit) || fill()) {
+			while (position < limit) {
+				if (!isWhitespace(buffer[position]))
+					return true;
+				
+				position++;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Reads the next token as an int.
+	 * 
+	 * @return		Read number
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 * @throws		EOFException If the end of the input has been reached
+	 * @throws		NumberFormatException If the token is not an int
+	 */
+	synchronized int readInt() throws IOException {
+		long number = readLong();
+		
+		if ((number < Integer.MIN_VALUE) || (number > Integer.MAX_VALUE))
+			throw new NumberFormatException("Number out of int range: " + number);
+		
+		return (int) number;
+	}
+	
+	/**
+	 * Reads the next token as a long. Digits are accumulated as they are 
+	 * scanned in the buffer.
+	 * 
+	 * @return		Read number
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 * @throws		EOFException If the end of the input has been reached
+	 * @throws		NumberFormatException If the token is not a long
+	 */
+	synchronized long readLong() throws IOException {
+		if (!skipWhitespace())
+			throw new EOFException("End of input reached");
+		
+		boolean negative = (buffer[position] == '-');
+		
+		if (negative || (buffer[position] == '+'))
+			position++;
+		
+		// Accumulates negatively, as Long.parseLong does, so that 
+		// Long.MIN_VALUE can be read
+		long limitValue = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplicationLimit = limitValue / 10;
+		long result = 0;
+		int digits = 0;
+		
+		while ((position < limit) || fill()) {
+			byte b = buffer[position];
+			
+			if (isWhitespace(b))
+				break;
+			
+			int digit = b - '0';
+			
+			if ((digit < 0) || (digit > 9) || (result < multiplicationLimit) 
+					|| (result * 10 < limitValue + digit)) {
+				skipToken();
+				throw new NumberFormatException("Invalid long token");
+			}
+			
+			result = result * 10 - digit;
+			digits++;
+			position++;
+		}
+		
+		if (digits == 0)
+			throw new NumberFormatException("Invalid long token");
+		
+		return negative ? result : -result;
+	}
+	
+	private void skipToken() throws IOException {
+		while (((position < limit) || fill()) && !isWhitespace(buffer[position])) {
+			position++;
+		}
+	}
+	
+	/**
+	 * Reads the next token as a double. Decimal numbers with up to 15 
+	 * significant digits and a small exponent are computed directly from the
+	 * digits, which gives the same result as {@link Double#parseDouble(String)}.
+	 * Other forms, such as "NaN" or longer numbers, go through that method.
+	 * 
+	 * @return		Read number
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 * @throws		EOFException If the end of the input has been reached
+	 * @throws		NumberFormatException If the token is not a double
+	 */
+	synchronized double readDouble() throws IOException {
+		if (!skipWhitespace())
+			throw new EOFException("End of input reached");
+		
+		int length = readTokenBytes();
+		double number = parseExactDouble(lineBuffer, length);
+		
+		if (Double.isNaN(number)) {
+			number = Double.parseDouble(
+					new String(lineBuffer, 0, length, StandardCharsets.ISO_8859_1)
+			);
+		}
+		
+		lineLength = 0;
+		
+		return number;
+	}
+	
+	/**
+	 * Parses a decimal number whose significand and power of ten are both 
+	 * exactly representable, so that a single rounding takes place.
+	 * 
+	 * @return		Parsed number or NaN if the number does not have that form
+	 */
+	private static double parseExactDouble(byte[] bytes, int length) {
+		int i = 0;
+		boolean negative = (length > 0) && (bytes[0] == '-');
+		
+		if (negative || ((length > 0) && (bytes[0] == '+')))
+			i++;
+		
+		long significand = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		boolean hasDigits = false;
+		boolean fraction = false;
+		
+		for (; i < length; i++) {
+			byte b = bytes[i];
+			
+			if ((b == '.') && !fraction) {
+				fraction = true;
+				continue;
+			}
+			
+			int digit = b - '0';
+			
+			if ((digit < 0) || (digit > 9))
+				break;
+			
+			hasDigits = true;
+			
+			if ((significand != 0) || (digit != 0)) {
+				if (++significantDigits > MAX_EXACT_DIGITS)
+					return Double.NaN;
+				
+				significand = significand * 10 + digit;
+			}
+			
+			if (fraction)
+				exponent--;
+		}
+		
+		if (!hasDigits)
+			return Double.NaN;
+		
+		if ((i < length) && ((bytes[i] == 'e') || (bytes[i] == 'E'))) {
+			int explicitExponent = parseExponent(bytes, i + 1, length);
+			
+			if (explicitExponent == Integer.MIN_VALUE)
+				return Double.NaN;
+			
+			exponent += explicitExponent;
+			i = length;
+		}
+		
+		if ((i < length) || (Math.abs(exponent) >= POWERS_OF_TEN.length))
+			return Double.NaN;
+		
+		double number = (exponent < 0) 
+				? significand / POWERS_OF_TEN[-exponent] 
+				: significand * POWERS_OF_TEN[exponent];
+		
+		return negative ? -number : number;
+	}
+	
+	/**
+	 * Parses a small exponent.
+	 * 
+	 * @return		Exponent or Integer.MIN_VALUE if it is not valid or small
+	 */
+	private static int parseExponent(byte[] bytes, int from, int length) {
+		int i = from;
+		boolean negative = (i < length) && (bytes[i] == '-');
+		
+		if (negative || ((i < length) && (bytes[i] == '+')))
+			i++;
+		
+		if ((i == length) || (length - i > 3))
+			return Integer.MIN_VALUE;
+		
+		int exponent = 0;
+		
+		for (; i < length; i++) {
+			int digit = bytes[i] - '0';
+			
+			if ((digit < 0) || (digit > 9))
+				return Integer.MIN_VALUE;
+			
+			exponent = exponent * 10 + digit;
+		}
+		
+		return negative ? -exponent : exponent;
+	}
+	
+	/**
+	 * Reads the next tokens as ints.
+	 * 
+	 * @param		amount Number of ints to read
+	 * 
+	 * @return		Read numbers
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 * @throws		EOFException If the end of the input is reached before 
+	 * all numbers are read
+	 * @throws		NumberFormatException If a token is not an int
+	 * @throws		IllegalArgumentException If amount is negative
+	 */
+	synchronized int[] readIntArray(int amount) throws IOException {
+		if (amount < 0)
+			throw new IllegalArgumentException("Amount cannot be negative");
+		
+		int[] numbers = new int[amount];
+		
+		for (int i = 0; i < amount; i++) {
+			numbers[i] = readInt();
+		}
+		
+		return numbers;
+	}
+	
+	/**
+	 * Reads all remaining lines, passing each one to a consumer as soon as it
+	 * is read, so that memory usage does not depend on the input size.
+	 * 
+	 * @param		consumer Line consumer
+	 * 
+	 * @throws		IOException If the input cannot be read
+	 */
+	synchronized void forEachLine(Consumer<String> consumer) throws IOException {
+		String line;
+		
+		while ((line = readLine()) != null) {
+			consumer.accept(line);
+		}
+	}
+	
+	/**
+	 * Gets a lazily populated stream of lines.
+	 * 
+	 * @param		source Reads each line, returning null at the end of the
+	 * input
+	 * 
+	 * @return		Stream of lines. If the input cannot be read, an
+	 * {@link UncheckedIOException} is thrown by the stream operation.
+	 */
+	static Stream<String> lines(LineSource source) {
+		Iterator<String> iterator = new Iterator<>() {
+			private String nextLine;
+			
+			@Override
+			public boolean hasNext() {
+				if (nextLine != null)
+					return true;
+				
+				try {
+					nextLine = source.readLine();
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				
+				return (nextLine != null);
+			}
+			
+			@Override
+			public String next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				
+				String line = nextLine;
+				
+				nextLine = null;
+				
+				return line;
+			}
+		};
+		
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(
+						iterator,
+						Spliterator.ORDERED | Spliterator.NONNULL
+				),
+				false
+		);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	/**
+	 * Checks whether this reader reads from an input stream.
+	 * 
+	 * @param		stream Input stream
+	 * 
+	 * @return		True if it reads from the stream
+	 */
+	boolean isReading(InputStream stream) {
+		return (input == stream);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Reads lines one at a time.
+	 */
+	@FunctionalInterface
+	interface LineSource {
+		
+		/**
+		 * Reads a line.
+		 * 
+		 * @return		Line or null if the end of the input has been reached
+		 * 
+		 * @throws		IOException If the input cannot be read
+		 */
+		String readLine() throws IOException;
+	}
+	
+	/**
+	 * Operation performed on a reader.
+	 * 
+	 * @param		<T> Type of the result
+	 */
+	@FunctionalInterface
+	interface Read<T> {
+		
+		T apply(ConsoleReader reader) throws IOException;
+	}
+}
@@ -8,11 +8,21 @@
 package wniemiec.io.java;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
- * Facilitator of reading and writing on the console.
+ * Facilitator of reading and writing on the console. Output methods operate 
+ * on a default {@link ConsolexInstance}, where they are documented; 
+ * independent consoles can be created with {@link ConsolexInstance#builder()}.
  * 
  * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
  */
@@ -21,15 +31,15 @@ public class Consolex  {
 	//-------------------------------------------------------------------------
 	//		Attributes
 	//-------------------------------------------------------------------------
-	private static OutputConsolex out;
-	private static InputConsolex in;
+	private static final ConsolexInstance console;
+	private static final InputConsolex in;
 	
 	
 	//-------------------------------------------------------------------------
 	//		Initialization blocks
 	//-------------------------------------------------------------------------
 	static {
-		out = new OutputConsolex();
+		console = ConsolexInstance.builder().build();
 		in = new InputConsolex();
 	}
 	
@@ -56,155 +66,695 @@ public class Consolex  {
 	}
 	
 	/**
-	 * Writes a line on the console, putting a line break at the end.
+	 * Reads a line from console without blocking the caller. Lines are read 
+	 * by a single background thread, in the order they were requested.
 	 * 
-	 * @param		line Line to be written
+	 * @return		Future completed with the read line, with null if the end
+	 * of the input has been reached or exceptionally with an IOException if 
+	 * the console input cannot be read. If it is cancelled, the line being 
+	 * read is kept for the next read.
 	 */
-	public static void writeLine(Object line) {
-		out.writeLine(line);
+	public static CompletableFuture<String> readLineAsync() {
+		return in.readLineAsync();
 	}
 	
 	/**
-	 * Writes lines on the console, putting a line break at the end of each line.
+	 * Reads a line from console, waiting at most for a given time.
+	 * 
+	 * @param		timeout Maximum waiting time
+	 * 
+	 * @return		Read line or null if the end of the input has been reached
+	 * 
+	 * @throws		IOException If it is not possible to read the console input 
+	 * @throws		java.io.InterruptedIOException If no line is read within 
+	 * the timeout or if the caller is interrupted. The line being read is 
+	 * kept for the next read.
+	 * @throws		IllegalArgumentException If timeout is null or negative
+	 */
+	public static String readLine(Duration timeout) throws IOException {
+		return in.readLine(timeout);
+	}
+	
+	/**
+	 * Reads the next token from console. Tokens are separated by whitespace,
+	 * which is not consumed after the token: a {@link #readLine()} after the 
+	 * last token of a line returns the rest of that line.
+	 *  
+	 * @return		Read token or null if the end of the input has been reached
+	 * 
+	 * @throws		IOException If it is not possible to read the console input 
+	 */
+	public static String readToken() throws IOException {
+		return in.readToken();
+	}
+	
+	/**
+	 * Reads the next token from console as an int. The number is parsed from
+	 * the input bytes, without creating a string.
+	 *  
+	 * @return		Read number
+	 * 
+	 * @throws		IOException If it is not possible to read the console input
+	 * or if the end of the input has been reached 
+	 * @throws		NumberFormatException If the token is not an int
+	 */
+	public static int readInt() throws IOException {
+		return in.readInt();
+	}
+	
+	/**
+	 * Reads the next token from console as a long. The number is parsed from
+	 * the input bytes, without creating a string.
+	 *  
+	 * @return		Read number
+	 * 
+	 * @throws		IOException If it is not possible to read the console input
+	 * or if the end of the input has been reached 
+	 * @throws		NumberFormatException If the token is not a long
+	 */
+	public static long readLong() throws IOException {
+		return in.readLong();
+	}
+	
+	/**
+	 * Reads the next token from console as a double.
+	 *  
+	 * @return		Read number
 	 * 
-	 * @param		lines Lines to be written
+	 * @throws		IOException If it is not possible to read the console input
+	 * or if the end of the input has been reached 
+	 * @throws		NumberFormatException If the token is not a double
+	 */
+	public static double readDouble() throws IOException {
+		return in.readDouble();
+	}
+	
+	/**
+	 * Reads the next tokens from console as ints.
+	 *  
+	 * @param		amount Number of ints to read
+	 * 
+	 * @return		Read numbers
+	 * 
+	 * @throws		IOException If it is not possible to read the console input
+	 * or if the end of the input is reached before all numbers are read 
+	 * @throws		NumberFormatException If a token is not an int
+	 * @throws		IllegalArgumentException If amount is negative
+	 */
+	public static int[] readIntArray(int amount) throws IOException {
+		return in.readIntArray(amount);
+	}
+	
+	/**
+	 * Reads all remaining lines from console, until the end of the input.
+	 *  
+	 * @return		Read lines
+	 * 
+	 * @throws		IOException If it is not possible to read the console input 
+	 */
+	public static List<String> readLines() throws IOException {
+		return in.readLines();
+	}
+	
+	/**
+	 * Gets the remaining lines from console as a stream. Lines are only read 
+	 * when the stream consumes them, so that inputs of any size can be 
+	 * processed.
+	 * 
+	 * @return		Stream of lines. If the console input cannot be read, an
+	 * {@link java.io.UncheckedIOException} is thrown by the stream operation.
+	 */
+	public static Stream<String> lines() {
+		return in.lines();
+	}
+	
+	/**
+	 * Reads all remaining lines from console, passing each one to a consumer
+	 * as soon as it is read. Memory usage does not depend on the input size.
+	 * 
+	 * @param		consumer Line consumer
+	 * 
+	 * @throws		IOException If it is not possible to read the console input 
+	 * @throws		IllegalArgumentException If consumer is null
+	 */
+	public static void forEachLine(Consumer<String> consumer) throws IOException {
+		in.forEachLine(consumer);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeLine(Object)}
+	 * on the default instance.
+	 */
+	public static void writeLine(Object line) {
+		console.writeLine(line);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeLines(Object...)}
+	 * on the default instance.
 	 */
 	public static void writeLines(Object... lines) {
-		out.writeLines(lines);
+		console.writeLines(lines);
 	}
 
 	/**
-	 * Writes lines on the console, putting a line break at the end of each line.
-	 * 
-	 * @param		lines Lines to be written
+	 * Calls {@link ConsolexInstance#writeLines(List)}
+	 * on the default instance.
 	 */
 	public static void writeLines(List<String> lines) {
-		out.writeLines(lines);
+		console.writeLines(lines);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeLines(Iterable)}
+	 * on the default instance.
+	 */
+	public static void writeLines(Iterable<?> lines) {
+		console.writeLines(lines);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeLines(Stream)}
+	 * on the default instance.
+	 */
+	public static void writeLines(Stream<?> lines) {
+		console.writeLines(lines);
 	}
 
 	/**
-	 * Writes a content on the console without putting a line break at the end of
-	 * each line.
-	 * 
-	 * @param		content Content to be written
+	 * Calls {@link ConsolexInstance#write(Object)}
+	 * on the default instance.
 	 */
 	public static void write(Object content) {
-		out.write(content);
+		console.write(content);
 	}
 
 	/**
-	 * Write lines from a text file to the console. 
-	 * 
-	 * @param		file File  that will have its lines written on the console
-	 * 
-	 * @throws		IOException If file cannot be read
+	 * Calls {@link ConsolexInstance#writeFileLines(Path)}
+	 * on the default instance.
 	 */
 	public static void writeFileLines(Path file) throws IOException {
-		out.writeFileLines(file);
+		console.writeFileLines(file);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLines(Path, Charset)}
+	 * on the default instance.
+	 */
+	public static void writeFileLines(Path file, Charset charset) throws IOException {
+		console.writeFileLines(file, charset);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLines(Path, Charset, int)}
+	 * on the default instance.
+	 */
+	public static void writeFileLines(Path file, Charset charset, int bufferSize) 
+			throws IOException {
+		console.writeFileLines(file, charset, bufferSize);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLines(Path, long, long)}
+	 * on the default instance.
+	 */
+	public static void writeFileLines(Path file, long fromLine, long toLine) 
+			throws IOException {
+		console.writeFileLines(file, fromLine, toLine);
 	}
 
 	/**
-	 * Write lines from a text file to the console. Besides, it shows the line 
-	 * number of each line on the left. 
-	 * 
-	 * @param		file File  that will have its lines written on the console
-	 * 
-	 * @throws		IOException If file cannot be read
+	 * Calls {@link ConsolexInstance#writeFileLinesWithEnumeration(Path)}
+	 * on the default instance.
 	 */
 	public static void writeFileLinesWithEnumeration(Path file) 
 			throws IOException {
-		out.writeFileLinesWithEnumeration(file);
+		console.writeFileLinesWithEnumeration(file);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLinesWithEnumeration(Path, Charset)}
+	 * on the default instance.
+	 */
+	public static void writeFileLinesWithEnumeration(Path file, Charset charset) 
+			throws IOException {
+		console.writeFileLinesWithEnumeration(file, charset);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLinesWithEnumeration(Path, Charset, int)}
+	 * on the default instance.
+	 */
+	public static void writeFileLinesWithEnumeration(Path file, Charset charset, 
+											  int bufferSize) 
+			throws IOException {
+		console.writeFileLinesWithEnumeration(file, charset, bufferSize);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLinesWithEnumeration(Path, long, long)}
+	 * on the default instance.
+	 */
+	public static void writeFileLinesWithEnumeration(Path file, long fromLine, long toLine) 
+			throws IOException {
+		console.writeFileLinesWithEnumeration(file, fromLine, toLine);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLines(Path, Predicate)}
+	 * on the default instance.
+	 */
+	public static void writeFileLines(Path file, Predicate<String> filter) 
+			throws IOException {
+		console.writeFileLines(file, filter);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLines(Path, Pattern)}
+	 * on the default instance.
+	 */
+	public static void writeFileLines(Path file, Pattern regex) throws IOException {
+		console.writeFileLines(file, regex);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLinesWithEnumeration(Path, Predicate)}
+	 * on the default instance.
+	 */
+	public static void writeFileLinesWithEnumeration(Path file, Predicate<String> filter) 
+			throws IOException {
+		console.writeFileLinesWithEnumeration(file, filter);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeFileLinesWithEnumeration(Path, Pattern)}
+	 * on the default instance.
+	 */
+	public static void writeFileLinesWithEnumeration(Path file, Pattern regex) 
+			throws IOException {
+		console.writeFileLinesWithEnumeration(file, regex);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#followFileLines(Path)}
+	 * on the default instance.
+	 */
+	public static BackgroundTask followFileLines(Path file) {
+		return console.followFileLines(file);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#followFileLinesWithEnumeration(Path)}
+	 * on the default instance.
+	 */
+	public static BackgroundTask followFileLinesWithEnumeration(Path file) {
+		return console.followFileLinesWithEnumeration(file);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#loadConfiguration(Path)}
+	 * on the default instance.
+	 */
+	public static void loadConfiguration(Path file) throws IOException {
+		console.loadConfiguration(file);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#watchConfiguration(Path)}
+	 * on the default instance.
+	 */
+	public static BackgroundTask watchConfiguration(Path file) throws IOException {
+		return console.watchConfiguration(file);
 	}
 
 	/**
-	 * Writes a division line.
+	 * Calls {@link ConsolexInstance#writeDiv()}
+	 * on the default instance.
 	 */
 	public static void writeDiv() {
-		out.writeDiv();
+		console.writeDiv();
 	}
 	
 	/**
-	 * Writes a division line.
-	 * 
-	 * @param		symbol Symbol that will compose the division
+	 * Calls {@link ConsolexInstance#writeDiv(String)}
+	 * on the default instance.
 	 */
 	public static void writeDiv(String symbol) {
-		out.writeDiv(symbol);
+		console.writeDiv(symbol);
 	}
 
 	/**
-	 * Writes a title between two dividers.
-	 * 
-	 * @param		title Header title
+	 * Calls {@link ConsolexInstance#writeHeader(Object)}
+	 * on the default instance.
 	 */
 	public static void writeHeader(Object title) {
-		out.writeHeader(title);
+		console.writeHeader(title);
 	}
 
 	/**
-	 * Writes a title between two dividers.
-	 * 
-	 * @param		title Header title
-	 * @param		symbol Symbol that will compose the dividers 
+	 * Calls {@link ConsolexInstance#writeHeader(Object, String)}
+	 * on the default instance.
 	 */
 	public static void writeHeader(Object title, String symbol) {
-		out.writeHeader(title, symbol);
+		console.writeHeader(title, symbol);
 	}
 
 	/**
-	 * Displays an error message. <br>
-	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
-	 * 
-	 * @param		message Message to be displayed
+	 * Calls {@link ConsolexInstance#writeError(Object)}
+	 * on the default instance.
 	 */
 	public static void writeError(Object message) {
-		out.writeError(message);
+		console.writeError(message);
 	}
 	
 	/**
-	 * Displays a warning message. <br>
-	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
-	 * 
-	 * @param		message Message to be displayed
+	 * Calls {@link ConsolexInstance#writeWarning(Object)}
+	 * on the default instance.
 	 */
 	public static void writeWarning(Object message) {
-		out.writeWarning(message);
+		console.writeWarning(message);
 	}
 	
 	/**
-	 * Displays an information message. <br>
-	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
-	 * 
-	 * @param		message Message to be displayed
+	 * Calls {@link ConsolexInstance#writeInfo(Object)}
+	 * on the default instance.
 	 */
 	public static void writeInfo(Object message) {
-		out.writeInfo(message);
+		console.writeInfo(message);
 	}
 	
 	/**
-	 * Displays a debug message. <br>
-	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
-	 * 
-	 * @param		message Message to be displayed
+	 * Calls {@link ConsolexInstance#writeDebug(Object)}
+	 * on the default instance.
 	 */
 	public static void writeDebug(Object message) {
-		out.writeDebug(message);
+		console.writeDebug(message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeError(Supplier)}
+	 * on the default instance.
+	 */
+	public static void writeError(Supplier<?> message) {
+		console.writeError(message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(Supplier)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(Supplier<?> message) {
+		console.writeWarning(message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(Supplier)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(Supplier<?> message) {
+		console.writeInfo(message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(Supplier)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(Supplier<?> message) {
+		console.writeDebug(message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeError(Class, Object)}
+	 * on the default instance.
+	 */
+	public static void writeError(Class<?> source, Object message) {
+		console.writeError(source, message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(Class, Object)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(Class<?> source, Object message) {
+		console.writeWarning(source, message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(Class, Object)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(Class<?> source, Object message) {
+		console.writeInfo(source, message);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(Class, Object)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(Class<?> source, Object message) {
+		console.writeDebug(source, message);
 	}
 
 	/**
-	 * Clears the history of messages sent to the console. 
+	 * Calls {@link ConsolexInstance#writeError(String, Object)}
+	 * on the default instance.
+	 */
+	public static void writeError(String template, Object arg) {
+		console.writeError(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeError(String, Object, Object)}
+	 * on the default instance.
+	 */
+	public static void writeError(String template, Object first, Object second) {
+		console.writeError(template, first, second);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeError(String, Object...)}
+	 * on the default instance.
+	 */
+	public static void writeError(String template, Object... args) {
+		console.writeError(template, args);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeError(String, long)}
+	 * on the default instance.
+	 */
+	public static void writeError(String template, long arg) {
+		console.writeError(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeError(String, double)}
+	 * on the default instance.
+	 */
+	public static void writeError(String template, double arg) {
+		console.writeError(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(String, Object)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(String template, Object arg) {
+		console.writeWarning(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(String, Object, Object)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(String template, Object first, Object second) {
+		console.writeWarning(template, first, second);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(String, Object...)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(String template, Object... args) {
+		console.writeWarning(template, args);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(String, long)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(String template, long arg) {
+		console.writeWarning(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeWarning(String, double)}
+	 * on the default instance.
+	 */
+	public static void writeWarning(String template, double arg) {
+		console.writeWarning(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(String, Object)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(String template, Object arg) {
+		console.writeInfo(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(String, Object, Object)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(String template, Object first, Object second) {
+		console.writeInfo(template, first, second);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(String, Object...)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(String template, Object... args) {
+		console.writeInfo(template, args);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(String, long)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(String template, long arg) {
+		console.writeInfo(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeInfo(String, double)}
+	 * on the default instance.
+	 */
+	public static void writeInfo(String template, double arg) {
+		console.writeInfo(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(String, Object)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(String template, Object arg) {
+		console.writeDebug(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(String, Object, Object)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(String template, Object first, Object second) {
+		console.writeDebug(template, first, second);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(String, Object...)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(String template, Object... args) {
+		console.writeDebug(template, args);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(String, long)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(String template, long arg) {
+		console.writeDebug(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#writeDebug(String, double)}
+	 * on the default instance.
+	 */
+	public static void writeDebug(String template, double arg) {
+		console.writeDebug(template, arg);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#clearHistory()}
+	 * on the default instance.
 	 */
 	public static void clearHistory() {
-		out.clearHistory();
+		console.clearHistory();
 	}
 	
 	/**
-	 * Exports the history of messages sent to the console to a file.
-	 *  
-	 * @param		directoryPath Output directory
+	 * Calls {@link ConsolexInstance#setHistoryEnabled(boolean)}
+	 * on the default instance.
+	 */
+	public static void setHistoryEnabled(boolean enabled) {
+		console.setHistoryEnabled(enabled);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isHistoryEnabled()}
+	 * on the default instance.
+	 */
+	public static boolean isHistoryEnabled() {
+		return console.isHistoryEnabled();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#dumpTo(Path)}
+	 * on the default instance.
+	 */
+	public static DumpResult dumpTo(Path directoryPath) {
+		return console.dumpTo(directoryPath);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#appendTo(Path)}
+	 * on the default instance.
+	 */
+	public static DumpResult appendTo(Path output) {
+		return console.appendTo(output);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#scheduleAppendTo(Path, Duration, Consumer)}
+	 * on the default instance.
+	 */
+	public static BackgroundTask scheduleAppendTo(Path output, Duration interval, 
+												  Consumer<DumpResult> callback) {
+		return console.scheduleAppendTo(output, interval, callback);
+	}
+
+	/**
+	 * Calls {@link ConsolexInstance#enableAsyncLogging()}
+	 * on the default instance.
+	 */
+	public static void enableAsyncLogging() {
+		console.enableAsyncLogging();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#enableAsyncLogging(int, WaitStrategy, OverflowPolicy)}
+	 * on the default instance.
+	 */
+	public static void enableAsyncLogging(int capacity, WaitStrategy waitStrategy, 
+										  OverflowPolicy overflowPolicy) {
+		console.enableAsyncLogging(capacity, waitStrategy, overflowPolicy);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#disableAsyncLogging()}
+	 * on the default instance.
 	 */
-	public static void dumpTo(Path directoryPath) {
-		out.dumpTo(directoryPath);
+	public static void disableAsyncLogging() {
+		console.disableAsyncLogging();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#flush()}
+	 * on the default instance.
+	 */
+	public static void flush() {
+		console.flush();
 	}
 
 	
@@ -212,40 +762,338 @@ public class Consolex  {
 	//		Getters & Setters
 	//-------------------------------------------------------------------------
 	/**
-	 * Gets messages sent to the console. 
-	 * 
-	 * @return		List of messages
+	 * Calls {@link ConsolexInstance#getHistory()}
+	 * on the default instance.
 	 */
 	public static List<String> getHistory() {
-		return out.getHistory();
+		return console.getHistory();
 	}
 	
 	/**
-	 * Defines the distance between messages and the log level tag.
-	 * 
-	 * @param		margin Margin left
+	 * Calls {@link ConsolexInstance#getHistory(int, int)}
+	 * on the default instance.
+	 */
+	public static List<String> getHistory(int from, int to) {
+		return console.getHistory(from, to);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setHistoryCapacity(int)}
+	 * on the default instance.
+	 */
+	public static void setHistoryCapacity(int capacity) {
+		console.setHistoryCapacity(capacity);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getHistoryCapacity()}
+	 * on the default instance.
+	 */
+	public static int getHistoryCapacity() {
+		return console.getHistoryCapacity();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setHistoryMaxBytes(long)}
+	 * on the default instance.
+	 */
+	public static void setHistoryMaxBytes(long maxBytes) {
+		console.setHistoryMaxBytes(maxBytes);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getHistoryMaxBytes()}
+	 * on the default instance.
+	 */
+	public static long getHistoryMaxBytes() {
+		return console.getHistoryMaxBytes();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setHistoryStorage(HistoryStorage)}
+	 * on the default instance.
+	 */
+	public static void setHistoryStorage(HistoryStorage storage) {
+		console.setHistoryStorage(storage);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#useDiskHistory(Path, int, long)}
+	 * on the default instance.
+	 */
+	public static Path useDiskHistory(Path directory, int segmentSize, 
+									  long maxDiskUsage) {
+		return console.useDiskHistory(directory, segmentSize, maxDiskUsage);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getHistoryStorage()}
+	 * on the default instance.
+	 */
+	public static HistoryStorage getHistoryStorage() {
+		return console.getHistoryStorage();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setMarginLeft(int)}
+	 * on the default instance.
 	 */
 	public static void setMarginLeft(int margin) {
-		out.setMarginLeft(margin);
+		console.setMarginLeft(margin);
 	}
 	
 	/**
-	 * Sets log level. The level defines what type of message will be 
-	 * displayed.
-	 * 
-	 * @param		level New log level
+	 * Calls {@link ConsolexInstance#setLoggerLevel(LogLevel)}
+	 * on the default instance.
 	 */
 	public static void setLoggerLevel(LogLevel level) {
-		out.setLoggerLevel(level);
+		console.setLoggerLevel(level);
 	}
 
 	/**
-	 * Gets current log level. The level defines what type of message will be 
-	 * displayed.
-	 * 
-	 * @return		Current log level
+	 * Calls {@link ConsolexInstance#getLoggerLevel()}
+	 * on the default instance.
 	 */
 	public static LogLevel getLoggerLevel() {
-		return out.getLoggerLevel();
+		return console.getLoggerLevel();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setLoggerLevel(String, LogLevel)}
+	 * on the default instance.
+	 */
+	public static void setLoggerLevel(String name, LogLevel level) {
+		console.setLoggerLevel(name, level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setLoggerLevel(Class, LogLevel)}
+	 * on the default instance.
+	 */
+	public static void setLoggerLevel(Class<?> source, LogLevel level) {
+		console.setLoggerLevel(source, level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#removeLoggerLevel(String)}
+	 * on the default instance.
+	 */
+	public static void removeLoggerLevel(String name) {
+		console.removeLoggerLevel(name);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getLoggerLevel(Class)}
+	 * on the default instance.
+	 */
+	public static LogLevel getLoggerLevel(Class<?> source) {
+		return console.getLoggerLevel(source);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setOutputSink(OutputSink)}
+	 * on the default instance.
+	 */
+	public static void setOutputSink(OutputSink sink) {
+		console.setOutputSink(sink);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getOutputSink()}
+	 * on the default instance.
+	 */
+	public static OutputSink getOutputSink() {
+		return console.getOutputSink();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setOutputSinkLevel(LogLevel)}
+	 * on the default instance.
+	 */
+	public static void setOutputSinkLevel(LogLevel level) {
+		console.setOutputSinkLevel(level);
+	}
+	
+	public static LogLevel getOutputSinkLevel() {
+		return console.getOutputSinkLevel();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#addLogSink(String, OutputSink, LogLevel)}
+	 * on the default instance.
+	 */
+	public static void addLogSink(String name, OutputSink sink, LogLevel level) {
+		console.addLogSink(name, sink, level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#addLogSink(String, OutputSink, LogLevel, int, WaitStrategy, OverflowPolicy)}
+	 * on the default instance.
+	 */
+	public static void addLogSink(String name, OutputSink sink, LogLevel level, int capacity, 
+								  WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		console.addLogSink(name, sink, level, capacity, waitStrategy, overflowPolicy);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#removeLogSink(String)}
+	 * on the default instance.
+	 */
+	public static void removeLogSink(String name) {
+		console.removeLogSink(name);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getLogSinkFailures(String)}
+	 * on the default instance.
+	 */
+	public static long getLogSinkFailures(String name) {
+		return console.getLogSinkFailures(name);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getDroppedLogMessages(String)}
+	 * on the default instance.
+	 */
+	public static long getDroppedLogMessages(String sinkName) {
+		return console.getDroppedLogMessages(sinkName);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isErrorEnabled()}
+	 * on the default instance.
+	 */
+	public static boolean isErrorEnabled() {
+		return console.isErrorEnabled();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isWarningEnabled()}
+	 * on the default instance.
+	 */
+	public static boolean isWarningEnabled() {
+		return console.isWarningEnabled();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isInfoEnabled()}
+	 * on the default instance.
+	 */
+	public static boolean isInfoEnabled() {
+		return console.isInfoEnabled();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isDebugEnabled()}
+	 * on the default instance.
+	 */
+	public static boolean isDebugEnabled() {
+		return console.isDebugEnabled();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isAsyncLogging()}
+	 * on the default instance.
+	 */
+	public static boolean isAsyncLogging() {
+		return console.isAsyncLogging();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getDroppedLogMessages()}
+	 * on the default instance.
+	 */
+	public static long getDroppedLogMessages() {
+		return console.getDroppedLogMessages();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getDroppedLogMessages(LogLevel)}
+	 * on the default instance.
+	 */
+	public static long getDroppedLogMessages(LogLevel level) {
+		return console.getDroppedLogMessages(level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setDuplicateSuppression(boolean)}
+	 * on the default instance.
+	 */
+	public static void setDuplicateSuppression(boolean enabled) {
+		console.setDuplicateSuppression(enabled);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#isDuplicateSuppression()}
+	 * on the default instance.
+	 */
+	public static boolean isDuplicateSuppression() {
+		return console.isDuplicateSuppression();
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setRateLimit(LogLevel, int, int)}
+	 * on the default instance.
+	 */
+	public static void setRateLimit(LogLevel level, int messagesPerSecond, int burst) {
+		console.setRateLimit(level, messagesPerSecond, burst);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#removeRateLimit(LogLevel)}
+	 * on the default instance.
+	 */
+	public static void removeRateLimit(LogLevel level) {
+		console.removeRateLimit(level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getRateLimitedLogMessages(LogLevel)}
+	 * on the default instance.
+	 */
+	public static long getRateLimitedLogMessages(LogLevel level) {
+		return console.getRateLimitedLogMessages(level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setSampling(LogLevel, double)}
+	 * on the default instance.
+	 */
+	public static void setSampling(LogLevel level, double probability) {
+		console.setSampling(level, probability);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#setSampling(LogLevel, int)}
+	 * on the default instance.
+	 */
+	public static void setSampling(LogLevel level, int oneInN) {
+		console.setSampling(level, oneInN);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#removeSampling(LogLevel)}
+	 * on the default instance.
+	 */
+	public static void removeSampling(LogLevel level) {
+		console.removeSampling(level);
+	}
+	
+	/**
+	 * Calls {@link ConsolexInstance#getSampledOutLogMessages(LogLevel)}
+	 * on the default instance.
+	 */
+	public static long getSampledOutLogMessages(LogLevel level) {
+		return console.getSampledOutLogMessages(level);
+	}
+	
+	/**
+	 * Gets the console used by the static methods of this class. It can be
+	 * passed to components that expect a {@link ConsolexInstance}.
+	 * 
+	 * @return		Default console
+	 */
+	public static ConsolexInstance getDefaultInstance() {
+		return console;
 	}
 }
@@ -0,0 +1,1739 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Console with its own output sink, history, margin and log level. Instances
+ * do not share state with each other nor with {@link Consolex}, so a 
+ * component can write into a private console without contending with the 
+ * rest of the application. Instances are created through {@link #builder()}.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public class ConsolexInstance {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int DEFAULT_ASYNC_CAPACITY = 8192;
+	private final OutputConsolex out;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private ConsolexInstance(OutputConsolex out) {
+		this.out = out;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a builder of console instances.
+	 * 
+	 * @return		Builder whose defaults are the ones of {@link Consolex}
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Writes a line on the console, putting a line break at the end.
+	 * 
+	 * @param		line Line to be written
+	 */
+	public void writeLine(Object line) {
+		out.writeLine(line);
+	}
+	
+	/**
+	 * Writes lines on the console, putting a line break at the end of each line.
+	 * Lines are joined into batches, each written to the output sink and to
+	 * the history at once.
+	 * 
+	 * @param		lines Lines to be written
+	 */
+	public void writeLines(Object... lines) {
+		out.writeLines(lines);
+	}
+
+	/**
+	 * Writes lines on the console, putting a line break at the end of each line.
+	 * Lines are joined into batches, each written to the output sink and to
+	 * the history at once.
+	 * 
+	 * @param		lines Lines to be written
+	 */
+	public void writeLines(List<String> lines) {
+		out.writeLines(lines);
+	}
+	
+	/**
+	 * Writes lines on the console, putting a line break at the end of each line.
+	 * Lines are joined into batches, each written to the output sink and to
+	 * the history at once.
+	 * 
+	 * @param		lines Lines to be written
+	 * 
+	 * @throws		IllegalArgumentException If lines is null
+	 */
+	public void writeLines(Iterable<?> lines) {
+		out.writeLines(lines);
+	}
+	
+	/**
+	 * Writes lines on the console, putting a line break at the end of each line.
+	 * Lines are joined into batches, each written to the output sink and to
+	 * the history at once, so the stream is consumed a batch at a time. The 
+	 * stream is not closed.
+	 * 
+	 * @param		lines Lines to be written
+	 * 
+	 * @throws		IllegalArgumentException If lines is null
+	 */
+	public void writeLines(Stream<?> lines) {
+		out.writeLines(lines);
+	}
+
+	/**
+	 * Writes a content on the console without putting a line break at the end of
+	 * each line.
+	 * 
+	 * @param		content Content to be written
+	 */
+	public void write(Object content) {
+		out.write(content);
+	}
+
+	/**
+	 * Write lines from a text file to the console. If there is no margin and
+	 * the output sink writes with the charset of the file, the file bytes are
+	 * copied to it as they are; line breaks are then kept as in the file.
+	 * 
+	 * @param		file File  that will have its lines written on the console
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	public void writeFileLines(Path file) throws IOException {
+		out.writeFileLines(file);
+	}
+	
+	/**
+	 * Write lines from a text file to the console. Lines are written as they
+	 * are read, so that files of any size can be written with constant memory.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		charset File charset
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or charset is null
+	 */
+	public void writeFileLines(Path file, Charset charset) throws IOException {
+		out.writeFileLines(file, charset);
+	}
+	
+	/**
+	 * Write lines from a text file to the console. Lines are written as they
+	 * are read, so that files of any size can be written with constant memory.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		charset File charset
+	 * @param		bufferSize Size of the read buffer, in characters
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or charset is null or if
+	 * buffer size is not positive
+	 */
+	public void writeFileLines(Path file, Charset charset, int bufferSize) 
+			throws IOException {
+		out.writeFileLines(file, charset, bufferSize);
+	}
+	
+	/**
+	 * Write a range of lines from a UTF-8 text file to the console. The 
+	 * first time a file is used, its lines are indexed with a parallel scan;
+	 * while the file does not change, later ranges only read their own lines.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		fromLine Number of the first line, starting at 1
+	 * @param		toLine Number of the last line (inclusive). It may be 
+	 * past the end of the file.
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file is null, if from line is
+	 * not positive or if to line is smaller than from line
+	 */
+	public void writeFileLines(Path file, long fromLine, long toLine) 
+			throws IOException {
+		out.writeFileLines(file, fromLine, toLine);
+	}
+
+	/**
+	 * Write lines from a text file to the console. Besides, it shows the line 
+	 * number of each line on the left. 
+	 * 
+	 * @param		file File  that will have its lines written on the console
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	public void writeFileLinesWithEnumeration(Path file) 
+			throws IOException {
+		out.writeFileLinesWithEnumeration(file);
+	}
+	
+	/**
+	 * Write lines from a text file to the console. Besides, it shows the line 
+	 * number of each line on the left. Lines are written as they are read, so
+	 * that files of any size can be written with constant memory.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		charset File charset
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or charset is null
+	 */
+	public void writeFileLinesWithEnumeration(Path file, Charset charset) 
+			throws IOException {
+		out.writeFileLinesWithEnumeration(file, charset);
+	}
+	
+	/**
+	 * Write lines from a text file to the console. Besides, it shows the line 
+	 * number of each line on the left. Lines are written as they are read, so
+	 * that files of any size can be written with constant memory.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		charset File charset
+	 * @param		bufferSize Size of the read buffer, in characters
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or charset is null or if
+	 * buffer size is not positive
+	 */
+	public void writeFileLinesWithEnumeration(Path file, Charset charset, 
+											  int bufferSize) 
+			throws IOException {
+		out.writeFileLinesWithEnumeration(file, charset, bufferSize);
+	}
+	
+	/**
+	 * Write a range of lines from a UTF-8 text file to the console. Besides,
+	 * it shows the line number of each line on the left. The first time a 
+	 * file is used, its lines are indexed with a parallel scan; while the 
+	 * file does not change, later ranges only read their own lines.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		fromLine Number of the first line, starting at 1
+	 * @param		toLine Number of the last line (inclusive). It may be 
+	 * past the end of the file.
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file is null, if from line is
+	 * not positive or if to line is smaller than from line
+	 */
+	public void writeFileLinesWithEnumeration(Path file, long fromLine, long toLine) 
+			throws IOException {
+		out.writeFileLinesWithEnumeration(file, fromLine, toLine);
+	}
+	
+	/**
+	 * Write the lines from a UTF-8 text file that match a filter to the 
+	 * console, as <code>grep</code> does. Chunks of the file are filtered in 
+	 * parallel, but the lines are written in file order.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		filter Lines to be written. It is called from several 
+	 * threads at the same time, so it must be thread-safe.
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or filter is null
+	 */
+	public void writeFileLines(Path file, Predicate<String> filter) 
+			throws IOException {
+		out.writeFileLines(file, filter);
+	}
+	
+	/**
+	 * Write the lines from a UTF-8 text file that contain a match of a 
+	 * regular expression to the console, as <code>grep</code> does. Chunks 
+	 * of the file are searched in parallel, but the lines are written in file
+	 * order.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		regex Regular expression searched in each line
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or regex is null
+	 */
+	public void writeFileLines(Path file, Pattern regex) throws IOException {
+		out.writeFileLines(file, regex);
+	}
+	
+	/**
+	 * Write the lines from a UTF-8 text file that match a filter to the 
+	 * console, showing the line number of each line on the left. Chunks of 
+	 * the file are filtered in parallel, but the lines are written in file 
+	 * order.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		filter Lines to be written. It is called from several 
+	 * threads at the same time, so it must be thread-safe.
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or filter is null
+	 */
+	public void writeFileLinesWithEnumeration(Path file, Predicate<String> filter) 
+			throws IOException {
+		out.writeFileLinesWithEnumeration(file, filter);
+	}
+	
+	/**
+	 * Write the lines from a UTF-8 text file that contain a match of a 
+	 * regular expression to the console, showing the line number of each 
+	 * line on the left. Chunks of the file are searched in parallel, but the
+	 * lines are written in file order.
+	 * 
+	 * @param		file File that will have its lines written on the console
+	 * @param		regex Regular expression searched in each line
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file or regex is null
+	 */
+	public void writeFileLinesWithEnumeration(Path file, Pattern regex) 
+			throws IOException {
+		out.writeFileLinesWithEnumeration(file, regex);
+	}
+	
+	/**
+	 * Writes the lines of a UTF-8 text file and then keeps writing the lines 
+	 * appended to it, like <code>tail -f</code>. Lines are written by a 
+	 * background thread, as soon as their line break is appended. If the file
+	 * is truncated or replaced by a new file with the same name, as in log 
+	 * rotation, it is written again from its beginning.
+	 * 
+	 * @param		file File to be followed. It may not exist yet.
+	 * 
+	 * @return		Handle that stops following the file
+	 * 
+	 * @throws		IllegalArgumentException If file is null
+	 */
+	public BackgroundTask followFileLines(Path file) {
+		return out.followFileLines(file);
+	}
+	
+	/**
+	 * Writes the lines of a UTF-8 text file and then keeps writing the lines 
+	 * appended to it, like <code>tail -f</code>, showing the line number of
+	 * each line on the left. Numbering continues as lines are appended and 
+	 * starts again at 1 if the file is truncated or rotated.
+	 * 
+	 * @param		file File to be followed. It may not exist yet.
+	 * 
+	 * @return		Handle that stops following the file
+	 * 
+	 * @throws		IllegalArgumentException If file is null
+	 */
+	public BackgroundTask followFileLinesWithEnumeration(Path file) {
+		return out.followFileLinesWithEnumeration(file);
+	}
+	
+	/**
+	 * Applies the settings of a UTF-8 properties file. Supported keys:
+	 * <ul>
+	 * 	<li><code>level</code>: log level, such as <code>DEBUG</code></li>
+	 * 	<li><code>level.&lt;package or class&gt;</code>: log level of a 
+	 * 	package or class. The levels in the file replace all levels set by
+	 * 	name, even if there are none.</li>
+	 * 	<li><code>marginLeft</code>: margin left</li>
+	 * 	<li><code>sink</code>: <code>stdout</code> for 
+	 * 	{@link PrintStreamSink#systemOut()} or <code>channel</code> for 
+	 * 	{@link ChannelOutputSink#stdout()}</li>
+	 * 	<li><code>history.enabled</code>, <code>history.capacity</code>, 
+	 * 	<code>history.maxBytes</code> and <code>history.storage</code></li>
+	 * </ul>
+	 * Settings without a key in the file are not changed. The whole file is
+	 * validated before any setting is applied.
+	 * 
+	 * @param		file Properties file
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file is null, if the file has
+	 * an unknown key or if a value is invalid
+	 */
+	public void loadConfiguration(Path file) throws IOException {
+		out.loadConfiguration(file);
+	}
+	
+	/**
+	 * Applies the settings of a UTF-8 properties file, as 
+	 * {@link #loadConfiguration(Path)} does, and applies them again whenever
+	 * the file changes, so that, for instance, debug messages can be turned 
+	 * on and off in a running process. Changes are noticed through a watch 
+	 * service, with a periodic check as fallback. A change that makes the 
+	 * file invalid is reported as an error message and changes nothing.
+	 * 
+	 * @param		file Properties file
+	 * 
+	 * @return		Handle that stops watching the file
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IllegalArgumentException If file is null, if the file has
+	 * an unknown key or if a value is invalid
+	 */
+	public BackgroundTask watchConfiguration(Path file) throws IOException {
+		return out.watchConfiguration(file);
+	}
+
+	/**
+	 * Writes a division line.
+	 */
+	public void writeDiv() {
+		out.writeDiv();
+	}
+	
+	/**
+	 * Writes a division line.
+	 * 
+	 * @param		symbol Symbol that will compose the division
+	 */
+	public void writeDiv(String symbol) {
+		out.writeDiv(symbol);
+	}
+
+	/**
+	 * Writes a title between two dividers.
+	 * 
+	 * @param		title Header title
+	 */
+	public void writeHeader(Object title) {
+		out.writeHeader(title);
+	}
+
+	/**
+	 * Writes a title between two dividers.
+	 * 
+	 * @param		title Header title
+	 * @param		symbol Symbol that will compose the dividers 
+	 */
+	public void writeHeader(Object title, String symbol) {
+		out.writeHeader(title, symbol);
+	}
+
+	/**
+	 * Displays an error message. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		message Message to be displayed
+	 */
+	public void writeError(Object message) {
+		out.writeError(message);
+	}
+	
+	/**
+	 * Displays a warning message. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		message Message to be displayed
+	 */
+	public void writeWarning(Object message) {
+		out.writeWarning(message);
+	}
+	
+	/**
+	 * Displays an information message. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		message Message to be displayed
+	 */
+	public void writeInfo(Object message) {
+		out.writeInfo(message);
+	}
+	
+	/**
+	 * Displays a debug message. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		message Message to be displayed
+	 */
+	public void writeDebug(Object message) {
+		out.writeDebug(message);
+	}
+	
+	/**
+	 * Displays an error message whose content is only computed if error messages
+	 * are enabled. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		message Supplier of the message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If message is null
+	 */
+	public void writeError(Supplier<?> message) {
+		out.writeError(message);
+	}
+	
+	/**
+	 * Displays a warning message whose content is only computed if warning messages
+	 * are enabled. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		message Supplier of the message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If message is null
+	 */
+	public void writeWarning(Supplier<?> message) {
+		out.writeWarning(message);
+	}
+	
+	/**
+	 * Displays an information message whose content is only computed if info messages
+	 * are enabled. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		message Supplier of the message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If message is null
+	 */
+	public void writeInfo(Supplier<?> message) {
+		out.writeInfo(message);
+	}
+	
+	/**
+	 * Displays a debug message whose content is only computed if debug messages
+	 * are enabled. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		message Supplier of the message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If message is null
+	 */
+	public void writeDebug(Supplier<?> message) {
+		out.writeDebug(message);
+	}
+	
+	/**
+	 * Displays an error message from a class. It is only displayed if error
+	 * messages are enabled by the level of the class, which is the level of 
+	 * the class itself or of its package, if any, or the global level 
+	 * otherwise. <br>
+	 * <b>Format:</b> <code>[ERROR] { &lt;class name&gt; } &lt;message&gt;</code>
+	 * 
+	 * @param		source Class that sends the message
+	 * @param		message Message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If source or message is null
+	 */
+	public void writeError(Class<?> source, Object message) {
+		out.writeError(source, message);
+	}
+	
+	/**
+	 * Displays a warning message from a class. It is only displayed if 
+	 * warning messages are enabled by the level of the class. <br>
+	 * <b>Format:</b> <code>[WARN] { &lt;class name&gt; } &lt;message&gt;</code>
+	 * 
+	 * @param		source Class that sends the message
+	 * @param		message Message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If source or message is null
+	 */
+	public void writeWarning(Class<?> source, Object message) {
+		out.writeWarning(source, message);
+	}
+	
+	/**
+	 * Displays an info message from a class. It is only displayed if info 
+	 * messages are enabled by the level of the class. <br>
+	 * <b>Format:</b> <code>[INFO] { &lt;class name&gt; } &lt;message&gt;</code>
+	 * 
+	 * @param		source Class that sends the message
+	 * @param		message Message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If source or message is null
+	 */
+	public void writeInfo(Class<?> source, Object message) {
+		out.writeInfo(source, message);
+	}
+	
+	/**
+	 * Displays a debug message from a class. It is only displayed if debug 
+	 * messages are enabled by the level of the class. <br>
+	 * <b>Format:</b> <code>[DEBUG] { &lt;class name&gt; } &lt;message&gt;</code>
+	 * 
+	 * @param		source Class that sends the message
+	 * @param		message Message to be displayed
+	 * 
+	 * @throws		IllegalArgumentException If source or message is null
+	 */
+	public void writeDebug(Class<?> source, Object message) {
+		out.writeDebug(source, message);
+	}
+
+	/**
+	 * Displays an error message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if error messages are enabled. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeError(String template, Object arg) {
+		out.writeError(template, arg);
+	}
+	
+	/**
+	 * Displays an error message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if error messages are enabled. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		first Value of the first placeholder
+	 * @param		second Value of the second placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeError(String template, Object first, Object second) {
+		out.writeError(template, first, second);
+	}
+	
+	/**
+	 * Displays an error message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if error messages are enabled. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		args Values of the placeholders, in order
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeError(String template, Object... args) {
+		out.writeError(template, args);
+	}
+	
+	/**
+	 * Displays an error message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if error messages are enabled. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeError(String template, long arg) {
+		out.writeError(template, arg);
+	}
+	
+	/**
+	 * Displays an error message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if error messages are enabled. <br>
+	 * <b>Format:</b> <code>[ERROR] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeError(String template, double arg) {
+		out.writeError(template, arg);
+	}
+	
+	/**
+	 * Displays a warning message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if warning messages are enabled. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeWarning(String template, Object arg) {
+		out.writeWarning(template, arg);
+	}
+	
+	/**
+	 * Displays a warning message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if warning messages are enabled. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		first Value of the first placeholder
+	 * @param		second Value of the second placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeWarning(String template, Object first, Object second) {
+		out.writeWarning(template, first, second);
+	}
+	
+	/**
+	 * Displays a warning message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if warning messages are enabled. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		args Values of the placeholders, in order
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeWarning(String template, Object... args) {
+		out.writeWarning(template, args);
+	}
+	
+	/**
+	 * Displays a warning message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if warning messages are enabled. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeWarning(String template, long arg) {
+		out.writeWarning(template, arg);
+	}
+	
+	/**
+	 * Displays a warning message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if warning messages are enabled. <br>
+	 * <b>Format:</b> <code>[WARN] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeWarning(String template, double arg) {
+		out.writeWarning(template, arg);
+	}
+	
+	/**
+	 * Displays an information message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if info messages are enabled. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeInfo(String template, Object arg) {
+		out.writeInfo(template, arg);
+	}
+	
+	/**
+	 * Displays an information message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if info messages are enabled. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		first Value of the first placeholder
+	 * @param		second Value of the second placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeInfo(String template, Object first, Object second) {
+		out.writeInfo(template, first, second);
+	}
+	
+	/**
+	 * Displays an information message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if info messages are enabled. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		args Values of the placeholders, in order
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeInfo(String template, Object... args) {
+		out.writeInfo(template, args);
+	}
+	
+	/**
+	 * Displays an information message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if info messages are enabled. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeInfo(String template, long arg) {
+		out.writeInfo(template, arg);
+	}
+	
+	/**
+	 * Displays an information message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if info messages are enabled. <br>
+	 * <b>Format:</b> <code>[INFO] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeInfo(String template, double arg) {
+		out.writeInfo(template, arg);
+	}
+	
+	/**
+	 * Displays a debug message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if debug messages are enabled. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeDebug(String template, Object arg) {
+		out.writeDebug(template, arg);
+	}
+	
+	/**
+	 * Displays a debug message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if debug messages are enabled. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		first Value of the first placeholder
+	 * @param		second Value of the second placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeDebug(String template, Object first, Object second) {
+		out.writeDebug(template, first, second);
+	}
+	
+	/**
+	 * Displays a debug message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if debug messages are enabled. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		args Values of the placeholders, in order
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeDebug(String template, Object... args) {
+		out.writeDebug(template, args);
+	}
+	
+	/**
+	 * Displays a debug message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if debug messages are enabled. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeDebug(String template, long arg) {
+		out.writeDebug(template, arg);
+	}
+	
+	/**
+	 * Displays a debug message built from a template, where each 
+	 * <code>{}</code> is replaced by an argument. The message is only built 
+	 * if debug messages are enabled. <br>
+	 * <b>Format:</b> <code>[DEBUG] &lt;message&gt;</code>
+	 * 
+	 * @param		template Message template
+	 * @param		arg Value of the placeholder
+	 * 
+	 * @throws		IllegalArgumentException If template is null
+	 */
+	public void writeDebug(String template, double arg) {
+		out.writeDebug(template, arg);
+	}
+	
+	/**
+	 * Clears the history of messages sent to the console. 
+	 */
+	public void clearHistory() {
+		out.clearHistory();
+	}
+	
+	/**
+	 * Sets whether messages sent to the console are kept in the history. 
+	 * Disabling it does not clear the current history. It also makes
+	 * {@link #writeFileLines(Path)} faster, since file lines are then not
+	 * decoded at all when they can be copied as bytes to the output sink.
+	 * 
+	 * @param		enabled True to keep messages in the history
+	 */
+	public void setHistoryEnabled(boolean enabled) {
+		out.setHistoryEnabled(enabled);
+	}
+	
+	/**
+	 * Checks whether messages sent to the console are kept in the history.
+	 * 
+	 * @return		True if history is enabled
+	 */
+	public boolean isHistoryEnabled() {
+		return out.isHistoryEnabled();
+	}
+	
+	/**
+	 * Exports the history of messages sent to the console to a file. If the 
+	 * file exists, its content is replaced.
+	 *  
+	 * @param		directoryPath Output file
+	 * 
+	 * @return		Result of the export, including any I/O error
+	 * 
+	 * @throws		IllegalArgumentException If output file is null
+	 */
+	public DumpResult dumpTo(Path directoryPath) {
+		return out.dumpTo(directoryPath);
+	}
+	
+	/**
+	 * Appends to a file the messages sent to the console since the last time
+	 * the history was exported to it. Calling it periodically costs only the
+	 * new messages, instead of the whole history.
+	 *  
+	 * @param		output Output file
+	 * 
+	 * @return		Result of the export, including any I/O error
+	 * 
+	 * @throws		IllegalArgumentException If output file is null
+	 */
+	public DumpResult appendTo(Path output) {
+		return out.appendTo(output);
+	}
+	
+	/**
+	 * Periodically appends to a file, in the background, the messages sent 
+	 * to the console since the last export. When the returned task is 
+	 * cancelled, a last export is made.
+	 *  
+	 * @param		output Output file
+	 * @param		interval Interval between exports
+	 * @param		callback Receives the result of each export. It may be 
+	 * null.
+	 * 
+	 * @return		Handle that stops the exports
+	 * 
+	 * @throws		IllegalArgumentException If output file is null or if 
+	 * interval is null or not positive
+	 */
+	public BackgroundTask scheduleAppendTo(Path output, Duration interval, 
+												  Consumer<DumpResult> callback) {
+		return out.scheduleAppendTo(output, interval, callback);
+	}
+
+	/**
+	 * Enables asynchronous logging. Log messages are published into a bounded
+	 * queue and written by a background thread, so that a slow console does 
+	 * not stall the caller. It uses a queue of 8192 messages, the 
+	 * {@link WaitStrategy#SLEEPING sleeping} wait strategy and the 
+	 * {@link OverflowPolicy#block() block} overflow policy.
+	 */
+	public void enableAsyncLogging() {
+		enableAsyncLogging(
+				DEFAULT_ASYNC_CAPACITY, 
+				WaitStrategy.SLEEPING, 
+				OverflowPolicy.block()
+		);
+	}
+	
+	/**
+	 * Enables asynchronous logging. Log messages are published into a bounded
+	 * queue and written by a background thread, so that a slow console does 
+	 * not stall the caller. Messages sent through {@link #writeLine(Object)} 
+	 * and similar methods are still written by the caller, so their order 
+	 * relative to log messages is not guaranteed.
+	 * 
+	 * @param		capacity Queue capacity. It is rounded up to a power of two
+	 * @param		waitStrategy How the background thread waits for messages
+	 * @param		overflowPolicy What to do when the queue is full
+	 * 
+	 * @throws		IllegalArgumentException If capacity is not positive or 
+	 * if wait strategy or overflow policy is null
+	 */
+	public void enableAsyncLogging(int capacity, WaitStrategy waitStrategy, 
+										  OverflowPolicy overflowPolicy) {
+		out.enableAsyncLogging(capacity, waitStrategy, overflowPolicy);
+	}
+	
+	/**
+	 * Disables asynchronous logging. Pending log messages are written before
+	 * this method returns.
+	 */
+	public void disableAsyncLogging() {
+		out.disableAsyncLogging();
+	}
+	
+	/**
+	 * Waits until all pending log messages have been written and forces the
+	 * output sink to write any buffered content.
+	 */
+	public void flush() {
+		out.flush();
+	}
+
+	
+	//-------------------------------------------------------------------------
+	//		Getters & Setters
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets messages sent to the console. 
+	 * 
+	 * @return		List of messages
+	 */
+	public List<String> getHistory() {
+		return out.getHistory();
+	}
+	
+	/**
+	 * Gets messages sent to the console in a range. Index 0 is the oldest 
+	 * message kept in the history.
+	 * 
+	 * @param		from Index of the first message (inclusive)
+	 * @param		to Index of the last message (exclusive)
+	 * 
+	 * @return		List of messages
+	 * 
+	 * @throws		IndexOutOfBoundsException If range is invalid
+	 */
+	public List<String> getHistory(int from, int to) {
+		return out.getHistory(from, to);
+	}
+	
+	/**
+	 * Sets how many messages the history keeps. When the history is full, 
+	 * the oldest message is discarded for each new message. Default is 80000,
+	 * or 10,000,000 with {@link HistoryStorage#DISK}. A capacity that has not
+	 * been changed follows the storage.
+	 * 
+	 * @param		capacity Maximum number of messages
+	 * 
+	 * @throws		IllegalArgumentException If capacity is not positive
+	 */
+	public void setHistoryCapacity(int capacity) {
+		out.setHistoryCapacity(capacity);
+	}
+	
+	/**
+	 * Gets how many messages the history keeps.
+	 * 
+	 * @return		Maximum number of messages
+	 */
+	public int getHistoryCapacity() {
+		return out.getHistoryCapacity();
+	}
+	
+	/**
+	 * Sets the approximate amount of memory the history can retain. When it
+	 * is exceeded, the oldest messages are discarded. By default, the history
+	 * is only limited by its capacity.
+	 * 
+	 * @param		maxBytes Maximum retained bytes
+	 * 
+	 * @throws		IllegalArgumentException If max bytes is not positive
+	 */
+	public void setHistoryMaxBytes(long maxBytes) {
+		out.setHistoryMaxBytes(maxBytes);
+	}
+	
+	/**
+	 * Gets the approximate amount of memory the history can retain.
+	 * 
+	 * @return		Maximum retained bytes
+	 */
+	public long getHistoryMaxBytes() {
+		return out.getHistoryMaxBytes();
+	}
+	
+	/**
+	 * Sets where the history is stored. With {@link HistoryStorage#OFF_HEAP},
+	 * messages are kept as UTF-8 bytes outside the heap and are only decoded
+	 * when the history is read. Current messages are moved to the new 
+	 * storage. Default is {@link HistoryStorage#HEAP}.
+	 * 
+	 * @param		storage History storage
+	 * 
+	 * @throws		IllegalArgumentException If storage is null
+	 */
+	public void setHistoryStorage(HistoryStorage storage) {
+		out.setHistoryStorage(storage);
+	}
+	
+	/**
+	 * Stores the history in memory-mapped segment files, so that it can be 
+	 * much larger than the available memory. Segment files are created in a 
+	 * new directory inside the given one. When a segment is full, a new one 
+	 * is created, and when the total size of the segments exceeds the disk 
+	 * limit, the oldest segment is deleted. Current messages are moved to the
+	 * new storage.
+	 * 
+	 * @param		directory Directory where the history directory will be 
+	 * created
+	 * @param		segmentSize Size of each segment file, in bytes
+	 * @param		maxDiskUsage Maximum size of all segment files together
+	 * 
+	 * @return		Directory where segment files are written
+	 * 
+	 * @throws		IllegalArgumentException If directory is null or if 
+	 * segment size or max disk usage is not positive
+	 * @throws		java.io.UncheckedIOException If the history directory 
+	 * cannot be created
+	 */
+	public Path useDiskHistory(Path directory, int segmentSize, 
+									  long maxDiskUsage) {
+		return out.useDiskHistory(directory, segmentSize, maxDiskUsage);
+	}
+	
+	/**
+	 * Gets where the history is stored.
+	 * 
+	 * @return		History storage
+	 */
+	public HistoryStorage getHistoryStorage() {
+		return out.getHistoryStorage();
+	}
+	
+	/**
+	 * Defines the distance between messages and the log level tag.
+	 * 
+	 * @param		margin Margin left
+	 */
+	public void setMarginLeft(int margin) {
+		out.setMarginLeft(margin);
+	}
+	
+	/**
+	 * Sets log level. The level defines what type of message will be 
+	 * displayed.
+	 * 
+	 * @param		level New log level
+	 */
+	public void setLoggerLevel(LogLevel level) {
+		out.setLoggerLevel(level);
+	}
+
+	/**
+	 * Gets current log level. The level defines what type of message will be 
+	 * displayed.
+	 * 
+	 * @return		Current log level
+	 */
+	public LogLevel getLoggerLevel() {
+		return out.getLoggerLevel();
+	}
+	
+	/**
+	 * Sets the log level of a package or class. It applies to messages sent
+	 * with a source class, and also to its subpackages and nested classes 
+	 * unless they have a level of their own.
+	 * 
+	 * @param		name Package or fully qualified class name
+	 * @param		level New log level
+	 * 
+	 * @throws		IllegalArgumentException If name is null or empty or if 
+	 * level is null
+	 */
+	public void setLoggerLevel(String name, LogLevel level) {
+		out.setLoggerLevel(name, level);
+	}
+	
+	/**
+	 * Sets the log level of a class. It applies to messages sent with it as 
+	 * source class, and also to its nested classes unless they have a level 
+	 * of their own.
+	 * 
+	 * @param		source Class
+	 * @param		level New log level
+	 * 
+	 * @throws		IllegalArgumentException If source or level is null
+	 */
+	public void setLoggerLevel(Class<?> source, LogLevel level) {
+		out.setLoggerLevel(source, level);
+	}
+	
+	/**
+	 * Removes the log level of a package or class, which goes back to the 
+	 * level of its enclosing package or to the global level.
+	 * 
+	 * @param		name Package or fully qualified class name
+	 * 
+	 * @throws		IllegalArgumentException If name is null or empty
+	 */
+	public void removeLoggerLevel(String name) {
+		out.removeLoggerLevel(name);
+	}
+	
+	/**
+	 * Gets the log level that applies to messages sent by a class.
+	 * 
+	 * @param		source Class
+	 * 
+	 * @return		Level of the class, of its closest package with a level
+	 * or the global level
+	 * 
+	 * @throws		IllegalArgumentException If source is null
+	 */
+	public LogLevel getLoggerLevel(Class<?> source) {
+		return out.getLoggerLevel(source);
+	}
+	
+	/**
+	 * Sets where the console content is written. The default sink is 
+	 * {@link PrintStreamSink#systemOut()}. For writing large amounts of 
+	 * lines, {@link ChannelOutputSink#stdout(FlushPolicy)} avoids a 
+	 * synchronized stream call and a flush per line.
+	 * 
+	 * @param		sink New output sink
+	 * 
+	 * @throws		IllegalArgumentException If sink is null
+	 */
+	public void setOutputSink(OutputSink sink) {
+		out.setOutputSink(sink);
+	}
+	
+	/**
+	 * Gets where the console content is written.
+	 * 
+	 * @return		Current output sink
+	 */
+	public OutputSink getOutputSink() {
+		return out.getOutputSink();
+	}
+	
+	/**
+	 * Sets the least severe level of the log messages written to the output
+	 * sink. Log messages must also pass the logger level, and they are kept
+	 * in history regardless of this level. Default is DEBUG.
+	 * 
+	 * @param		level Least severe level written to the output sink, or 
+	 * OFF to write no log message to it
+	 * 
+	 * @throws		IllegalArgumentException If level is null
+	 */
+	public void setOutputSinkLevel(LogLevel level) {
+		out.setOutputSinkLevel(level);
+	}
+	
+	public LogLevel getOutputSinkLevel() {
+		return out.getOutputSinkLevel();
+	}
+	
+	/**
+	 * Adds a sink that receives the log messages of a level or more severe,
+	 * besides the output sink. Messages are written to it by the caller. An
+	 * exception thrown by the sink is counted and does not stop the message
+	 * from being written to the other sinks.
+	 * 
+	 * @param		name Sink name
+	 * @param		sink Sink
+	 * @param		level Least severe level written to the sink
+	 * 
+	 * @throws		IllegalArgumentException If name is null or empty, if sink
+	 * or level is null or if there is already a sink with that name
+	 * 
+	 * @see			#getLogSinkFailures(String)
+	 */
+	public void addLogSink(String name, OutputSink sink, LogLevel level) {
+		out.addLogSink(name, sink, level);
+	}
+	
+	/**
+	 * Adds a sink that receives the log messages of a level or more severe,
+	 * besides the output sink. Messages are published into a bounded queue of
+	 * the sink and written by a background thread of its own, so that a slow
+	 * sink does not slow down the caller or the other sinks. An exception 
+	 * thrown by the sink is counted and does not stop its thread.
+	 * 
+	 * @param		name Sink name
+	 * @param		sink Sink
+	 * @param		level Least severe level written to the sink
+	 * @param		capacity Queue capacity. It is rounded up to a power of two
+	 * @param		waitStrategy How the background thread waits for messages
+	 * @param		overflowPolicy What to do when the queue of the sink is 
+	 * full
+	 * 
+	 * @throws		IllegalArgumentException If name is null or empty, if sink
+	 * or level is null, if there is already a sink with that name, if 
+	 * capacity is not positive or if wait strategy or overflow policy is null
+	 * 
+	 * @see			#getDroppedLogMessages(String)
+	 */
+	public void addLogSink(String name, OutputSink sink, LogLevel level, int capacity, 
+						   WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		out.addLogSink(name, sink, level, capacity, waitStrategy, overflowPolicy);
+	}
+	
+	/**
+	 * Removes a sink added by {@link #addLogSink(String, OutputSink, LogLevel)},
+	 * writing its pending messages first. The sink is flushed, but not 
+	 * closed. Nothing happens if there is no sink with that name.
+	 * 
+	 * @param		name Sink name
+	 * 
+	 * @throws		IllegalArgumentException If name is null or empty
+	 */
+	public void removeLogSink(String name) {
+		out.removeLogSink(name);
+	}
+	
+	/**
+	 * Gets how many times a sink added by 
+	 * {@link #addLogSink(String, OutputSink, LogLevel)} has thrown an 
+	 * exception.
+	 * 
+	 * @param		name Sink name
+	 * 
+	 * @return		Total of failures
+	 * 
+	 * @throws		IllegalArgumentException If there is no sink with that name
+	 */
+	public long getLogSinkFailures(String name) {
+		return out.getLogSinkFailures(name);
+	}
+	
+	/**
+	 * Gets how many log messages have been discarded because the queue of a
+	 * sink was full.
+	 * 
+	 * @param		sinkName Sink name
+	 * 
+	 * @return		Total of discarded messages
+	 * 
+	 * @throws		IllegalArgumentException If there is no sink with that name
+	 */
+	public long getDroppedLogMessages(String sinkName) {
+		return out.getDroppedLogMessages(sinkName);
+	}
+	
+	/**
+	 * Checks whether error messages are displayed with the current log level.
+	 * 
+	 * @return		True if error messages are displayed
+	 */
+	public boolean isErrorEnabled() {
+		return out.isErrorEnabled();
+	}
+	
+	/**
+	 * Checks whether warning messages are displayed with the current log 
+	 * level.
+	 * 
+	 * @return		True if warning messages are displayed
+	 */
+	public boolean isWarningEnabled() {
+		return out.isWarningEnabled();
+	}
+	
+	/**
+	 * Checks whether info messages are displayed with the current log level.
+	 * 
+	 * @return		True if info messages are displayed
+	 */
+	public boolean isInfoEnabled() {
+		return out.isInfoEnabled();
+	}
+	
+	/**
+	 * Checks whether debug messages are displayed with the current log level.
+	 * Use it to avoid building messages that would be discarded.
+	 * 
+	 * @return		True if debug messages are displayed
+	 */
+	public boolean isDebugEnabled() {
+		return out.isDebugEnabled();
+	}
+	
+	/**
+	 * Checks whether asynchronous logging is enabled.
+	 * 
+	 * @return		True if log messages are written by a background thread
+	 */
+	public boolean isAsyncLogging() {
+		return out.isAsyncLogging();
+	}
+	
+	/**
+	 * Gets how many log messages have been discarded because the 
+	 * asynchronous queue was full.
+	 * 
+	 * @return		Total of discarded messages
+	 */
+	public long getDroppedLogMessages() {
+		return out.getDroppedLogMessages();
+	}
+	
+	/**
+	 * Gets how many log messages of a level have been discarded because the 
+	 * asynchronous queue was full.
+	 * 
+	 * @param		level Log level
+	 * 
+	 * @return		Total of discarded messages of the level
+	 */
+	public long getDroppedLogMessages(LogLevel level) {
+		return out.getDroppedLogMessages(level);
+	}
+	
+	/**
+	 * Sets whether consecutive identical log messages are collapsed. When 
+	 * enabled, a message equal to the previous one, with the same level, is
+	 * not displayed; instead, <code>Last message repeated N times</code> is
+	 * displayed before the next different message or when the console is 
+	 * flushed. A repeated message is displayed again if no message has been
+	 * displayed for 30 seconds. It is disabled by default.
+	 * 
+	 * @param		enabled True to collapse repeated messages
+	 */
+	public void setDuplicateSuppression(boolean enabled) {
+		out.setDuplicateSuppression(enabled);
+	}
+	
+	/**
+	 * Checks whether consecutive identical log messages are collapsed.
+	 * 
+	 * @return		True if repeated messages are collapsed
+	 */
+	public boolean isDuplicateSuppression() {
+		return out.isDuplicateSuppression();
+	}
+	
+	/**
+	 * Limits how many log messages of a level are displayed per second. 
+	 * Each template, for messages built from templates, and each call site,
+	 * for other messages, has its own token bucket, so that a burst of one
+	 * message does not hide the others. Messages over the limit are dropped
+	 * and, when a message with the same template or call site is displayed 
+	 * again, it is preceded by how many were dropped.
+	 * 
+	 * @param		level Log level
+	 * @param		messagesPerSecond Messages per second allowed for each 
+	 * template or call site
+	 * @param		burst Messages that can be displayed at once after a 
+	 * quiet period
+	 * 
+	 * @throws		IllegalArgumentException If level is null or OFF or if 
+	 * messages per second or burst is not positive
+	 */
+	public void setRateLimit(LogLevel level, int messagesPerSecond, int burst) {
+		out.setRateLimit(level, messagesPerSecond, burst);
+	}
+	
+	/**
+	 * Removes the rate limit of a level.
+	 * 
+	 * @param		level Log level
+	 * 
+	 * @throws		IllegalArgumentException If level is null or OFF
+	 */
+	public void removeRateLimit(LogLevel level) {
+		out.removeRateLimit(level);
+	}
+	
+	/**
+	 * Gets how many log messages of a level have been dropped by its rate 
+	 * limit.
+	 * 
+	 * @param		level Log level
+	 * 
+	 * @return		Total of dropped messages of the level
+	 */
+	public long getRateLimitedLogMessages(LogLevel level) {
+		return out.getRateLimitedLogMessages(level);
+	}
+	
+	/**
+	 * Displays only a random sample of the log messages of a level. Whether
+	 * a message is kept is decided before it is built, by a random generator
+	 * of the current thread. How many messages were left out is displayed 
+	 * every 30 seconds and when the console is flushed.
+	 * 
+	 * @param		level Log level
+	 * @param		probability Probability of a message being kept
+	 * 
+	 * @throws		IllegalArgumentException If level is null or OFF or if 
+	 * probability is not greater than 0 and at most 1
+	 */
+	public void setSampling(LogLevel level, double probability) {
+		out.setSampling(level, probability);
+	}
+	
+	/**
+	 * Displays only one in every N log messages of a level, on average. 
+	 * Whether a message is kept is decided before it is built, by a random 
+	 * generator of the current thread. How many messages were left out is 
+	 * displayed every 30 seconds and when the console is flushed.
+	 * 
+	 * @param		level Log level
+	 * @param		oneInN Average number of messages for each message kept
+	 * 
+	 * @throws		IllegalArgumentException If level is null or OFF or if 
+	 * one in N is not positive
+	 */
+	public void setSampling(LogLevel level, int oneInN) {
+		out.setSampling(level, oneInN);
+	}
+	
+	/**
+	 * Displays every log message of a level again.
+	 * 
+	 * @param		level Log level
+	 * 
+	 * @throws		IllegalArgumentException If level is null or OFF
+	 */
+	public void removeSampling(LogLevel level) {
+		out.removeSampling(level);
+	}
+	
+	/**
+	 * Gets how many log messages of a level have been left out by sampling.
+	 * 
+	 * @param		level Log level
+	 * 
+	 * @return		Total of messages left out
+	 */
+	public long getSampledOutLogMessages(LogLevel level) {
+		return out.getSampledOutLogMessages(level);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Builder of console instances. By default, a console writes on 
+	 * {@link System#out}, keeps its history on heap with the default capacity,
+	 * has no margin, logs messages from {@link LogLevel#INFO} up and logs 
+	 * synchronously.
+	 */
+	public static class Builder {
+		
+		private OutputSink sink;
+		private LogLevel level;
+		private int marginLeft;
+		private Integer historyCapacity;
+		private Long historyMaxBytes;
+		private HistoryStorage historyStorage;
+		private Integer asyncCapacity;
+		private WaitStrategy waitStrategy;
+		private OverflowPolicy overflowPolicy;
+		
+		private Builder() {
+			sink = PrintStreamSink.systemOut();
+			level = LogLevel.INFO;
+		}
+		
+		/**
+		 * Sets where the console writes.
+		 * 
+		 * @param		sink Output sink
+		 * 
+		 * @return		Itself to allow chained calls
+		 * 
+		 * @throws		IllegalArgumentException If sink is null
+		 */
+		public Builder outputSink(OutputSink sink) {
+			if (sink == null)
+				throw new IllegalArgumentException("Sink cannot be null");
+			
+			this.sink = sink;
+			
+			return this;
+		}
+		
+		/**
+		 * Sets the lowest level of the log messages that are displayed.
+		 * 
+		 * @param		level Logger level
+		 * 
+		 * @return		Itself to allow chained calls
+		 * 
+		 * @throws		IllegalArgumentException If level is null
+		 */
+		public Builder loggerLevel(LogLevel level) {
+			if (level == null)
+				throw new IllegalArgumentException("Level cannot be null");
+			
+			this.level = level;
+			
+			return this;
+		}
+		
+		/**
+		 * Sets the left margin of written lines.
+		 * 
+		 * @param		margin Margin left
+		 * 
+		 * @return		Itself to allow chained calls
+		 */
+		public Builder marginLeft(int margin) {
+			this.marginLeft = margin;
+			
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum number of history entries kept.
+		 * 
+		 * @param		capacity Maximum number of entries
+		 * 
+		 * @return		Itself to allow chained calls
+		 * 
+		 * @throws		IllegalArgumentException If capacity is not positive
+		 */
+		public Builder historyCapacity(int capacity) {
+			if (capacity <= 0)
+				throw new IllegalArgumentException("Capacity must be positive");
+			
+			this.historyCapacity = capacity;
+			
+			return this;
+		}
+		
+		/**
+		 * Sets the approximate maximum amount of memory retained by the 
+		 * history.
+		 * 
+		 * @param		maxBytes Maximum retained bytes
+		 * 
+		 * @return		Itself to allow chained calls
+		 * 
+		 * @throws		IllegalArgumentException If max bytes is not positive
+		 */
+		public Builder historyMaxBytes(long maxBytes) {
+			if (maxBytes <= 0)
+				throw new IllegalArgumentException("Max bytes must be positive");
+			
+			this.historyMaxBytes = maxBytes;
+			
+			return this;
+		}
+		
+		/**
+		 * Sets where the history is stored.
+		 * 
+		 * @param		storage History storage
+		 * 
+		 * @return		Itself to allow chained calls
+		 * 
+		 * @throws		IllegalArgumentException If storage is null
+		 */
+		public Builder historyStorage(HistoryStorage storage) {
+			if (storage == null)
+				throw new IllegalArgumentException("Storage cannot be null");
+			
+			this.historyStorage = storage;
+			
+			return this;
+		}
+		
+		/**
+		 * Enables asynchronous logging on the console.
+		 * 
+		 * @param		capacity Queue capacity. It is rounded up to a power 
+		 * of two
+		 * @param		waitStrategy How the background thread waits for 
+		 * messages
+		 * @param		overflowPolicy What to do when the queue is full
+		 * 
+		 * @return		Itself to allow chained calls
+		 * 
+		 * @throws		IllegalArgumentException If capacity is not positive or 
+		 * if wait strategy or overflow policy is null
+		 * 
+		 * @see			ConsolexInstance#enableAsyncLogging(int, WaitStrategy, OverflowPolicy)
+		 */
+		public Builder asyncLogging(int capacity, WaitStrategy waitStrategy, 
+									OverflowPolicy overflowPolicy) {
+			if (capacity <= 0)
+				throw new IllegalArgumentException("Capacity must be positive");
+			
+			if (waitStrategy == null)
+				throw new IllegalArgumentException("Wait strategy cannot be null");
+			
+			if (overflowPolicy == null)
+				throw new IllegalArgumentException("Overflow policy cannot be null");
+			
+			this.asyncCapacity = capacity;
+			this.waitStrategy = waitStrategy;
+			this.overflowPolicy = overflowPolicy;
+			
+			return this;
+		}
+		
+		/**
+		 * Creates a console with the current settings.
+		 * 
+		 * @return		New console
+		 */
+		public ConsolexInstance build() {
+			OutputConsolex out = new OutputConsolex(sink);
+			
+			out.setLoggerLevel(level);
+			out.setMarginLeft(marginLeft);
+			
+			if (historyStorage != null)
+				out.setHistoryStorage(historyStorage);
+			
+			if (historyCapacity != null)
+				out.setHistoryCapacity(historyCapacity);
+			
+			if (historyMaxBytes != null)
+				out.setHistoryMaxBytes(historyMaxBytes);
+			
+			if (asyncCapacity != null)
+				out.enableAsyncLogging(asyncCapacity, waitStrategy, overflowPolicy);
+			
+			return new ConsolexInstance(out);
+		}
+	}
+}
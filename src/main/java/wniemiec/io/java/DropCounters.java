@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-level counters of discarded messages. Counting is contention-free, so
+ * it can be done on hot paths by many threads.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class DropCounters {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private final LongAdder[] counters;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	DropCounters() {
+		counters = new LongAdder[LogLevel.values().length];
+		
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	void increment(LogLevel level) {
+		counters[indexOf(level)].increment();
+	}
+	
+	private int indexOf(LogLevel level) {
+		return (level == null) ? LogLevel.OFF.ordinal() : level.ordinal();
+	}
+	
+	/**
+	 * Gets the counter of a level and sets it to zero.
+	 * 
+	 * @param		level Log level
+	 * 
+	 * @return		Count before the reset
+	 */
+	long getAndReset(LogLevel level) {
+		return counters[indexOf(level)].sumThenReset();
+	}
+	
+	void reset() {
+		for (LongAdder counter : counters) {
+			counter.reset();
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	long get(LogLevel level) {
+		return counters[indexOf(level)].sum();
+	}
+	
+	long getTotal() {
+		long total = 0;
+		
+		for (LongAdder counter : counters) {
+			total += counter.sum();
+		}
+		
+		return total;
+	}
+}
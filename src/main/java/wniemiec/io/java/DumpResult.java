@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Outcome of exporting the console history to a file.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public final class DumpResult {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private final Path output;
+	private final long entriesWritten;
+	private final long bytesWritten;
+	private final long missedEntries;
+	private final IOException error;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	DumpResult(Path output, long entriesWritten, long bytesWritten, 
+			   long missedEntries, IOException error) {
+		this.output = output;
+		this.entriesWritten = entriesWritten;
+		this.bytesWritten = bytesWritten;
+		this.missedEntries = missedEntries;
+		this.error = error;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Checks whether the export has been completed without errors.
+	 * 
+	 * @return		True if no error occurred
+	 */
+	public boolean isSuccessful() {
+		return (error == null);
+	}
+	
+	@Override
+	public String toString() {
+		return "DumpResult [output=" + output + ", entriesWritten=" 
+				+ entriesWritten + ", bytesWritten=" + bytesWritten 
+				+ ", missedEntries=" + missedEntries + ", error=" + error + "]";
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets the file the history has been exported to.
+	 * 
+	 * @return		Output file
+	 */
+	public Path getOutput() {
+		return output;
+	}
+	
+	/**
+	 * Gets how many history entries have been written.
+	 * 
+	 * @return		Number of entries
+	 */
+	public long getEntriesWritten() {
+		return entriesWritten;
+	}
+	
+	/**
+	 * Gets how many bytes have been written.
+	 * 
+	 * @return		Number of bytes
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+	
+	/**
+	 * Gets how many entries should have been written, but had already been 
+	 * evicted or cleared from the history.
+	 * 
+	 * @return		Number of entries
+	 */
+	public long getMissedEntries() {
+		return missedEntries;
+	}
+	
+	/**
+	 * Gets the error that interrupted the export, if any.
+	 * 
+	 * @return		Error or empty if the export was successful
+	 */
+	public Optional<IOException> getError() {
+		return Optional.ofNullable(error);
+	}
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Follows a text file, like <code>tail -f</code>: its current lines are
+ * written and then only the lines appended to it. Changes are noticed
+ * through a {@link WatchService} on the directory of the file and, when it
+ * is not available or misses an event, by checking the file periodically.
+ * 
+ * <p>If the file is truncated or replaced by another file with the same
+ * name, as in log rotation, it is followed again from its beginning. A file
+ * that is truncated and then grows past the position already read between
+ * two checks is noticed by comparing the last bytes read with the ones now
+ * at the same offsets. Lines end as in {@link FileLines} and are only 
+ * written once their line break has been appended; a '\r' that ends what 
+ * has been appended so far is only taken as a line break once the byte 
+ * after it is known. If the consumer of the lines fails, the file stops being 
+ * followed and the failure is reported.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class FileFollower implements BackgroundTask {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final String THREAD_NAME = "consolex-file-follower";
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	private static final int LINE_BUFFER_SIZE = 256;
+	private static final int TAIL_SIZE = 64;
+	private final Path file;
+	private final Charset charset;
+	private final ObjLongConsumer<String> consumer;
+	private final Consumer<Exception> errorHandler;
+	private final long pollIntervalNanos;
+	private final WatchService watchService;
+	private final Thread thread;
+	private final ByteBuffer readBuffer;
+	private final ByteBuffer tail;
+	private byte[] lineBuffer;
+	private int lineLength;
+	private long position;
+	private long lineNumber;
+	private Object fileIdentity;
+	private volatile boolean cancelled;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Starts following a file.
+	 * 
+	 * @param		file Absolute path of the file
+	 * @param		charset File charset. It must be ASCII-compatible
+	 * @param		consumer Receives each line and its number, starting at 1
+	 * @param		errorHandler Receives the failure of the consumer that 
+	 * stopped the task
+	 * @param		pollIntervalNanos Maximum interval between checks of the
+	 * file
+	 */
+	FileFollower(Path file, Charset charset, ObjLongConsumer<String> consumer,
+				 Consumer<Exception> errorHandler, long pollIntervalNanos) {
+		this.file = file;
+		this.charset = charset;
+		this.consumer = consumer;
+		this.errorHandler = errorHandler;
+		this.pollIntervalNanos = pollIntervalNanos;
+		this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		this.tail = ByteBuffer.allocate(TAIL_SIZE).flip();
+		this.lineBuffer = new byte[LINE_BUFFER_SIZE];
+		this.lineNumber = 1;
+		this.watchService = watchDirectory(file.getParent());
+		this.thread = new Thread(this::follow, THREAD_NAME);
+		
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Registers a watch service on a directory.
+	 * 
+	 * @return		Watch service or null if the directory cannot be watched,
+	 * in which case the file is only checked periodically
+	 */
+	static WatchService watchDirectory(Path directory) {
+		if (directory == null)
+			return null;
+		
+		try {
+			WatchService service = directory.getFileSystem().newWatchService();
+			
+			directory.register(
+					service,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE
+			);
+			
+			return service;
+		}
+		catch (IOException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+	
+	private void follow() {
+		try {
+			while (!cancelled) {
+				readAppendedLines();
+				waitForChange();
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e) {
+			// Task was cancelled
+		}
+		catch (RuntimeException e) {
+			errorHandler.accept(e);
+			cancel();
+		}
+	}
+	
+	private void waitForChange() throws InterruptedException {
+		if (watchService == null) {
+			LockSupport.parkNanos(this, pollIntervalNanos);
+			return;
+		}
+		
+		WatchKey key = watchService.poll(pollIntervalNanos, TimeUnit.NANOSECONDS);
+		
+		if (key != null) {
+			key.pollEvents();
+			key.reset();
+		}
+	}
+	
+	private void readAppendedLines() {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			BasicFileAttributes attributes = Files.readAttributes(
+					file, 
+					BasicFileAttributes.class
+			);
+			long size = channel.size();
+			
+			if (hasBeenReplaced(attributes) || (size < position) || hasBeenRewritten(channel))
+				restart();
+			
+			if (fileIdentity == null)
+				fileIdentity = identify(attributes);
+			
+			while (!cancelled && (position < size)) {
+				readBuffer.clear();
+				
+				int read = channel.read(readBuffer, position);
+				
+				if (read <= 0)
+					break;
+				
+				position += read;
+				splitLines(read);
+				keepTail(read);
+			}
+		}
+		catch (IOException e) {
+			// File does not exist now, as during a rotation, so it is tried
+			// again on the next check
+		}
+	}
+	
+	private boolean hasBeenReplaced(BasicFileAttributes attributes) {
+		return (fileIdentity != null) && !fileIdentity.equals(identify(attributes));
+	}
+	
+	/**
+	 * Gets what identifies a file regardless of its name: its file key, such
+	 * as the inode on Unix, or its creation time when there is no file key.
+	 */
+	private static Object identify(BasicFileAttributes attributes) {
+		return Objects.requireNonNullElse(attributes.fileKey(), attributes.creationTime());
+	}
+	
+	/**
+	 * Checks whether the bytes before the current position are still the
+	 * last ones that were read.
+	 */
+	private boolean hasBeenRewritten(FileChannel channel) throws IOException {
+		if (position == 0)
+			return false;
+		
+		ByteBuffer current = ByteBuffer.allocate(tail.limit());
+		
+		while (current.hasRemaining()) {
+			if (channel.read(current, position - tail.limit() + current.position()) <= 0)
+				return true;
+		}
+		
+		return !current.flip().equals(tail);
+	}
+	
+	/**
+	 * Keeps the last {@value #TAIL_SIZE} bytes read.
+	 */
+	private void keepTail(int read) {
+		int length = Math.min(read, TAIL_SIZE);
+		int kept = Math.min(tail.limit(), TAIL_SIZE - length);
+		
+		tail.position(tail.limit() - kept);
+		tail.compact();
+		tail.put(readBuffer.array(), read - length, length);
+		tail.flip();
+	}
+	
+	private void restart() {
+		position = 0;
+		lineNumber = 1;
+		lineLength = 0;
+		fileIdentity = null;
+		tail.clear().flip();
+	}
+	
+	private void splitLines(int length) {
+		byte[] bytes = readBuffer.array();
+		int lineStart = 0;
+		
+		// A '\r' that ended the previous read ends a line, unless it is the
+		// first half of "\r\n"
+		if ((lineLength > 0) && (lineBuffer[lineLength-1] == CARRIAGE_RETURN) 
+				&& (bytes[0] != LINE_FEED))
+			consumer.accept(decodeLine(), lineNumber++);
+		
+		for (int i = 0; i < length; i++) {
+			if (!FileLines.isLineEnd(readBuffer, i, length))
+				continue;
+			
+			if (lineLength == 0) {
+				consumer.accept(FileLines.decodeLine(readBuffer, lineStart, i + 1, charset), lineNumber++);
+			}
+			else {
+				appendToLine(bytes, lineStart, i + 1);
+				consumer.accept(decodeLine(), lineNumber++);
+			}
+			
+			lineStart = i + 1;
+		}
+		
+		appendToLine(bytes, lineStart, length);
+	}
+	
+	private void appendToLine(byte[] bytes, int from, int to) {
+		int length = to - from;
+		
+		if (lineLength + length > lineBuffer.length) {
+			byte[] grown = new byte[Math.max(lineBuffer.length * 2, lineLength + length)];
+			
+			System.arraycopy(lineBuffer, 0, grown, 0, lineLength);
+			lineBuffer = grown;
+		}
+		
+		System.arraycopy(bytes, from, lineBuffer, lineLength, length);
+		lineLength += length;
+	}
+	
+	/**
+	 * Decodes the line that was split across reads.
+	 */
+	private String decodeLine() {
+		int length = lineLength;
+		
+		lineLength = 0;
+		
+		return FileLines.decodeLine(ByteBuffer.wrap(lineBuffer), 0, length, charset);
+	}
+	
+	@Override
+	public void cancel() {
+		if (cancelled)
+			return;
+		
+		// The thread is woken up without being interrupted, since an 
+		// interrupt would close any interruptible channel it is writing to,
+		// such as the one of the console sink
+		cancelled = true;
+		LockSupport.unpark(thread);
+		
+		if (watchService != null)
+			closeWatchService();
+	}
+	
+	private void closeWatchService() {
+		try {
+			watchService.close();
+		}
+		catch (IOException e) {
+			// Thread is already stopping
+		}
+	}
+	
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
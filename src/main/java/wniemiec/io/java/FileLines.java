@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Operations on the raw bytes of text files. Lines are found by looking for
+ * '\n' and '\r' bytes, which only works for charsets in which those bytes 
+ * cannot be part of another character; see {@link #isAsciiCompatible(Charset)}.
+ * A line ends where {@link java.io.BufferedReader#readLine()} would end it:
+ * at '\n', at '\r' or at "\r\n".
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class FileLines {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final int MAP_WINDOW_SIZE = 16 * 1024 * 1024;
+	private static final int LINE_BUFFER_SIZE = 256;
+	private static final byte[] ASCII_LINE_BREAK = {CARRIAGE_RETURN, LINE_FEED};
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private FileLines() {
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Checks whether lines of a charset can be found by looking for '\n'
+	 * and '\r' bytes, as in UTF-8 or ISO-8859-1.
+	 * 
+	 * @param		charset Charset
+	 * 
+	 * @return		True if '\n' and '\r' are single bytes, as in ASCII
+	 */
+	static boolean isAsciiCompatible(Charset charset) {
+		return Arrays.equals(ASCII_LINE_BREAK, "\r\n".getBytes(charset));
+	}
+	
+	/**
+	 * Checks whether a file ends with a line break.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * 
+	 * @return		True if the file is empty or if it ends with a line break
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	static boolean endsWithLineBreak(FileChannel file) throws IOException {
+		long size = file.size();
+		
+		if (size == 0)
+			return true;
+		
+		ByteBuffer last = ByteBuffer.allocate(1);
+		
+		return (file.read(last, size - 1) == 1) 
+				&& ((last.get(0) == LINE_FEED) || (last.get(0) == CARRIAGE_RETURN));
+	}
+	
+	/**
+	 * Checks whether a byte ends a line, which is the case of a '\n' and of
+	 * a '\r' that is not followed by '\n'. A '\r' that is the last of the 
+	 * bytes does not end a line, since the byte after it is unknown; if the
+	 * bytes end the file, the '\r' is removed along with the last line.
+	 * 
+	 * @param		bytes Bytes of a file
+	 * @param		index Index of the byte
+	 * @param		limit Index right after the last byte that can be read
+	 * 
+	 * @return		True if the line ends right after the byte
+	 */
+	static boolean isLineEnd(ByteBuffer bytes, int index, int limit) {
+		byte current = bytes.get(index);
+		
+		if (current == LINE_FEED)
+			return true;
+		
+		return (current == CARRIAGE_RETURN) 
+				&& (index + 1 < limit) 
+				&& (bytes.get(index + 1) != LINE_FEED);
+	}
+	
+	/**
+	 * Gets the length of a line without its line break.
+	 * 
+	 * @param		bytes Bytes of a file
+	 * @param		from Index of the first byte of the line
+	 * @param		to Index right after the line, which may include '\n' 
+	 * or '\r' or both
+	 * 
+	 * @return		Number of bytes of the line content
+	 */
+	static int contentLength(ByteBuffer bytes, int from, int to) {
+		int end = to;
+		
+		if ((end > from) && (bytes.get(end-1) == LINE_FEED))
+			end--;
+		
+		if ((end > from) && (bytes.get(end-1) == CARRIAGE_RETURN))
+			end--;
+		
+		return end - from;
+	}
+	
+	/**
+	 * Decodes a line of bytes backed by an array, without its line break.
+	 * 
+	 * @param		bytes Bytes backed by an array
+	 * @param		from Index of the first byte of the line
+	 * @param		to Index right after the line, which may include its line
+	 * break
+	 * @param		charset Charset of the bytes
+	 * 
+	 * @return		Line content
+	 */
+	static String decodeLine(ByteBuffer bytes, int from, int to, Charset charset) {
+		int length = contentLength(bytes, from, to);
+		
+		return new String(bytes.array(), bytes.arrayOffset() + from, length, charset);
+	}
+	
+	/**
+	 * Reads the lines of a file by mapping it into memory, a window at a time.
+	 * Malformed input is reported, as {@link java.io.BufferedReader} over a
+	 * decoder does, after the lines before it have been given to the 
+	 * consumer.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * @param		charset File charset. It must be ASCII-compatible
+	 * @param		consumer Receives each line, in file order
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		CharacterCodingException If file has malformed or 
+	 * unmappable input
+	 */
+	static void forEachLine(FileChannel file, Charset charset,
+							Consumer<String> consumer)
+			throws IOException {
+		long size = file.size();
+		long position = 0;
+		long windowSize = MAP_WINDOW_SIZE;
+		CharsetDecoder decoder = charset.newDecoder();
+		CharBuffer line = CharBuffer.allocate(LINE_BUFFER_SIZE);
+		
+		while (position < size) {
+			int length = (int) Math.min(windowSize, size - position);
+			MappedByteBuffer window = file.map(FileChannel.MapMode.READ_ONLY, position, length);
+			boolean lastWindow = (position + length == size);
+			int lineStart = 0;
+			
+			for (int i = 0; i < length; i++) {
+				if (isLineEnd(window, i, length)) {
+					line = decode(window, lineStart, i + 1, decoder, line, consumer);
+					lineStart = i + 1;
+				}
+			}
+			
+			if (lastWindow) {
+				if (lineStart < length)
+					decode(window, lineStart, length, decoder, line, consumer);
+				
+				return;
+			}
+			
+			// A line larger than the window is scanned again with a larger one
+			if (lineStart == 0)
+				windowSize = growWindow(windowSize);
+			else
+				position += lineStart;
+		}
+	}
+	
+	private static long growWindow(long windowSize) throws IOException {
+		if (windowSize >= Integer.MAX_VALUE)
+			throw new IOException("Line longer than " + Integer.MAX_VALUE + " bytes");
+		
+		return Math.min(windowSize * 2, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Decodes a line, without its line break, and passes it to a consumer.
+	 * 
+	 * @return		Buffer that received the characters of the line, which 
+	 * may have been grown
+	 */
+	private static CharBuffer decode(ByteBuffer window, int from, int to, 
+									 CharsetDecoder decoder, CharBuffer line, 
+									 Consumer<String> consumer) 
+			throws CharacterCodingException {
+		int length = contentLength(window, from, to);
+		int maxChars = (int) Math.ceil(length * (double) decoder.maxCharsPerByte());
+		CharBuffer chars = (line.capacity() < maxChars) ? CharBuffer.allocate(maxChars) : line;
+		CoderResult result;
+		
+		window.position(from);
+		window.limit(from + length);
+		chars.clear();
+		decoder.reset();
+		
+		try {
+			result = decoder.decode(window, chars, true);
+			
+			if (!result.isError())
+				result = decoder.flush(chars);
+		}
+		finally {
+			window.limit(window.capacity());
+		}
+		
+		if (result.isError())
+			result.throwException();
+		
+		consumer.accept(chars.flip().toString());
+		
+		return chars;
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.time.Duration;
+
+/**
+ * Defines when a buffered output sink writes its content.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public final class FlushPolicy {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final FlushPolicy PER_LINE = new FlushPolicy(Kind.PER_LINE, 0);
+	private static final FlushPolicy MANUAL = new FlushPolicy(Kind.MANUAL, 0);
+	private final Kind kind;
+	private final long value;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private FlushPolicy(Kind kind, long value) {
+		this.kind = kind;
+		this.value = value;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Flushes whenever a line is completed.
+	 * 
+	 * @return		Flush policy
+	 */
+	public static FlushPolicy perLine() {
+		return PER_LINE;
+	}
+	
+	/**
+	 * Flushes whenever at least the given amount of bytes is buffered.
+	 * 
+	 * @param		bytes Amount of bytes
+	 * 
+	 * @return		Flush policy
+	 * 
+	 * @throws		IllegalArgumentException If bytes is not positive
+	 */
+	public static FlushPolicy everyBytes(int bytes) {
+		if (bytes <= 0)
+			throw new IllegalArgumentException("Bytes must be positive");
+		
+		return new FlushPolicy(Kind.EVERY_BYTES, bytes);
+	}
+	
+	/**
+	 * Flushes buffered content periodically.
+	 * 
+	 * @param		interval Maximum time content stays buffered
+	 * 
+	 * @return		Flush policy
+	 * 
+	 * @throws		IllegalArgumentException If interval is null, zero or 
+	 * negative
+	 */
+	public static FlushPolicy interval(Duration interval) {
+		if ((interval == null) || interval.isZero() || interval.isNegative())
+			throw new IllegalArgumentException("Interval must be positive");
+		
+		return new FlushPolicy(Kind.INTERVAL, interval.toNanos());
+	}
+	
+	/**
+	 * Only flushes when the buffer is full or when 
+	 * {@link Consolex#flush()} is called.
+	 * 
+	 * @return		Flush policy
+	 */
+	public static FlushPolicy manual() {
+		return MANUAL;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	boolean shouldFlush(boolean endOfLine, long bufferedBytes, long nanosSinceFlush) {
+		switch (kind) {
+			case PER_LINE:
+				return endOfLine;
+			case EVERY_BYTES:
+				return bufferedBytes >= value;
+			case INTERVAL:
+				return nanosSinceFlush >= value;
+			default:
+				return false;
+		}
+	}
+	
+	boolean isPeriodic() {
+		return (kind == Kind.INTERVAL);
+	}
+	
+	long getIntervalNanos() {
+		return value;
+	}
+	
+	@Override
+	public String toString() {
+		return (value == 0) ? kind.name() : kind.name() + "(" + value + ")";
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	private enum Kind {
+		PER_LINE,
+		EVERY_BYTES,
+		INTERVAL,
+		MANUAL
+	}
+}
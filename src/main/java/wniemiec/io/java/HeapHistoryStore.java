@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * History store that keeps entries as strings in a circular array. The 
+ * array grows until it reaches the capacity, and after that appending only
+ * replaces the oldest entry.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class HeapHistoryStore implements HistoryStore {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int INITIAL_SIZE = 1024;
+	private static final int STRING_OVERHEAD = 40;
+	private String[] buffer;
+	private int head;
+	private int size;
+	private int capacity;
+	private long maxBytes;
+	private long retainedBytes;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	HeapHistoryStore(int capacity, long maxBytes) {
+		this.buffer = new String[Math.min(INITIAL_SIZE, capacity)];
+		this.capacity = capacity;
+		this.maxBytes = maxBytes;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	@Override
+	public void add(String content) {
+		long contentBytes = estimateSize(content);
+		
+		while ((size == capacity) || ((size > 0) && (retainedBytes + contentBytes > maxBytes))) {
+			evictOldest();
+		}
+		
+		if (size == buffer.length)
+			grow();
+		
+		buffer[indexOf(size)] = content;
+		size++;
+		retainedBytes += contentBytes;
+	}
+	
+	/**
+	 * Estimates how many bytes of heap a string retains.
+	 * 
+	 * @param		content String
+	 * 
+	 * @return		Approximate retained bytes
+	 */
+	private static long estimateSize(String content) {
+		return STRING_OVERHEAD + 2L * content.length();
+	}
+	
+	private void evictOldest() {
+		retainedBytes -= estimateSize(buffer[head]);
+		buffer[head] = null;
+		head = (head + 1) % buffer.length;
+		size--;
+	}
+	
+	private void grow() {
+		int newLength = (int) Math.min((long) buffer.length * 2, capacity);
+		
+		relocate(newLength);
+	}
+	
+	private void relocate(int newLength) {
+		String[] newBuffer = new String[newLength];
+		
+		for (int i = 0; i < size; i++) {
+			newBuffer[i] = buffer[indexOf(i)];
+		}
+		
+		buffer = newBuffer;
+		head = 0;
+	}
+	
+	private int indexOf(int position) {
+		return (head + position) % buffer.length;
+	}
+	
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			buffer[indexOf(i)] = null;
+		}
+		
+		head = 0;
+		size = 0;
+		retainedBytes = 0;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters & Setters
+	//-------------------------------------------------------------------------
+	@Override
+	public List<String> getEntries(int from, int to) {
+		List<String> entries = new ArrayList<>(to - from);
+		
+		for (int i = from; i < to; i++) {
+			entries.add(buffer[indexOf(i)]);
+		}
+		
+		return entries;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+		
+		while (size > capacity) {
+			evictOldest();
+		}
+		
+		if (buffer.length > capacity)
+			relocate(capacity);
+	}
+	
+	@Override
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		
+		while ((size > 1) && (retainedBytes > maxBytes)) {
+			evictOldest();
+		}
+	}
+	
+	@Override
+	public long getRetainedBytes() {
+		return retainedBytes;
+	}
+}
@@ -8,13 +8,36 @@
 package wniemiec.io.java;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
- * Responsible for managing console history.
+ * Responsible for managing console history. History is bounded: when it is 
+ * full, the oldest entries are evicted one at a time.
+ * 
+ * <p>Adding entries does not wait for readers: entries are queued and moved 
+ * to the store by whichever thread gets there first, while other writers 
+ * return right away. A writer moves at most {@value #DRAIN_BATCH_SIZE} 
+ * entries, leaving the rest to the next writer, so that no writer pays for
+ * a burst from the others. Once more than {@value #MAX_PENDING} entries are
+ * queued, writers wait to move a batch themselves, so that the queue stays
+ * bounded however many threads write. Every read moves all the queued entries before 
+ * looking at the store, so an entry is visible as soon as 
+ * {@link #add(String)} returns.</p>
  * 
  * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
  */
@@ -23,15 +46,45 @@ class HistoryConsolex {
 	//-------------------------------------------------------------------------
 	//		Attributes
 	//-------------------------------------------------------------------------
-	private static final int BUFFER_SIZE = 80000;
-	private List<String> buffer;
+	private static final int MAX_DUMP_FILES = 64;
+	private static final int DRAIN_BATCH_SIZE = 256;
+	private static final int MAX_PENDING = 4 * DRAIN_BATCH_SIZE;
+	private HistoryStore store;
+	private HistoryStorage storage;
+	private int capacity;
+	private long maxBytes;
+	private long totalAdded;
+	private final Map<Path, Long> dumpedUpTo;
+	private final Object dumpLock;
+	private final Queue<String> pending;
+	private final AtomicInteger pendingCount;
+	private final AtomicBoolean draining;
+	private final ChunkChannel chunk;
+	private volatile boolean enabled;
 	
 	
 	//-------------------------------------------------------------------------
 	//		Constructor
 	//-------------------------------------------------------------------------
 	HistoryConsolex() {
-		buffer = new ArrayList<>();
+		storage = HistoryStorage.HEAP;
+		capacity = storage.getDefaultCapacity();
+		maxBytes = Long.MAX_VALUE;
+		store = storage.createStore(capacity, maxBytes);
+		dumpedUpTo = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, Long> eldest) {
+				return size() > MAX_DUMP_FILES;
+			}
+		};
+		dumpLock = new Object();
+		chunk = new ChunkChannel();
+		pending = new ConcurrentLinkedQueue<>();
+		pendingCount = new AtomicInteger();
+		draining = new AtomicBoolean();
+		enabled = true;
 	}
 	
 	
@@ -39,35 +92,514 @@ class HistoryConsolex {
 	//		Methods
 	//-------------------------------------------------------------------------
 	void add(String content) {
-		if (buffer.size() == BUFFER_SIZE)
-			freeBuffer();
+		if (!enabled)
+			return;
+		
+		pending.offer(content);
+		
+		if (pendingCount.incrementAndGet() > MAX_PENDING) {
+			synchronized (this) {
+				drainPending(DRAIN_BATCH_SIZE);
+			}
+			
+			return;
+		}
+		
+		// Entries queued by writers that found the queue being drained are 
+		// left to the next writer or read
+		if (!draining.compareAndSet(false, true))
+			return;
+		
+		try {
+			synchronized (this) {
+				drainPending(DRAIN_BATCH_SIZE);
+			}
+		}
+		finally {
+			draining.set(false);
+		}
+	}
+	
+	/**
+	 * Appends several entries at once, after the queued ones and without 
+	 * entries from other threads between them.
+	 * 
+	 * @param		contents Entries
+	 */
+	void addAll(Collection<String> contents) {
+		if (!enabled || contents.isEmpty())
+			return;
 		
-		buffer.add(content);
+		synchronized (this) {
+			drainPending();
+			
+			for (String content : contents) {
+				store.add(content);
+			}
+			
+			totalAdded += contents.size();
+		}
+	}
+	
+	/**
+	 * Moves queued entries to the store. It must be called while holding the
+	 * history lock.
+	 */
+	private void drainPending() {
+		drainPending(Integer.MAX_VALUE);
+	}
+	
+	private void drainPending(int maxEntries) {
+		String content;
 		
+		for (int i = 0; (i < maxEntries) && ((content = pending.poll()) != null); i++) {
+			pendingCount.decrementAndGet();
+			store.add(content);
+			totalAdded++;
+		}
+	}
+	
+	synchronized void clear() {
+		drainPending();
+		store.clear();
+	}
+	
+	/**
+	 * Writes the whole history to a file, replacing its content.
+	 * 
+	 * @param		output Output file
+	 * 
+	 * @return		Dump result
+	 * 
+	 * @throws		IllegalArgumentException If output is null
+	 */
+	DumpResult dumpTo(Path output) {
+		if (output == null)
+			throw new IllegalArgumentException("Output cannot be null");
+		
+		return dump(normalize(output), false);
+	}
+	
+	private static Path normalize(Path file) {
+		return file.normalize().toAbsolutePath();
+	}
+	
+	private synchronized long getFirstSequence() {
+		drainPending();
+		
+		return totalAdded - store.size();
+	}
+	
+	/**
+	 * Appends to a file the entries added since the last time the history was
+	 * written to it. The last {@value #MAX_DUMP_FILES} files written are 
+	 * remembered; a file that is not is written from the oldest entry kept.
+	 * 
+	 * @param		output Output file
+	 * 
+	 * @return		Dump result
+	 * 
+	 * @throws		IllegalArgumentException If output is null
+	 */
+	DumpResult appendTo(Path output) {
+		if (output == null)
+			throw new IllegalArgumentException("Output cannot be null");
+		
+		return dump(normalize(output), true);
+	}
+	
+	/**
+	 * Writes entries to a file, a chunk at a time. Entries are copied while
+	 * holding the history lock and written after releasing it, so that 
+	 * adding entries is not blocked by file operations.
+	 */
+	private DumpResult dump(Path output, boolean append) {
+		synchronized (dumpLock) {
+			if (append) {
+				return dump(
+						output, 
+						new DumpProgress(dumpedUpTo.getOrDefault(output, 0L)), 
+						StandardOpenOption.APPEND
+				);
+			}
+			
+			return dump(
+					output, 
+					new DumpProgress(getFirstSequence()), 
+					StandardOpenOption.TRUNCATE_EXISTING
+			);
+		}
 	}
 	
-	void freeBuffer() {
-		buffer = new ArrayList<>();
+	private DumpResult dump(Path output, DumpProgress progress, OpenOption mode) {
+		try (FileChannel channel = FileChannel.open(
+				output, 
+				StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE,
+				mode
+		)) {
+			int entries;
+			
+			while ((entries = copyChunk(progress)) > 0) {
+				writeChunk(channel, progress, entries);
+			}
+			
+			return progress.toResult(output, null);
+		}
+		catch (IOException e) {
+			return progress.toResult(output, e);
+		}
+		finally {
+			dumpedUpTo.put(output, progress.nextSequence);
+		}
 	}
 	
-	void clear() {
-		buffer.clear();
+	/**
+	 * Copies the next entries to be written to the chunk buffer.
+	 * 
+	 * @return		Number of entries copied
+	 */
+	private synchronized int copyChunk(DumpProgress progress) throws IOException {
+		long firstSequence = getFirstSequence();
+		
+		if (progress.nextSequence < firstSequence) {
+			progress.missedEntries += firstSequence - progress.nextSequence;
+			progress.nextSequence = firstSequence;
+		}
+		
+		if (progress.nextSequence >= totalAdded)
+			return 0;
+		
+		int from = (int) (progress.nextSequence - firstSequence);
+		int to = Math.min(store.size(), from + HistoryStore.WRITE_CHUNK_SIZE);
+		
+		chunk.clear();
+		store.writeTo(chunk, from, to);
+		
+		return to - from;
 	}
 	
-	void dumpTo(Path output) {
+	/**
+	 * Writes the chunk buffer to a file. If it fails, the file is truncated
+	 * back to where the chunk started, so that the next append does not 
+	 * write part of the chunk twice.
+	 */
+	private void writeChunk(FileChannel channel, DumpProgress progress, int entries) 
+			throws IOException {
+		long start = channel.position();
+		
 		try {
-			Files.write(output, buffer);
-		} 
+			progress.bytesWritten += HistoryStore.writeFully(channel, chunk.getContent());
+		}
 		catch (IOException e) {
-			// If dump fails, there is nothing to be done.
+			truncate(channel, start, e);
+			throw e;
 		}
+		
+		progress.entriesWritten += entries;
+		progress.nextSequence += entries;
+	}
+	
+	private static void truncate(FileChannel channel, long size, IOException error) {
+		try {
+			channel.truncate(size);
+		}
+		catch (IOException e) {
+			error.addSuppressed(e);
+		}
+	}
+	
+	/**
+	 * Periodically appends to a file the entries added since the last time 
+	 * the history was written to it.
+	 * 
+	 * @param		output Output file
+	 * @param		interval Interval between exports
+	 * @param		callback Receives the result of each export. It may be 
+	 * null.
+	 * 
+	 * @return		Handle that stops the exports
+	 * 
+	 * @throws		IllegalArgumentException If output is null or if interval 
+	 * is null or not positive
+	 */
+	BackgroundTask scheduleAppendTo(Path output, Duration interval, 
+									Consumer<DumpResult> callback) {
+		if (output == null)
+			throw new IllegalArgumentException("Output cannot be null");
+		
+		if ((interval == null) || interval.isZero() || interval.isNegative())
+			throw new IllegalArgumentException("Interval must be positive");
+		
+		Runnable task = () -> {
+			DumpResult result = appendTo(output);
+			
+			if (callback != null)
+				callback.accept(result);
+		};
+		
+		return new ScheduledBackgroundTask(task, interval.toNanos(), task);
 	}
 	
 	
 	//-------------------------------------------------------------------------
-	//		Getters
+	//		Getters & Setters
 	//-------------------------------------------------------------------------
-	List<String> getHistory() {
-		return buffer;
+	/**
+	 * Gets history entries, from the oldest to the newest.
+	 * 
+	 * @return		Copy of the history
+	 */
+	synchronized List<String> getHistory() {
+		drainPending();
+		
+		return store.getEntries(0, store.size());
+	}
+	
+	/**
+	 * Gets history entries in a range, from the oldest to the newest. Index 0
+	 * is the oldest entry kept.
+	 * 
+	 * @param		from Index of the first entry (inclusive)
+	 * @param		to Index of the last entry (exclusive)
+	 * 
+	 * @return		Copy of the entries in the range
+	 * 
+	 * @throws		IndexOutOfBoundsException If range is invalid
+	 */
+	synchronized List<String> getHistory(int from, int to) {
+		drainPending();
+		
+		if ((from < 0) || (to > store.size()) || (from > to))
+			throw new IndexOutOfBoundsException("Invalid range: [" + from + ", " + to + ")");
+		
+		return store.getEntries(from, to);
+	}
+	
+	synchronized int size() {
+		drainPending();
+		
+		return store.size();
+	}
+	
+	/**
+	 * Sets the maximum number of entries kept. If the history is larger than
+	 * the new capacity, the oldest entries are evicted.
+	 * 
+	 * @param		capacity Maximum number of entries
+	 * 
+	 * @throws		IllegalArgumentException If capacity is not positive
+	 */
+	synchronized void setCapacity(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive");
+		
+		drainPending();
+		this.capacity = capacity;
+		store.setCapacity(capacity);
+	}
+	
+	synchronized int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Sets the approximate maximum amount of memory retained by the history. 
+	 * If the history is larger than that, the oldest entries are evicted. 
+	 * The newest entry is always kept.
+	 * 
+	 * @param		maxBytes Maximum retained bytes
+	 * 
+	 * @throws		IllegalArgumentException If max bytes is not positive
+	 */
+	synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("Max bytes must be positive");
+		
+		drainPending();
+		this.maxBytes = maxBytes;
+		store.setMaxBytes(maxBytes);
+	}
+	
+	synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+	
+	synchronized long getRetainedBytes() {
+		drainPending();
+		
+		return store.getRetainedBytes();
+	}
+	
+	/**
+	 * Changes where the history is stored. Current entries are moved to the
+	 * new storage. If the capacity is the default of the current storage, it
+	 * becomes the default of the new one.
+	 * 
+	 * @param		storage New storage
+	 * 
+	 * @throws		IllegalArgumentException If storage is null
+	 */
+	synchronized void setStorage(HistoryStorage storage) {
+		if (storage == null)
+			throw new IllegalArgumentException("Storage cannot be null");
+		
+		if (storage == this.storage)
+			return;
+		
+		int newCapacity = capacityFor(storage);
+		
+		replaceStore(storage.createStore(newCapacity, maxBytes), storage, newCapacity);
+	}
+	
+	private int capacityFor(HistoryStorage newStorage) {
+		return (capacity == storage.getDefaultCapacity()) 
+				? newStorage.getDefaultCapacity() 
+				: capacity;
+	}
+	
+	private void replaceStore(HistoryStore newStore, HistoryStorage newStorage, 
+							  int newCapacity) {
+		drainPending();
+		
+		for (int start = 0; start < store.size(); start += HistoryStore.WRITE_CHUNK_SIZE) {
+			int end = Math.min(store.size(), start + HistoryStore.WRITE_CHUNK_SIZE);
+			
+			for (String entry : store.getEntries(start, end)) {
+				newStore.add(entry);
+			}
+		}
+		
+		store.close();
+		store = newStore;
+		storage = newStorage;
+		capacity = newCapacity;
+	}
+	
+	/**
+	 * Stores history in memory-mapped segment files. Current entries are 
+	 * moved to the new storage. If the capacity is the default of the current
+	 * storage, it becomes the default of the disk storage.
+	 * 
+	 * @param		directory Directory where a new history directory will be 
+	 * created
+	 * @param		segmentSize Size of each segment file, in bytes
+	 * @param		maxDiskUsage Maximum size of all segment files together. 
+	 * When it is exceeded, the oldest segment is deleted.
+	 * 
+	 * @return		Directory where segment files are written
+	 * 
+	 * @throws		IllegalArgumentException If directory is null or if 
+	 * segment size or max disk usage is not positive
+	 * @throws		java.io.UncheckedIOException If the history directory 
+	 * cannot be created
+	 */
+	synchronized Path useDiskStorage(Path directory, int segmentSize, long maxDiskUsage) {
+		int newCapacity = capacityFor(HistoryStorage.DISK);
+		MappedHistoryStore newStore = new MappedHistoryStore(
+				directory, 
+				segmentSize, 
+				maxDiskUsage, 
+				newCapacity, 
+				maxBytes
+		);
+		
+		replaceStore(newStore, HistoryStorage.DISK, newCapacity);
+		
+		return newStore.getDirectory();
+	}
+	
+	synchronized HistoryStorage getStorage() {
+		return storage;
+	}
+	
+	/**
+	 * Sets whether new entries are kept. Disabling it does not clear the 
+	 * current entries.
+	 * 
+	 * @param		enabled True to keep new entries
+	 */
+	void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	boolean isEnabled() {
+		return enabled;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Growable in-memory channel that holds a chunk of entries between
+	 * copying them from the store and writing them to a file. Its buffer is
+	 * direct, so that the file channel writes it without copying it again.
+	 */
+	private static class ChunkChannel implements WritableByteChannel {
+		
+		private static final int INITIAL_CAPACITY = 64 * 1024;
+		private static final int MAX_KEPT_CAPACITY = 4 * 1024 * 1024;
+		private ByteBuffer content;
+		
+		@Override
+		public int write(ByteBuffer source) {
+			int length = source.remaining();
+			
+			if (content.remaining() < length) {
+				int capacity = Math.max(content.capacity() * 2, content.position() + length);
+				ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+				
+				content.flip();
+				content = grown.put(content);
+			}
+			
+			content.put(source);
+			
+			return length;
+		}
+		
+		/**
+		 * Gets the bytes written since the last clear, ready to be read.
+		 */
+		ByteBuffer getContent() {
+			return content.duplicate().flip();
+		}
+		
+		/**
+		 * Discards the content. The buffer is allocated on the first use,
+		 * and one that grew too large is released.
+		 */
+		void clear() {
+			if ((content == null) || (content.capacity() > MAX_KEPT_CAPACITY))
+				content = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+			else
+				content.clear();
+		}
+		
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+		
+		@Override
+		public void close() {
+		}
+	}
+	
+	private static class DumpProgress {
+		
+		private long nextSequence;
+		private long entriesWritten;
+		private long bytesWritten;
+		private long missedEntries;
+		
+		DumpProgress(long fromSequence) {
+			nextSequence = fromSequence;
+		}
+		
+		DumpResult toResult(Path output, IOException error) {
+			return new DumpResult(output, entriesWritten, bytesWritten, missedEntries, error);
+		}
 	}
 }
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.nio.file.Path;
+
+/**
+ * Where the console history is stored.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public enum HistoryStorage {
+	
+	//-------------------------------------------------------------------------
+	//		Enumerations
+	//-------------------------------------------------------------------------
+	/**
+	 * Each entry is kept as a string on the heap. Fastest for reading the
+	 * history.
+	 */
+	HEAP,
+	
+	/**
+	 * Entries are kept as UTF-8 bytes in direct memory, outside the heap, and
+	 * are only decoded when the history is read. Several times more compact
+	 * than {@link #HEAP}, and it is not traced by the garbage collector.
+	 */
+	OFF_HEAP,
+	
+	/**
+	 * Entries are appended to memory-mapped segment files, in a new 
+	 * directory inside the system temporary directory, using 64 MB segments 
+	 * and up to 1 GB of disk. Allows keeping much more history than fits in 
+	 * memory, and keeps up to 10,000,000 entries by default. Files are 
+	 * deleted when the storage is replaced or when the JVM exits. See {@link Consolex#useDiskHistory(Path, int, long)} for 
+	 * choosing the directory and limits.
+	 */
+	DISK;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int DEFAULT_CAPACITY = 80000;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	HistoryStore createStore(int capacity, long maxBytes) {
+		if (this == OFF_HEAP)
+			return new OffHeapHistoryStore(capacity, maxBytes);
+		
+		if (this == DISK)
+			return new MappedHistoryStore(
+					Path.of(System.getProperty("java.io.tmpdir")), 
+					MappedHistoryStore.DEFAULT_SEGMENT_SIZE, 
+					MappedHistoryStore.DEFAULT_MAX_DISK_USAGE, 
+					capacity, 
+					maxBytes
+			);
+		
+		return new HeapHistoryStore(capacity, maxBytes);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets how many entries this storage keeps by default. Entries on disk
+	 * are limited by the disk usage rather than by memory, so that storage
+	 * keeps many more of them.
+	 * 
+	 * @return		Default capacity
+	 */
+	int getDefaultCapacity() {
+		return (this == DISK) ? MappedHistoryStore.DEFAULT_CAPACITY : DEFAULT_CAPACITY;
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Storage of console history entries. Stores are bounded: when adding an 
+ * entry exceeds the capacity or the byte limit, the oldest entries are 
+ * evicted.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+interface HistoryStore {
+	
+	/**
+	 * Maximum number of entries read at once when writing entries on a 
+	 * channel.
+	 */
+	int WRITE_CHUNK_SIZE = 1024;
+	
+	/**
+	 * Appends an entry, evicting the oldest ones if necessary. The newest 
+	 * entry is always kept.
+	 * 
+	 * @param		content Entry
+	 */
+	void add(String content);
+	
+	/**
+	 * Removes all entries.
+	 */
+	void clear();
+	
+	/**
+	 * Gets entries in a range, from the oldest to the newest.
+	 * 
+	 * @param		from Index of the first entry (inclusive)
+	 * @param		to Index of the last entry (exclusive)
+	 * 
+	 * @return		Entries
+	 */
+	List<String> getEntries(int from, int to);
+	
+	/**
+	 * Gets how many entries are stored.
+	 * 
+	 * @return		Number of entries
+	 */
+	int size();
+	
+	/**
+	 * Sets the maximum number of entries, evicting the oldest ones if 
+	 * necessary.
+	 * 
+	 * @param		capacity Maximum number of entries
+	 */
+	void setCapacity(int capacity);
+	
+	/**
+	 * Sets the approximate maximum amount of bytes retained by the store, 
+	 * evicting the oldest entries if necessary.
+	 * 
+	 * @param		maxBytes Maximum retained bytes
+	 */
+	void setMaxBytes(long maxBytes);
+	
+	/**
+	 * Gets the approximate amount of bytes retained by the store.
+	 * 
+	 * @return		Retained bytes
+	 */
+	long getRetainedBytes();
+	
+	/**
+	 * Writes entries in a range on a channel, as UTF-8 lines, without loading
+	 * the whole range into memory. Each entry and each line separator is a 
+	 * separate write, so the channel is expected to buffer them.
+	 * 
+	 * @param		channel Destination channel
+	 * @param		from Index of the first entry (inclusive)
+	 * @param		to Index of the last entry (exclusive)
+	 * 
+	 * @return		Number of bytes written
+	 * 
+	 * @throws		IOException If channel cannot be written
+	 */
+	default long writeTo(WritableByteChannel channel, int from, int to) 
+			throws IOException {
+		ByteBuffer lineSeparator = ByteBuffer.wrap(
+				System.lineSeparator().getBytes(StandardCharsets.UTF_8)
+		);
+		long written = 0;
+		
+		for (int start = from; start < to; start += WRITE_CHUNK_SIZE) {
+			for (String entry : getEntries(start, Math.min(to, start + WRITE_CHUNK_SIZE))) {
+				written += writeFully(channel, ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8)));
+				written += writeFully(channel, lineSeparator.rewind());
+			}
+		}
+		
+		return written;
+	}
+	
+	/**
+	 * Writes all remaining bytes of a buffer.
+	 * 
+	 * @param		channel Destination channel
+	 * @param		buffer Buffer ready to be read
+	 * 
+	 * @return		Number of bytes written
+	 * 
+	 * @throws		IOException If channel cannot be written
+	 */
+	static long writeFully(WritableByteChannel channel, ByteBuffer buffer) 
+			throws IOException {
+		long written = 0;
+		
+		while (buffer.hasRemaining()) {
+			written += channel.write(buffer);
+		}
+		
+		return written;
+	}
+	
+	/**
+	 * Releases resources held by the store. The store cannot be used 
+	 * afterwards.
+	 */
+	default void close() {
+		clear();
+	}
+}
@@ -7,27 +7,158 @@
 
 package wniemiec.io.java;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * Responsible for console input.
+ * Responsible for console input. A single reader is kept for the standard
+ * input and it is only replaced when {@link System#in} changes.
  * 
  * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
  */
 class InputConsolex {
-
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private volatile ConsoleReader reader;
+	private final AsyncLineReader asyncReader;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	public InputConsolex() {
+		asyncReader = new AsyncLineReader(this::getReader);
+	}
+	
+	
 	//-------------------------------------------------------------------------
 	//		Methods
 	//-------------------------------------------------------------------------
 	public String readLine() throws IOException {
-		String input = null;
+		return read(ConsoleReader::readLine);
+	}
+	
+	/**
+	 * Performs a read directly or, while lines are being read in the 
+	 * background, through the background reader, so that a line it is still 
+	 * reading is not skipped.
+	 */
+	private <T> T read(ConsoleReader.Read<T> operation) throws IOException {
+		if (asyncReader.isRunning())
+			return asyncReader.read(operation);
+		
+		return operation.apply(getReader());
+	}
+	
+	public CompletableFuture<String> readLineAsync() {
+		return asyncReader.readLine();
+	}
+	
+	public String readLine(Duration timeout) throws IOException {
+		if ((timeout == null) || timeout.isNegative())
+			throw new IllegalArgumentException("Timeout cannot be null or negative");
+		
+		CompletableFuture<String> request = asyncReader.readLine();
+		
+		try {
+			return request.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException e) {
+			request.cancel(false);
+			throw new InterruptedIOException("No line was read within " + timeout);
+		}
+		catch (InterruptedException e) {
+			request.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a line");
+		}
+		catch (ExecutionException e) {
+			throw AsyncLineReader.rethrow(e.getCause());
+		}
+	}
+	
+	public String readToken() throws IOException {
+		return read(ConsoleReader::readToken);
+	}
+	
+	public int readInt() throws IOException {
+		return read(ConsoleReader::readInt);
+	}
+	
+	public long readLong() throws IOException {
+		return read(ConsoleReader::readLong);
+	}
+	
+	public double readDouble() throws IOException {
+		return read(ConsoleReader::readDouble);
+	}
+	
+	public int[] readIntArray(int amount) throws IOException {
+		return read(consoleReader -> consoleReader.readIntArray(amount));
+	}
+	
+	public List<String> readLines() throws IOException {
+		List<String> lines = new ArrayList<>();
+		
+		forEachLine(lines::add);
+		
+		return lines;
+	}
+	
+	public Stream<String> lines() {
+		return ConsoleReader.lines(this::readLine);
+	}
+	
+	public void forEachLine(Consumer<String> consumer) throws IOException {
+		if (consumer == null)
+			throw new IllegalArgumentException("Consumer cannot be null");
 		
-		try (BufferedReader br = new BufferedReader(new InputStreamReader(System.in))) {
-			input = br.readLine();
+		if (!asyncReader.isRunning()) {
+			getReader().forEachLine(consumer);
+			return;
 		}
 		
-		return input;
+		String line;
+		
+		while ((line = readLine()) != null) {
+			consumer.accept(line);
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	private ConsoleReader getReader() {
+		InputStream input = System.in;
+		ConsoleReader current = reader;
+		
+		if ((current != null) && current.isReading(input))
+			return current;
+		
+		synchronized (this) {
+			if ((reader == null) || !reader.isReading(input)) {
+				reader = new ConsoleReader(
+						input,
+						Charset.defaultCharset(),
+						ConsoleReader.DEFAULT_BUFFER_SIZE
+				);
+			}
+			
+			return reader;
+		}
 	}
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Log levels of packages and classes, kept in a prefix tree of name
+ * segments. The level of a name is the level of its longest configured
+ * prefix, so that the level of a package also applies to its subpackages,
+ * its classes and their nested classes. Names are split on '.' and '$'.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class LevelTree {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private final Node root;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a tree in which every name has a default level.
+	 * 
+	 * @param		defaultLevel Level of names without a configured prefix
+	 */
+	LevelTree(LogLevel defaultLevel) {
+		root = new Node();
+		root.level = defaultLevel;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Sets the level of a package or class and of everything under it.
+	 * 
+	 * @param		name Package or class name
+	 * @param		level Log level
+	 */
+	synchronized void set(String name, LogLevel level) {
+		Node node = root;
+		
+		for (String segment : split(name)) {
+			node = node.children.computeIfAbsent(segment, key -> new Node());
+		}
+		
+		node.level = level;
+	}
+	
+	/**
+	 * Removes the level of a package or class, which goes back to the level
+	 * of its longest configured prefix. Levels set under it are kept.
+	 * 
+	 * @param		name Package or class name
+	 */
+	synchronized void remove(String name) {
+		Node node = root;
+		
+		for (String segment : split(name)) {
+			node = node.children.get(segment);
+			
+			if (node == null)
+				return;
+		}
+		
+		if (node != root)
+			node.level = null;
+	}
+	
+	/**
+	 * Gets the level of a name.
+	 * 
+	 * @param		name Package or class name
+	 * 
+	 * @return		Level of its longest configured prefix or the default
+	 * level if there is none
+	 */
+	synchronized LogLevel resolve(String name) {
+		Node node = root;
+		LogLevel level = root.level;
+		
+		for (String segment : split(name)) {
+			node = node.children.get(segment);
+			
+			if (node == null)
+				break;
+			
+			if (node.level != null)
+				level = node.level;
+		}
+		
+		return level;
+	}
+	
+	private static String[] split(String name) {
+		return name.split("[.$]");
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters & Setters
+	//-------------------------------------------------------------------------
+	synchronized void setDefaultLevel(LogLevel level) {
+		root.level = level;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	private static class Node {
+		
+		private final Map<String, Node> children = new HashMap<>();
+		private LogLevel level;
+	}
+}
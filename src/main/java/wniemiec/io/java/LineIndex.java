@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse index of the byte offsets where the lines of a file start. It is
+ * built with a single parallel scan of the file, split into chunks that are
+ * mapped into memory. Each chunk keeps the offset of one out of every
+ * {@value #STRIDE} lines that start in it, so that locating a line takes a
+ * binary search over the chunks followed by a scan of fewer than
+ * {@value #STRIDE} lines. Lines end as in {@link FileLines}, at '\n', at 
+ * '\r' or at "\r\n", which requires an ASCII-compatible charset.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class LineIndex {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	static final int STRIDE = 128;
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final long MIN_CHUNK_SIZE = 8L * 1024 * 1024;
+	private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+	private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+	private final long size;
+	private final long[] chunkFirstLine;
+	private final int[] chunkLineCount;
+	private final long[][] checkpoints;
+	private final long lineCount;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private LineIndex(long size, Chunk[] chunks) {
+		this.size = size;
+		this.chunkFirstLine = new long[chunks.length];
+		this.chunkLineCount = new int[chunks.length];
+		this.checkpoints = new long[chunks.length][];
+		
+		long line = 0;
+		
+		for (int i = 0; i < chunks.length; i++) {
+			chunkFirstLine[i] = line;
+			chunkLineCount[i] = chunks[i].lineCount;
+			checkpoints[i] = chunks[i].getCheckpoints();
+			line += chunks[i].lineCount;
+		}
+		
+		this.lineCount = line;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Builds the index of a file.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * 
+	 * @return		Line index
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	static LineIndex build(FileChannel file) throws IOException {
+		return build(file, computeChunkSize(file.size()));
+	}
+	
+	/**
+	 * Builds the index of a file, scanning it in chunks of a given size.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * @param		chunkSize Chunk size, in bytes
+	 * 
+	 * @return		Line index
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	static LineIndex build(FileChannel file, long chunkSize) throws IOException {
+		long size = file.size();
+		int totalChunks = (int) ((size + chunkSize - 1) / chunkSize);
+		
+		try {
+			Chunk[] chunks = IntStream.range(0, totalChunks)
+					.parallel()
+					.mapToObj(i -> scanChunk(
+							file, 
+							i * chunkSize, 
+							Math.min(size, (i + 1) * chunkSize), 
+							size
+					))
+					.toArray(Chunk[]::new);
+			
+			return new LineIndex(size, chunks);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private static long computeChunkSize(long size) {
+		long perThread = size / (4L * Runtime.getRuntime().availableProcessors());
+		
+		return Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, perThread));
+	}
+	
+	/**
+	 * Finds the lines that start in a chunk. A line starts at offset 0 and
+	 * right after each line break, unless it ends the file. The byte after 
+	 * the chunk is mapped as well, to tell whether a '\r' ending the chunk
+	 * is followed by '\n'.
+	 */
+	private static Chunk scanChunk(FileChannel file, long start, long end, long size) {
+		Chunk chunk = new Chunk();
+		
+		if (start == 0)
+			chunk.addLine(0);
+		
+		try {
+			int mapped = (int) (Math.min(size, end + 1) - start);
+			MappedByteBuffer bytes = file.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+			int length = (int) (end - start);
+			
+			for (int i = 0; i < length; i++) {
+				if ((start + i + 1 < size) && FileLines.isLineEnd(bytes, i, mapped))
+					chunk.addLine(start + i + 1);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return chunk;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets the byte offset where a line starts.
+	 * 
+	 * @param		file File channel of the indexed file. Its position is not
+	 * changed
+	 * @param		line Line index, starting at 0
+	 * 
+	 * @return		Offset of the first byte of the line
+	 * 
+	 * @throws		IOException If file cannot be read
+	 * @throws		IndexOutOfBoundsException If the line does not exist
+	 */
+	long getLineOffset(FileChannel file, long line) throws IOException {
+		if ((line < 0) || (line >= lineCount))
+			throw new IndexOutOfBoundsException("Line " + line + " out of [0, " + lineCount + ")");
+		
+		int chunk = findChunk(line);
+		long localLine = line - chunkFirstLine[chunk];
+		long offset = checkpoints[chunk][(int) (localLine / STRIDE)];
+		
+		return skipLines(file, offset, (int) (localLine % STRIDE));
+	}
+	
+	private int findChunk(long line) {
+		int index = Arrays.binarySearch(chunkFirstLine, line);
+		
+		// Chunks without lines share their first line with the next ones
+		if (index < 0)
+			index = -index - 2;
+		
+		while (chunkLineCount[index] == 0) {
+			index++;
+		}
+		
+		return index;
+	}
+	
+	private long skipLines(FileChannel file, long offset, int lines) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long position = offset;
+		int remaining = lines;
+		boolean afterCarriageReturn = false;
+		
+		while ((remaining > 0) || afterCarriageReturn) {
+			buffer.clear();
+			
+			int read = file.read(buffer, position);
+			
+			if ((read <= 0) && (remaining == 0))
+				break;
+			
+			if (read <= 0)
+				throw new IOException("File changed while it was being read");
+			
+			for (int i = 0; (i < read) && ((remaining > 0) || afterCarriageReturn); i++) {
+				byte current = buffer.get(i);
+				
+				// "\r\n" is a single line break, counted at its '\r'
+				if (afterCarriageReturn) {
+					afterCarriageReturn = false;
+					
+					if (current == LINE_FEED) {
+						position++;
+						continue;
+					}
+					
+					if (remaining == 0)
+						break;
+				}
+				
+				position++;
+				
+				if (current == LINE_FEED) {
+					remaining--;
+				}
+				else if (current == CARRIAGE_RETURN) {
+					remaining--;
+					afterCarriageReturn = true;
+				}
+			}
+		}
+		
+		return position;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	long getLineCount() {
+		return lineCount;
+	}
+	
+	long getSize() {
+		return size;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	private static class Chunk {
+		
+		private long[] checkpoints = new long[16];
+		private int totalCheckpoints;
+		private int lineCount;
+		
+		void addLine(long offset) {
+			if (lineCount % STRIDE == 0) {
+				if (totalCheckpoints == checkpoints.length)
+					checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+				
+				checkpoints[totalCheckpoints++] = offset;
+			}
+			
+			lineCount++;
+		}
+		
+		long[] getCheckpoints() {
+			return Arrays.copyOf(checkpoints, totalCheckpoints);
+		}
+	}
+}
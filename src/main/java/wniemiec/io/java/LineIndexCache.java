@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of line indexes. An index is only reused while the size and
+ * the modification time of its file do not change. When the cache is full,
+ * the least recently used index is evicted.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class LineIndexCache {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int DEFAULT_MAX_SIZE = 16;
+	private final Map<Path, CachedIndex> indexes;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructors
+	//-------------------------------------------------------------------------
+	LineIndexCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+	
+	LineIndexCache(int maxSize) {
+		this.indexes = new LinkedHashMap<>(maxSize, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, CachedIndex> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets the line index of a file, building it if it is not cached or if 
+	 * the file has changed since it was built.
+	 * 
+	 * @param		file Absolute file path
+	 * @param		channel File channel
+	 * 
+	 * @return		Line index
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	LineIndex get(Path file, FileChannel channel) throws IOException {
+		long size = channel.size();
+		FileTime lastModified = Files.getLastModifiedTime(file);
+		CachedIndex entry;
+		
+		synchronized (indexes) {
+			entry = indexes.get(file);
+		}
+		
+		if ((entry != null) && entry.isFor(size, lastModified))
+			return entry.index;
+		
+		// Building happens outside the lock, so that other files are not 
+		// blocked by a large one
+		entry = new CachedIndex(LineIndex.build(channel), lastModified);
+		
+		synchronized (indexes) {
+			indexes.put(file, entry);
+		}
+		
+		return entry.index;
+	}
+	
+	int size() {
+		synchronized (indexes) {
+			return indexes.size();
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	private static class CachedIndex {
+		
+		private final LineIndex index;
+		private final FileTime lastModified;
+		
+		CachedIndex(LineIndex index, FileTime lastModified) {
+			this.index = index;
+			this.lastModified = lastModified;
+		}
+		
+		boolean isFor(long size, FileTime lastModified) {
+			return (index.getSize() == size) && this.lastModified.equals(lastModified);
+		}
+	}
+}
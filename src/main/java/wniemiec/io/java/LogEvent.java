@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+/**
+ * Mutable log event. Instances are pre-allocated by {@link LogRingBuffer} 
+ * and reused, so that publishing a message does not allocate.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class LogEvent {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private LogLevel level;
+	private String message;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	void set(LogLevel level, String message) {
+		this.level = level;
+		this.message = message;
+	}
+	
+	void copyFrom(LogEvent event) {
+		level = event.level;
+		message = event.message;
+	}
+	
+	void clear() {
+		level = null;
+		message = null;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	LogLevel getLevel() {
+		return level;
+	}
+	
+	String getMessage() {
+		return message;
+	}
+}
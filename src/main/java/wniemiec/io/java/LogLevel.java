@@ -86,6 +86,18 @@ public enum LogLevel {
 		return debug;
 	}
 	
+	/**
+	 * Checks whether messages of a level pass this level as a threshold.
+	 * 
+	 * @param		level Message level
+	 * 
+	 * @return		True if level is not OFF and is at least as severe as 
+	 * this one
+	 */
+	boolean shouldDisplay(LogLevel level) {
+		return (level != OFF) && (level.ordinal() <= ordinal());
+	}
+	
 	
 	//-------------------------------------------------------------------------
 	//		Getters
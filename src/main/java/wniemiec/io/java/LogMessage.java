@@ -8,7 +8,9 @@
 package wniemiec.io.java;
 
 /**
- * Responsible for displaying log messages.
+ * Responsible for displaying log messages. Each line is assembled in a 
+ * reusable per-thread buffer, from a prefix that is computed once for each
+ * log level, and is handed to the sink in a single write.
  * 
  * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
  */
@@ -18,66 +20,102 @@ class LogMessage {
 	//		Attributes
 	//-------------------------------------------------------------------------
 	private static final int PADDING_LEFT = 8;
-	private String lastMessage = "";
-	private String lastMessageType;
+	private static final int LINE_BUFFER_SIZE = 256;
+	private static final int MAX_LINE_BUFFER_SIZE = 16 * 1024;
+	private static final String[] PREFIXES = buildPrefixes();
+	private static final ThreadLocal<StringBuilder> lineBuffer = 
+			ThreadLocal.withInitial(() -> new StringBuilder(LINE_BUFFER_SIZE));
+	private volatile OutputSink sink;
 	
 	
 	//-------------------------------------------------------------------------
 	//		Constructor
 	//-------------------------------------------------------------------------
-	LogMessage() {
+	LogMessage(OutputSink sink) {
+		this.sink = sink;
 	}
 	
 	
 	//-------------------------------------------------------------------------
 	//		Methods
 	//-------------------------------------------------------------------------
+	private static String[] buildPrefixes() {
+		LogLevel[] levels = LogLevel.values();
+		String[] prefixes = new String[levels.length];
+		
+		for (LogLevel level : levels) {
+			StringBuilder prefix = new StringBuilder();
+			
+			appendPrefix(prefix, level.getName());
+			prefixes[level.ordinal()] = prefix.toString();
+		}
+		
+		return prefixes;
+	}
+	
+	private static void appendPrefix(StringBuilder output, String type) {
+		int start = output.length();
+		
+		output.append('[').append(type).append(']');
+		
+		while (output.length() - start < PADDING_LEFT) {
+			output.append(' ');
+		}
+		
+		output.append(' ');
+	}
+	
 	/**
-	 * Display a log message.
+	 * Display a log message followed by a line break.
 	 * 
-	 * @param		type Message type (error, warn, info...)
+	 * @param		level Message level
 	 * @param		message Message to be displayed
-	 * @param		breakline Indicates whether there should be a line break 
-	 * after the log message. Default is true.
 	 */
-	public void log(String type, String message, boolean breakline) {
-		System.out.printf("%-" + PADDING_LEFT + "s %s", formatType(type), message);
+	public void log(LogLevel level, String message) {
+		StringBuilder line = startLine();
 		
-		if (breakline)
-			System.out.println();
-
-		lastMessage = message;
-		lastMessageType = type;
+		try {
+			format(line, level, message);
+			sink.writeLine(line);
+		}
+		finally {
+			releaseLine(line);
+		}
 	}
 	
 	/**
-	 * Display a log message followed by a line break.
-	 * 
-	 * @param		type Message type (error, warn, info...)
-	 * @param		message Message to be displayed
+	 * Gets the buffer of the current thread. If it is in use, a new buffer 
+	 * is returned.
 	 */
-	public void log(String type, String message) {
-		log(type, message, true);
+	private static StringBuilder startLine() {
+		StringBuilder line = lineBuffer.get();
+		
+		return (line.length() == 0) ? line : new StringBuilder(LINE_BUFFER_SIZE);
 	}
 	
-	private static String formatType(String type) {
-		return "[" + type + "]";
+	private static void releaseLine(StringBuilder line) {
+		line.setLength(0);
+		
+		if ((line.capacity() > MAX_LINE_BUFFER_SIZE) && (line == lineBuffer.get()))
+			lineBuffer.set(new StringBuilder(LINE_BUFFER_SIZE));
 	}
 	
-	public void clear() {
-		lastMessage = "";
-		lastMessageType = "";
+	/**
+	 * Appends a log message to a buffer, without a line break.
+	 * 
+	 * @param		output Buffer that will receive the formatted message
+	 * @param		level Message level
+	 * @param		message Message to be formatted
+	 */
+	static void format(StringBuilder output, LogLevel level, CharSequence message) {
+		output.append(PREFIXES[level.ordinal()]).append(message);
 	}
 	
 	
 	//-------------------------------------------------------------------------
-	//		Getters
+	//		Getters & Setters
 	//-------------------------------------------------------------------------
-	public String getLastMessage() {
-		return lastMessage;
-	}
-	
-	public String getLastMessageType() {
-		return lastMessageType;
+	public void setSink(OutputSink sink) {
+		this.sink = sink;
 	}
 }
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer queue of pre-allocated log events. Each 
+ * slot has a sequence number that tells whether it is free to be written or
+ * ready to be read, so producers only compete for the tail cursor.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class LogRingBuffer {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private final LogEvent[] events;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail;
+	private final AtomicLong head;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a ring buffer.
+	 * 
+	 * @param		capacity Minimum number of events the buffer can hold. It 
+	 * will be rounded up to a power of two.
+	 * 
+	 * @throws		IllegalArgumentException If capacity is not positive
+	 */
+	LogRingBuffer(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive");
+		
+		int size = roundToPowerOfTwo(capacity);
+		
+		events = new LogEvent[size];
+		sequences = new AtomicLongArray(size);
+		mask = size - 1;
+		tail = new AtomicLong();
+		head = new AtomicLong();
+		
+		for (int i = 0; i < size; i++) {
+			events[i] = new LogEvent();
+			sequences.set(i, i);
+		}
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	private static int roundToPowerOfTwo(int value) {
+		int highest = Integer.highestOneBit(value);
+		
+		if (highest == value)
+			return value;
+		
+		if (highest == (1 << 30))
+			throw new IllegalArgumentException("Capacity too large: " + value);
+		
+		return highest << 1;
+	}
+	
+	/**
+	 * Publishes an event.
+	 * 
+	 * @param		level Message level
+	 * @param		message Message
+	 * 
+	 * @return		False if the buffer is full; true otherwise
+	 */
+	boolean offer(LogLevel level, String message) {
+		long position = tail.get();
+		
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					events[index].set(level, message);
+					sequences.set(index, position + 1);
+					
+					return true;
+				}
+				
+				position = tail.get();
+			}
+			else if (difference < 0) {
+				return false;
+			}
+			else {
+				position = tail.get();
+			}
+		}
+	}
+	
+	/**
+	 * Takes the oldest event.
+	 * 
+	 * @param		target Event that will receive the content of the oldest 
+	 * event. If null, the oldest event is just discarded.
+	 * 
+	 * @return		False if the buffer is empty; true otherwise
+	 */
+	boolean poll(LogEvent target) {
+		return (take(target) != null);
+	}
+	
+	/**
+	 * Discards the oldest event.
+	 * 
+	 * @return		Level of the discarded event or null if the buffer is 
+	 * empty
+	 */
+	LogLevel discardOldest() {
+		return take(null);
+	}
+	
+	private LogLevel take(LogEvent target) {
+		long position = head.get();
+		
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - (position + 1);
+			
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					LogEvent event = events[index];
+					LogLevel level = event.getLevel();
+					
+					if (target != null)
+						target.copyFrom(event);
+					
+					event.clear();
+					sequences.set(index, position + mask + 1);
+					
+					return level;
+				}
+				
+				position = head.get();
+			}
+			else if (difference < 0) {
+				return null;
+			}
+			else {
+				position = head.get();
+			}
+		}
+	}
+	
+	boolean isEmpty() {
+		return head.get() >= tail.get();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	int getCapacity() {
+		return events.length;
+	}
+	
+	/**
+	 * Gets the number of events published so far.
+	 * 
+	 * @return		Tail position
+	 */
+	long getPublished() {
+		return tail.get();
+	}
+	
+	/**
+	 * Gets the number of events taken or discarded so far.
+	 * 
+	 * @return		Head position
+	 */
+	long getConsumed() {
+		return head.get();
+	}
+}
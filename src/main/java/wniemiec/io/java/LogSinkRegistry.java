@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named sinks that receive log messages besides the console sink, each with
+ * its own level threshold. A sink may have its own asynchronous queue, so
+ * that a slow sink does not slow down the caller or the other sinks. A sink
+ * that fails has its failure counted and does not prevent the others from
+ * being written.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class LogSinkRegistry {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final String DRAINER_NAME_PREFIX = "consolex-log-drainer-";
+	private static final RegisteredSink[] NO_SINKS = new RegisteredSink[0];
+	private volatile RegisteredSink[] sinks = NO_SINKS;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Adds a sink whose messages are written by the caller.
+	 * 
+	 * @param		name Sink name
+	 * @param		sink Sink
+	 * @param		level Least severe level written to the sink
+	 * 
+	 * @throws		IllegalArgumentException If there is already a sink with
+	 * that name
+	 */
+	synchronized void add(String name, OutputSink sink, LogLevel level) {
+		validateNewName(name);
+		publish(new RegisteredSink(name, sink, level));
+	}
+	
+	/**
+	 * Adds a sink whose messages are written by a background thread of its
+	 * own.
+	 * 
+	 * @param		name Sink name
+	 * @param		sink Sink
+	 * @param		level Least severe level written to the sink
+	 * @param		capacity Queue capacity (rounded up to a power of two)
+	 * @param		waitStrategy How the background thread waits for messages
+	 * @param		overflowPolicy What to do when the queue is full
+	 * 
+	 * @throws		IllegalArgumentException If there is already a sink with
+	 * that name, if capacity is not positive or if wait strategy or overflow
+	 * policy is null
+	 */
+	synchronized void add(String name, OutputSink sink, LogLevel level, int capacity,
+						  WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		validateNewName(name);
+		
+		RegisteredSink registered = new RegisteredSink(name, sink, level);
+		
+		registered.dispatcher = new AsyncLogDispatcher(
+				capacity,
+				waitStrategy,
+				overflowPolicy,
+				registered.droppedMessages,
+				() -> registered.sink,
+				DRAINER_NAME_PREFIX + name
+		);
+		publish(registered);
+	}
+	
+	private void validateNewName(String name) {
+		if (find(name) != null)
+			throw new IllegalArgumentException("There is already a sink named " + name);
+	}
+	
+	private void publish(RegisteredSink registered) {
+		RegisteredSink[] updated = Arrays.copyOf(sinks, sinks.length + 1);
+		
+		updated[sinks.length] = registered;
+		sinks = updated;
+	}
+	
+	/**
+	 * Removes a sink, writing its pending messages first. The sink is
+	 * flushed, but not closed.
+	 * 
+	 * @param		name Sink name
+	 */
+	synchronized void remove(String name) {
+		RegisteredSink registered = find(name);
+		
+		if (registered == null)
+			return;
+		
+		RegisteredSink[] updated = new RegisteredSink[sinks.length - 1];
+		int i = 0;
+		
+		for (RegisteredSink current : sinks) {
+			if (current != registered)
+				updated[i++] = current;
+		}
+		
+		sinks = (updated.length == 0) ? NO_SINKS : updated;
+		
+		if (registered.dispatcher == null)
+			registered.sink.flush();
+		else
+			registered.dispatcher.shutdown();
+	}
+	
+	/**
+	 * Writes a log message to each sink whose level allows it. The message is
+	 * formatted at most once for all sinks written by the caller.
+	 * 
+	 * @param		level Message level
+	 * @param		message Message
+	 */
+	void write(LogLevel level, String message) {
+		RegisteredSink[] current = sinks;
+		StringBuilder line = null;
+		
+		for (RegisteredSink registered : current) {
+			if (!registered.level.shouldDisplay(level))
+				continue;
+			
+			AsyncLogDispatcher dispatcher = registered.dispatcher;
+			
+			// A dispatcher that is no longer running belongs to a sink that 
+			// has been removed since the array was read, so the message is
+			// dropped instead of being written behind its pending messages
+			if (dispatcher != null) {
+				dispatcher.publish(level, message);
+				continue;
+			}
+			
+			if (line == null) {
+				line = new StringBuilder();
+				LogMessage.format(line, level, message);
+			}
+			
+			registered.sink.writeLine(line);
+		}
+	}
+	
+	/**
+	 * Waits until the queued messages of every sink have been written and
+	 * flushes the sinks.
+	 */
+	void flush() {
+		for (RegisteredSink registered : sinks) {
+			if (registered.dispatcher != null)
+				registered.dispatcher.flush();
+			
+			registered.sink.flush();
+		}
+	}
+	
+	private RegisteredSink find(String name) {
+		for (RegisteredSink registered : sinks) {
+			if (registered.name.equals(name))
+				return registered;
+		}
+		
+		return null;
+	}
+	
+	private RegisteredSink get(String name) {
+		RegisteredSink registered = find(name);
+		
+		if (registered == null)
+			throw new IllegalArgumentException("There is no sink named " + name);
+		
+		return registered;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	long getFailures(String name) {
+		return get(name).sink.failures.sum();
+	}
+	
+	long getDroppedMessages(String name) {
+		return get(name).droppedMessages.getTotal();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Sink with its threshold and, if it is asynchronous, its queue.
+	 */
+	private static class RegisteredSink {
+		
+		private final String name;
+		private final IsolatedSink sink;
+		private final LogLevel level;
+		private final DropCounters droppedMessages;
+		private AsyncLogDispatcher dispatcher;
+		
+		RegisteredSink(String name, OutputSink sink, LogLevel level) {
+			this.name = name;
+			this.sink = new IsolatedSink(sink);
+			this.level = level;
+			this.droppedMessages = new DropCounters();
+		}
+	}
+	
+	/**
+	 * Counts the exceptions thrown by a sink instead of propagating them, so
+	 * that neither the caller nor a drainer thread is stopped by them.
+	 */
+	private static class IsolatedSink implements OutputSink {
+		
+		private final OutputSink sink;
+		private final LongAdder failures;
+		
+		IsolatedSink(OutputSink sink) {
+			this.sink = sink;
+			this.failures = new LongAdder();
+		}
+		
+		@Override
+		public void write(CharSequence content) {
+			try {
+				sink.write(content);
+			}
+			catch (RuntimeException e) {
+				failures.increment();
+			}
+		}
+		
+		@Override
+		public void writeLine(CharSequence content) {
+			try {
+				sink.writeLine(content);
+			}
+			catch (RuntimeException e) {
+				failures.increment();
+			}
+		}
+		
+		@Override
+		public void flush() {
+			try {
+				sink.flush();
+			}
+			catch (RuntimeException e) {
+				failures.increment();
+			}
+		}
+	}
+}
@@ -8,6 +8,9 @@
 package wniemiec.io.java;
 
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Responsible for displaying log messages on the console.
@@ -19,106 +22,718 @@ class LoggerConsolex {
 	//-------------------------------------------------------------------------
 	//		Attributes
 	//-------------------------------------------------------------------------
+	private static final int MESSAGE_BUFFER_SIZE = 256;
+	private static final int MAX_MESSAGE_BUFFER_SIZE = 16 * 1024;
+	private static final ThreadLocal<StringBuilder> messageBuffer = 
+			ThreadLocal.withInitial(() -> new StringBuilder(MESSAGE_BUFFER_SIZE));
+	private static final TemplateCache templates = new TemplateCache();
+	private static final Duration SAMPLING_REPORT_INTERVAL = Duration.ofSeconds(30);
+	private static final Duration REPEAT_REPORT_INTERVAL = Duration.ofSeconds(5);
+	private static final TemplateRenderer ONE_ARGUMENT = 
+			(template, output, first, second, number) -> template.render(output, first);
+	private static final TemplateRenderer TWO_ARGUMENTS = 
+			(template, output, first, second, number) -> template.render(output, first, second);
+	private static final TemplateRenderer ARGUMENT_ARRAY = 
+			(template, output, first, second, number) -> template.render(output, (Object[]) first);
+	private static final TemplateRenderer LONG_ARGUMENT = 
+			(template, output, first, second, number) -> template.render(output, number);
+	private static final TemplateRenderer DOUBLE_ARGUMENT = 
+			(template, output, first, second, number) -> template.render(output, Double.longBitsToDouble(number));
 	private HistoryConsolex history;
-	private LogLevel level;
+	private volatile LogLevel level;
 	private LogMessage logMessage;
+	private DropCounters droppedMessages;
+	private volatile OutputSink sink;
+	private volatile LogLevel sinkLevel;
+	private final LogSinkRegistry logSinks;
+	private volatile AsyncLogDispatcher asyncDispatcher;
+	private volatile LevelTree levels;
+	private volatile ClassValue<Source> sources;
+	private volatile RepeatFilter repeatFilter;
+	private final DropCounters rateLimitedMessages;
+	private final RateLimiter rateLimiter;
+	private final DropCounters sampledOutMessages;
+	private final Sampler sampler;
 	
 	
 	//-------------------------------------------------------------------------
 	//		Constructor
 	//-------------------------------------------------------------------------
-	public LoggerConsolex(HistoryConsolex history) {
+	public LoggerConsolex(HistoryConsolex history, OutputSink sink) {
 		this.history = history;
+		this.sink = sink;
 		level = LogLevel.INFO;
-		logMessage = new LogMessage();
+		sinkLevel = LogLevel.DEBUG;
+		logSinks = new LogSinkRegistry();
+		logMessage = new LogMessage(sink);
+		droppedMessages = new DropCounters();
+		rateLimitedMessages = new DropCounters();
+		rateLimiter = new RateLimiter(rateLimitedMessages);
+		sampledOutMessages = new DropCounters();
+		sampler = new Sampler(sampledOutMessages, this::log, SAMPLING_REPORT_INTERVAL.toNanos());
+		levels = new LevelTree(level);
+		sources = createSourceCache(levels);
 	}
 	
 	
 	//-------------------------------------------------------------------------
 	//		Methods
 	//-------------------------------------------------------------------------
-	public void writeError(String message) {
+	public void writeError(Object message) {
 		if (message == null)
 			throw new IllegalArgumentException("Message cannot be null");
 		
-		if (!level.shouldDisplayError())
+		if (!level.shouldDisplayError() || !isAllowed(LogLevel.ERROR, null))
 			return;
 		
-		logMessage.log("ERROR", message);
-		history.add(message);
+		log(LogLevel.ERROR, message.toString());
 	}
 	
-	public void writeWarning(String message) {
+	public void writeWarning(Object message) {
 		if (message == null)
 			throw new IllegalArgumentException("Message cannot be null");
 		
-		if (!level.shouldDisplayWarning())
+		if (!level.shouldDisplayWarning() || !isAllowed(LogLevel.WARNING, null))
 			return;
 		
-		logMessage.log("WARN", message);
-		history.add(message);
+		log(LogLevel.WARNING, message.toString());
 	}
 	
-	public void writeInfo(String message) {
+	public void writeInfo(Object message) {
 		if (message == null)
 			throw new IllegalArgumentException("Message cannot be null");
 		
-		if (!level.shouldDisplayInfo())
+		if (!level.shouldDisplayInfo() || !isAllowed(LogLevel.INFO, null))
 			return;
 		
-		logMessage.log("INFO", message);
-		history.add(message);
+		log(LogLevel.INFO, message.toString());
+	}
+	
+	public void writeDebug(Object message) {
+		if (message == null)
+			throw new IllegalArgumentException("Message cannot be null");
+		
+		if (!level.shouldDisplayDebug() || !isAllowed(LogLevel.DEBUG, null))
+			return;
+		
+		log(LogLevel.DEBUG, message.toString());
+	}
+	
+	public void writeError(Supplier<?> message) {
+		if (message == null)
+			throw new IllegalArgumentException("Message cannot be null");
+		
+		if (!level.shouldDisplayError() || !isAllowed(LogLevel.ERROR, null))
+			return;
+		
+		log(LogLevel.ERROR, resolve(message));
+	}
+	
+	public void writeWarning(Supplier<?> message) {
+		if (message == null)
+			throw new IllegalArgumentException("Message cannot be null");
+		
+		if (!level.shouldDisplayWarning() || !isAllowed(LogLevel.WARNING, null))
+			return;
+		
+		log(LogLevel.WARNING, resolve(message));
 	}
 	
-	public void writeDebug(String message) {
+	public void writeInfo(Supplier<?> message) {
 		if (message == null)
 			throw new IllegalArgumentException("Message cannot be null");
 		
-		if (!level.shouldDisplayDebug())
+		if (!level.shouldDisplayInfo() || !isAllowed(LogLevel.INFO, null))
+			return;
+		
+		log(LogLevel.INFO, resolve(message));
+	}
+	
+	public void writeDebug(Supplier<?> message) {
+		if (message == null)
+			throw new IllegalArgumentException("Message cannot be null");
+		
+		if (!level.shouldDisplayDebug() || !isAllowed(LogLevel.DEBUG, null))
+			return;
+		
+		log(LogLevel.DEBUG, resolve(message));
+	}
+	
+	private static String resolve(Supplier<?> message) {
+		Object content = message.get();
+		
+		if (content == null)
+			throw new IllegalArgumentException("Message cannot be null");
+		
+		return content.toString();
+	}
+	
+	public void writeError(String template, Object arg) {
+		logTemplate(LogLevel.ERROR, template, ONE_ARGUMENT, arg, null, 0);
+	}
+	
+	public void writeError(String template, Object first, Object second) {
+		logTemplate(LogLevel.ERROR, template, TWO_ARGUMENTS, first, second, 0);
+	}
+	
+	public void writeError(String template, Object... args) {
+		logTemplate(LogLevel.ERROR, template, ARGUMENT_ARRAY, args, null, 0);
+	}
+	
+	public void writeError(String template, long arg) {
+		logTemplate(LogLevel.ERROR, template, LONG_ARGUMENT, null, null, arg);
+	}
+	
+	public void writeError(String template, double arg) {
+		logTemplate(LogLevel.ERROR, template, DOUBLE_ARGUMENT, null, null, Double.doubleToRawLongBits(arg));
+	}
+	
+	public void writeWarning(String template, Object arg) {
+		logTemplate(LogLevel.WARNING, template, ONE_ARGUMENT, arg, null, 0);
+	}
+	
+	public void writeWarning(String template, Object first, Object second) {
+		logTemplate(LogLevel.WARNING, template, TWO_ARGUMENTS, first, second, 0);
+	}
+	
+	public void writeWarning(String template, Object... args) {
+		logTemplate(LogLevel.WARNING, template, ARGUMENT_ARRAY, args, null, 0);
+	}
+	
+	public void writeWarning(String template, long arg) {
+		logTemplate(LogLevel.WARNING, template, LONG_ARGUMENT, null, null, arg);
+	}
+	
+	public void writeWarning(String template, double arg) {
+		logTemplate(LogLevel.WARNING, template, DOUBLE_ARGUMENT, null, null, Double.doubleToRawLongBits(arg));
+	}
+	
+	public void writeInfo(String template, Object arg) {
+		logTemplate(LogLevel.INFO, template, ONE_ARGUMENT, arg, null, 0);
+	}
+	
+	public void writeInfo(String template, Object first, Object second) {
+		logTemplate(LogLevel.INFO, template, TWO_ARGUMENTS, first, second, 0);
+	}
+	
+	public void writeInfo(String template, Object... args) {
+		logTemplate(LogLevel.INFO, template, ARGUMENT_ARRAY, args, null, 0);
+	}
+	
+	public void writeInfo(String template, long arg) {
+		logTemplate(LogLevel.INFO, template, LONG_ARGUMENT, null, null, arg);
+	}
+	
+	public void writeInfo(String template, double arg) {
+		logTemplate(LogLevel.INFO, template, DOUBLE_ARGUMENT, null, null, Double.doubleToRawLongBits(arg));
+	}
+	
+	public void writeDebug(String template, Object arg) {
+		logTemplate(LogLevel.DEBUG, template, ONE_ARGUMENT, arg, null, 0);
+	}
+	
+	public void writeDebug(String template, Object first, Object second) {
+		logTemplate(LogLevel.DEBUG, template, TWO_ARGUMENTS, first, second, 0);
+	}
+	
+	public void writeDebug(String template, Object... args) {
+		logTemplate(LogLevel.DEBUG, template, ARGUMENT_ARRAY, args, null, 0);
+	}
+	
+	public void writeDebug(String template, long arg) {
+		logTemplate(LogLevel.DEBUG, template, LONG_ARGUMENT, null, null, arg);
+	}
+	
+	public void writeDebug(String template, double arg) {
+		logTemplate(LogLevel.DEBUG, template, DOUBLE_ARGUMENT, null, null, Double.doubleToRawLongBits(arg));
+	}
+	
+	private static void requireTemplate(String template) {
+		if (template == null)
+			throw new IllegalArgumentException("Template cannot be null");
+	}
+	
+	/**
+	 * Gets the buffer of the current thread where a template will be 
+	 * rendered. If the buffer is in use, for instance because an argument 
+	 * logs something in its toString method, a new buffer is returned.
+	 */
+	private static StringBuilder startMessage() {
+		StringBuilder buffer = messageBuffer.get();
+		
+		if (buffer.length() > 0)
+			return new StringBuilder(MESSAGE_BUFFER_SIZE);
+		
+		return buffer;
+	}
+	
+	/**
+	 * Renders and logs a template message, if its level is enabled. The 
+	 * arguments are passed as they are, so that no array or boxed number is
+	 * created for them.
+	 * 
+	 * @param		type Message level
+	 * @param		template Message template
+	 * @param		renderer Renders the arguments of the calling overload
+	 * @param		first First argument, or the argument array
+	 * @param		second Second argument
+	 * @param		number Number argument, with doubles given by their bits
+	 */
+	private void logTemplate(LogLevel type, String template, TemplateRenderer renderer, 
+							 Object first, Object second, long number) {
+		requireTemplate(template);
+		
+		if (!level.shouldDisplay(type) || !isAllowed(type, template))
 			return;
 		
-		logMessage.log("DEBUG", message);
+		StringBuilder message = startMessage();
+		
+		try {
+			renderer.render(templates.get(template), message, first, second, number);
+			log(type, message.toString());
+		}
+		finally {
+			releaseMessage(message);
+		}
+	}
+	
+	private static void releaseMessage(StringBuilder message) {
+		message.setLength(0);
+		
+		if ((message.capacity() > MAX_MESSAGE_BUFFER_SIZE) && (message == messageBuffer.get()))
+			messageBuffer.set(new StringBuilder(MESSAGE_BUFFER_SIZE));
+	}
+	
+	/**
+	 * Decides whether a message is kept by the sampling of its level and, if
+	 * it is, takes a token from the rate limit of the level, if it has one.
+	 * When messages with the same template or call site have been dropped by
+	 * the rate limit, it says so before the message is written.
+	 * 
+	 * @param		template Message template or null to use the call site
+	 */
+	private boolean isAllowed(LogLevel level, String template) {
+		if (!sampler.sample(level))
+			return false;
+		
+		long dropped = rateLimiter.tryAcquire(level, template);
+		
+		if (dropped > 0)
+			log(level, "Rate limit dropped " + dropped + " messages like the next one");
+		
+		return (dropped >= 0);
+	}
+	
+	private void log(LogLevel level, String message) {
+		RepeatFilter filter = repeatFilter;
+		
+		if (filter == null)
+			write(level, message);
+		else
+			filter.write(level, message);
+	}
+	
+	/**
+	 * Writes a message to the console sink and to the registered sinks whose
+	 * levels allow it, and keeps it in history.
+	 */
+	private void write(LogLevel level, String message) {
+		if (sinkLevel.shouldDisplay(level))
+			writeToSink(level, message);
+		
+		logSinks.write(level, message);
+		history.add(message);
+	}
+	
+	/**
+	 * Writes a message about the console itself whatever the logger level, 
+	 * so that it is not hidden by the configuration it is about.
+	 * 
+	 * @param		level Message level
+	 * @param		message Message
+	 */
+	void writeUnfiltered(LogLevel level, String message) {
+		writeToSink(level, message);
+		logSinks.write(level, message);
 		history.add(message);
 	}
 	
-	public void writeDebug(Class<?> source, String message) {
+	private void writeToSink(LogLevel level, String message) {
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
+		
+		if ((dispatcher == null) || !dispatcher.publish(level, message))
+			logMessage.log(level, message);
+	}
+	
+	public void writeError(Class<?> source, Object message) {
+		Source cached = getSource(source, message);
+		
+		if (!cached.level.shouldDisplayError() || !isAllowed(LogLevel.ERROR, null))
+			return;
+		
+		log(LogLevel.ERROR, cached.tag + message);
+	}
+	
+	public void writeWarning(Class<?> source, Object message) {
+		Source cached = getSource(source, message);
+		
+		if (!cached.level.shouldDisplayWarning() || !isAllowed(LogLevel.WARNING, null))
+			return;
+		
+		log(LogLevel.WARNING, cached.tag + message);
+	}
+	
+	public void writeInfo(Class<?> source, Object message) {
+		Source cached = getSource(source, message);
+		
+		if (!cached.level.shouldDisplayInfo() || !isAllowed(LogLevel.INFO, null))
+			return;
+		
+		log(LogLevel.INFO, cached.tag + message);
+	}
+	
+	public void writeDebug(Class<?> source, Object message) {
+		Source cached = getSource(source, message);
+		
+		if (!cached.level.shouldDisplayDebug() || !isAllowed(LogLevel.DEBUG, null))
+			return;
+		
+		log(LogLevel.DEBUG, cached.tag + message);
+	}
+	
+	private Source getSource(Class<?> source, Object message) {
 		if (source == null)
 			throw new IllegalArgumentException("Source class cannot be null");
 		
 		if (message == null)
 			throw new IllegalArgumentException("Message cannot be null");
 		
-		if (!level.shouldDisplayError())
+		return sources.get(source);
+	}
+	
+	/**
+	 * Creates a cache of the level and the tag of each source class. Levels 
+	 * are resolved only once per class, so a new cache is created whenever a
+	 * level changes.
+	 */
+	private static ClassValue<Source> createSourceCache(LevelTree levels) {
+		return new ClassValue<>() {
+			@Override
+			protected Source computeValue(Class<?> type) {
+				return new Source(levels.resolve(type.getName()), getClassName(type));
+			}
+		};
+	}
+	
+	private static String getClassName(Class<?> source) {
+		String name = source.getName();
+		
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+	
+	public synchronized void enableAsync(int capacity, WaitStrategy waitStrategy, 
+									   OverflowPolicy overflowPolicy) {
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(
+				capacity, 
+				waitStrategy, 
+				overflowPolicy, 
+				droppedMessages,
+				this::getSink
+		);
+		
+		disableAsync();
+		asyncDispatcher = dispatcher;
+	}
+	
+	public synchronized void disableAsync() {
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
+		
+		if (dispatcher == null)
 			return;
 		
-		writeDebug("{ " + getClassName(source) + " } " + message);
+		asyncDispatcher = null;
+		dispatcher.shutdown();
 	}
 	
-	private String getClassName(Class<?> source) {
-		String[] terms = source.getName().split("\\.");
+	public void flush() {
+		sampler.report();
+		
+		RepeatFilter filter = repeatFilter;
+		
+		if (filter != null)
+			filter.flush();
+		
+		AsyncLogDispatcher dispatcher = asyncDispatcher;
 		
-		return terms[terms.length-1]; 
+		if (dispatcher != null)
+			dispatcher.flush();
+		
+		logSinks.flush();
 	}
 	
-	public void dumpTo(Path output) {
+	public DumpResult dumpTo(Path output) {
 		if (output == null)
 			throw new IllegalArgumentException("Output cannot be null");
 		
-		history.dumpTo(output);
+		return history.dumpTo(output);
 	}
 	
 	
 	//-------------------------------------------------------------------------
 	//		Getters & Setters
 	//-------------------------------------------------------------------------
-	public void setLevel(LogLevel level) {
+	public synchronized void setLevel(LogLevel level) {
 		if (level == null)
 			throw new IllegalArgumentException("Level cannot be null");
 		
 		this.level = level;
+		levels.setDefaultLevel(level);
+		sources = createSourceCache(levels);
 	}
 
 	public LogLevel getLoggerLevel() {
 		return level;
 	}
+	
+	public synchronized void setLevel(String name, LogLevel level) {
+		validateName(name);
+		
+		if (level == null)
+			throw new IllegalArgumentException("Level cannot be null");
+		
+		levels.set(name, level);
+		sources = createSourceCache(levels);
+	}
+	
+	public synchronized void removeLevel(String name) {
+		validateName(name);
+		
+		levels.remove(name);
+		sources = createSourceCache(levels);
+	}
+	
+	/**
+	 * Replaces the global level and all levels set by name at once. Classes
+	 * see either the old levels or the new ones, never a mix of them.
+	 */
+	public synchronized void setLevels(LogLevel level, Map<String, LogLevel> levelsByName) {
+		if (level == null)
+			throw new IllegalArgumentException("Level cannot be null");
+		
+		LevelTree tree = new LevelTree(level);
+		
+		for (Map.Entry<String, LogLevel> entry : levelsByName.entrySet()) {
+			validateName(entry.getKey());
+			tree.set(entry.getKey(), entry.getValue());
+		}
+		
+		this.level = level;
+		levels = tree;
+		sources = createSourceCache(tree);
+	}
+	
+	private static void validateName(String name) {
+		if ((name == null) || name.isBlank())
+			throw new IllegalArgumentException("Name cannot be null or empty");
+	}
+	
+	public LogLevel getLoggerLevel(Class<?> source) {
+		if (source == null)
+			throw new IllegalArgumentException("Source class cannot be null");
+		
+		return sources.get(source).level;
+	}
+	
+	public void setSink(OutputSink sink) {
+		if (sink == null)
+			throw new IllegalArgumentException("Sink cannot be null");
+		
+		flush();
+		this.sink = sink;
+		logMessage.setSink(sink);
+	}
+	
+	private OutputSink getSink() {
+		return sink;
+	}
+	
+	public void setSinkLevel(LogLevel level) {
+		if (level == null)
+			throw new IllegalArgumentException("Level cannot be null");
+		
+		sinkLevel = level;
+	}
+	
+	public LogLevel getSinkLevel() {
+		return sinkLevel;
+	}
+	
+	public void addSink(String name, OutputSink sink, LogLevel level) {
+		validateSink(name, sink, level);
+		logSinks.add(name, sink, level);
+	}
+	
+	public void addSink(String name, OutputSink sink, LogLevel level, int capacity, 
+						WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		validateSink(name, sink, level);
+		logSinks.add(name, sink, level, capacity, waitStrategy, overflowPolicy);
+	}
+	
+	private static void validateSink(String name, OutputSink sink, LogLevel level) {
+		validateName(name);
+		
+		if (sink == null)
+			throw new IllegalArgumentException("Sink cannot be null");
+		
+		if (level == null)
+			throw new IllegalArgumentException("Level cannot be null");
+	}
+	
+	public void removeSink(String name) {
+		validateName(name);
+		logSinks.remove(name);
+	}
+	
+	public long getSinkFailures(String name) {
+		validateName(name);
+		
+		return logSinks.getFailures(name);
+	}
+	
+	public long getDroppedMessages(String sinkName) {
+		validateName(sinkName);
+		
+		return logSinks.getDroppedMessages(sinkName);
+	}
+	
+	public boolean isErrorEnabled() {
+		return level.shouldDisplayError();
+	}
+	
+	public boolean isWarningEnabled() {
+		return level.shouldDisplayWarning();
+	}
+	
+	public boolean isInfoEnabled() {
+		return level.shouldDisplayInfo();
+	}
+	
+	public boolean isDebugEnabled() {
+		return level.shouldDisplayDebug();
+	}
+	
+	public boolean isAsync() {
+		return (asyncDispatcher != null);
+	}
+	
+	public long getDroppedMessages() {
+		return droppedMessages.getTotal();
+	}
+	
+	public long getDroppedMessages(LogLevel level) {
+		return droppedMessages.get(level);
+	}
+	
+	public synchronized void setDuplicateSuppression(boolean enabled) {
+		RepeatFilter filter = repeatFilter;
+		
+		if (enabled == (filter != null))
+			return;
+		
+		if (enabled) {
+			RepeatFilter created = new RepeatFilter(this::write, REPEAT_REPORT_INTERVAL.toNanos());
+			
+			created.startReports();
+			repeatFilter = created;
+		}
+		else {
+			repeatFilter = null;
+			filter.stopReports();
+		}
+	}
+	
+	public boolean isDuplicateSuppression() {
+		return (repeatFilter != null);
+	}
+	
+	public void setRateLimit(LogLevel level, int messagesPerSecond, int burst) {
+		validateMessageLevel(level);
+		
+		if (messagesPerSecond <= 0)
+			throw new IllegalArgumentException("Messages per second must be positive");
+		
+		if (burst <= 0)
+			throw new IllegalArgumentException("Burst must be positive");
+		
+		rateLimiter.setLimit(level, messagesPerSecond, burst);
+	}
+	
+	public void removeRateLimit(LogLevel level) {
+		validateMessageLevel(level);
+		
+		rateLimiter.removeLimit(level);
+	}
+	
+	private static void validateMessageLevel(LogLevel level) {
+		if ((level == null) || (level == LogLevel.OFF))
+			throw new IllegalArgumentException("Level cannot be null or OFF");
+	}
+	
+	public long getRateLimitedMessages(LogLevel level) {
+		return rateLimitedMessages.get(level);
+	}
+	
+	public void setSampling(LogLevel level, double probability) {
+		validateMessageLevel(level);
+		
+		if (!(probability > 0) || (probability > 1))
+			throw new IllegalArgumentException("Probability must be greater than 0 and at most 1");
+		
+		sampler.setProbability(level, probability);
+	}
+	
+	public void setSampling(LogLevel level, int oneInN) {
+		if (oneInN <= 0)
+			throw new IllegalArgumentException("One in N must be positive");
+		
+		setSampling(level, 1.0 / oneInN);
+	}
+	
+	public void removeSampling(LogLevel level) {
+		validateMessageLevel(level);
+		
+		sampler.setProbability(level, 1);
+	}
+	
+	public long getSampledOutMessages(LogLevel level) {
+		return sampledOutMessages.get(level);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Renders the arguments of one of the template overloads.
+	 */
+	@FunctionalInterface
+	private interface TemplateRenderer {
+		
+		void render(MessageTemplate template, StringBuilder output, Object first, 
+					Object second, long number);
+	}
+	
+	/**
+	 * Level of a source class and the tag put before its messages.
+	 */
+	private static class Source {
+		
+		private final LogLevel level;
+		private final String tag;
+		
+		Source(LogLevel level, String className) {
+			this.level = level;
+			this.tag = "{ " + className + " } ";
+		}
+	}
 }
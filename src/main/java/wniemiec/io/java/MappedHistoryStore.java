@@ -0,0 +1,481 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * History store that appends entries to memory-mapped segment files. Each 
+ * entry is written as a record made up of its length followed by its UTF-8
+ * bytes. When a segment is full, a new one is created, and when the total 
+ * size of the segments exceeds the disk limit, the oldest segment is 
+ * deleted. Only a small index is kept on the heap: the first entry of each
+ * segment and the position of every 64th record of it.
+ * 
+ * <p>Segment files are deleted when the store is closed. Directories of
+ * stores that are still open when the JVM exits are deleted by a shutdown
+ * hook.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class MappedHistoryStore implements HistoryStore {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+	static final long DEFAULT_MAX_DISK_USAGE = 1024L * 1024 * 1024;
+	static final int DEFAULT_CAPACITY = 10_000_000;
+	private static final int RECORD_HEADER_SIZE = Integer.BYTES;
+	private static final int MIN_SEGMENTS = 2;
+	private static final Set<Path> OPEN_DIRECTORIES = registerShutdownHook();
+	private final Path directory;
+	private final int segmentSize;
+	private final int maxSegments;
+	private final List<Segment> segments;
+	private long nextSegmentNumber;
+	private long oldestEntry;
+	private long nextEntry;
+	private int oldestPosition;
+	private long liveBytes;
+	private int capacity;
+	private long maxBytes;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a history store in a new directory inside the given one.
+	 * 
+	 * @param		parent Directory where the history directory will be 
+	 * created
+	 * @param		segmentSize Size of each segment file, in bytes
+	 * @param		maxDiskUsage Maximum size of all segment files together
+	 * @param		capacity Maximum number of entries
+	 * @param		maxBytes Maximum size of the stored entries
+	 * 
+	 * @throws		IllegalArgumentException If parent is null, if segment 
+	 * size or max disk usage is not positive
+	 * @throws		UncheckedIOException If history directory cannot be 
+	 * created
+	 */
+	MappedHistoryStore(Path parent, int segmentSize, long maxDiskUsage, 
+					   int capacity, long maxBytes) {
+		if (parent == null)
+			throw new IllegalArgumentException("Directory cannot be null");
+		
+		if (segmentSize <= RECORD_HEADER_SIZE)
+			throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+		
+		if (maxDiskUsage <= 0)
+			throw new IllegalArgumentException("Max disk usage must be positive");
+		
+		this.directory = createDirectory(parent);
+		OPEN_DIRECTORIES.add(directory);
+		this.segmentSize = segmentSize;
+		this.maxSegments = (int) Math.max(MIN_SEGMENTS, maxDiskUsage / segmentSize);
+		this.segments = new ArrayList<>();
+		this.capacity = capacity;
+		this.maxBytes = maxBytes;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	private static Set<Path> registerShutdownHook() {
+		Set<Path> directories = ConcurrentHashMap.newKeySet();
+		
+		Runtime.getRuntime().addShutdownHook(new Thread(
+				() -> directories.forEach(MappedHistoryStore::deleteDirectory), 
+				"consolex-history-cleanup"
+		));
+		
+		return directories;
+	}
+	
+	/**
+	 * Deletes a history directory and its segment files.
+	 */
+	private static void deleteDirectory(Path directory) {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+			
+			Files.deleteIfExists(directory);
+		} 
+		catch (IOException e) {
+			// The JVM is exiting, so files that cannot be deleted are left.
+		}
+	}
+	
+	private static Path createDirectory(Path parent) {
+		try {
+			Files.createDirectories(parent);
+			
+			return Files.createTempDirectory(parent, "consolex-history-");
+		} 
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void add(String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		int recordSize = RECORD_HEADER_SIZE + bytes.length;
+		
+		while ((size() == capacity) || ((size() > 0) && (liveBytes + recordSize > maxBytes))) {
+			evictOldest();
+		}
+		
+		Segment current = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+		
+		if ((current == null) || !current.fits(recordSize))
+			current = rotate(recordSize);
+		
+		current.append(bytes);
+		nextEntry++;
+		liveBytes += recordSize;
+	}
+	
+	private Segment rotate(int recordSize) {
+		Path file = directory.resolve(String.format("history-%06d.seg", nextSegmentNumber++));
+		Segment segment = new Segment(file, Math.max(segmentSize, recordSize), nextEntry);
+		
+		if (segments.isEmpty() || isFullyEvicted(segments.get(0)))
+			oldestPosition = 0;
+		
+		removeFullyEvictedSegments();
+		segments.add(segment);
+		
+		while (segments.size() > maxSegments) {
+			dropOldestSegment();
+		}
+		
+		return segment;
+	}
+	
+	private boolean isFullyEvicted(Segment segment) {
+		return (oldestEntry >= segment.getFirstEntry() + segment.getCount());
+	}
+	
+	private void removeFullyEvictedSegments() {
+		while (!segments.isEmpty() && isFullyEvicted(segments.get(0))) {
+			segments.remove(0).delete();
+		}
+	}
+	
+	private void dropOldestSegment() {
+		Segment oldest = segments.remove(0);
+		
+		liveBytes -= oldest.getWritePosition() - oldestPosition;
+		oldestEntry = Math.max(oldestEntry, oldest.getFirstEntry() + oldest.getCount());
+		oldestPosition = 0;
+		oldest.delete();
+	}
+	
+	private void evictOldest() {
+		Segment oldest = segments.get(0);
+		int recordSize = oldest.getRecordSize(oldestPosition);
+		
+		liveBytes -= recordSize;
+		oldestPosition += recordSize;
+		oldestEntry++;
+		
+		if (isFullyEvicted(oldest) && (segments.size() > 1)) {
+			segments.remove(0).delete();
+			oldestPosition = 0;
+		}
+	}
+	
+	@Override
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.delete();
+		}
+		
+		segments.clear();
+		oldestEntry = nextEntry;
+		oldestPosition = 0;
+		liveBytes = 0;
+	}
+	
+	@Override
+	public void close() {
+		clear();
+		
+		try {
+			Files.deleteIfExists(directory);
+			OPEN_DIRECTORIES.remove(directory);
+		} 
+		catch (IOException e) {
+			// Segments that could not be deleted yet keep the directory, 
+			// which is deleted again at exit
+		}
+	}
+	
+	@Override
+	public long writeTo(WritableByteChannel channel, int from, int to) 
+			throws IOException {
+		ByteBuffer lineSeparator = ByteBuffer.wrap(
+				System.lineSeparator().getBytes(StandardCharsets.UTF_8)
+		);
+		long written = 0;
+		
+		for (RecordCursor cursor = new RecordCursor(from); cursor.getIndex() < to; cursor.next()) {
+			written += HistoryStore.writeFully(channel, cursor.getRecord());
+			written += HistoryStore.writeFully(channel, lineSeparator.rewind());
+		}
+		
+		return written;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters & Setters
+	//-------------------------------------------------------------------------
+	@Override
+	public List<String> getEntries(int from, int to) {
+		List<String> entries = new ArrayList<>(to - from);
+		
+		for (RecordCursor cursor = new RecordCursor(from); cursor.getIndex() < to; cursor.next()) {
+			entries.add(StandardCharsets.UTF_8.decode(cursor.getRecord()).toString());
+		}
+		
+		return entries;
+	}
+	
+	@Override
+	public int size() {
+		return (int) (nextEntry - oldestEntry);
+	}
+	
+	@Override
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+		
+		while (size() > capacity) {
+			evictOldest();
+		}
+	}
+	
+	@Override
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		
+		while ((size() > 1) && (liveBytes > maxBytes)) {
+			evictOldest();
+		}
+	}
+	
+	/**
+	 * Gets the amount of bytes used by stored records. The heap footprint of 
+	 * this store is much smaller than that.
+	 * 
+	 * @return		Retained bytes
+	 */
+	@Override
+	public long getRetainedBytes() {
+		return liveBytes;
+	}
+	
+	Path getDirectory() {
+		return directory;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Iterates over records, starting from a history index.
+	 */
+	private class RecordCursor {
+		
+		private int index;
+		private int segmentIndex;
+		private int position;
+		
+		RecordCursor(int index) {
+			long entry = oldestEntry + index;
+			
+			this.index = index;
+			
+			if (index >= size())
+				return;
+			
+			segmentIndex = findSegment(entry);
+			
+			Segment segment = segments.get(segmentIndex);
+			
+			position = (segmentIndex == 0) && (entry == oldestEntry)
+					? oldestPosition
+					: segment.positionOf((int) (entry - segment.getFirstEntry()));
+		}
+		
+		private int findSegment(long entry) {
+			int low = 0;
+			int high = segments.size() - 1;
+			
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+				
+				if (segments.get(middle).getFirstEntry() <= entry)
+					low = middle;
+				else
+					high = middle - 1;
+			}
+			
+			return low;
+		}
+		
+		ByteBuffer getRecord() {
+			return segments.get(segmentIndex).getRecord(position);
+		}
+		
+		void next() {
+			Segment segment = segments.get(segmentIndex);
+			
+			position += segment.getRecordSize(position);
+			index++;
+			
+			if ((position >= segment.getWritePosition()) && (segmentIndex + 1 < segments.size())) {
+				segmentIndex++;
+				position = 0;
+			}
+		}
+		
+		int getIndex() {
+			return index;
+		}
+	}
+	
+	/**
+	 * Memory-mapped segment file.
+	 */
+	private static class Segment {
+		
+		private static final int CHECKPOINT_INTERVAL = 64;
+		private final Path file;
+		private final MappedByteBuffer buffer;
+		private final long firstEntry;
+		private int[] checkpoints;
+		private int count;
+		private int writePosition;
+		
+		Segment(Path file, int size, long firstEntry) {
+			this.file = file;
+			this.buffer = map(file, size);
+			this.firstEntry = firstEntry;
+			this.checkpoints = new int[16];
+		}
+		
+		private static MappedByteBuffer map(Path file, int size) {
+			try (FileChannel channel = FileChannel.open(
+					file, 
+					StandardOpenOption.CREATE_NEW, 
+					StandardOpenOption.READ, 
+					StandardOpenOption.WRITE
+			)) {
+				return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			} 
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		boolean fits(int recordSize) {
+			return (writePosition + recordSize <= buffer.capacity());
+		}
+		
+		void append(byte[] bytes) {
+			if (count % CHECKPOINT_INTERVAL == 0)
+				addCheckpoint();
+			
+			buffer.putInt(writePosition, bytes.length);
+			buffer.position(writePosition + RECORD_HEADER_SIZE);
+			buffer.put(bytes);
+			writePosition += RECORD_HEADER_SIZE + bytes.length;
+			count++;
+		}
+		
+		private void addCheckpoint() {
+			int checkpoint = count / CHECKPOINT_INTERVAL;
+			
+			if (checkpoint == checkpoints.length)
+				checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+			
+			checkpoints[checkpoint] = writePosition;
+		}
+		
+		int positionOf(int index) {
+			int position = checkpoints[index / CHECKPOINT_INTERVAL];
+			
+			for (int i = 0; i < index % CHECKPOINT_INTERVAL; i++) {
+				position += getRecordSize(position);
+			}
+			
+			return position;
+		}
+		
+		int getRecordSize(int position) {
+			return RECORD_HEADER_SIZE + buffer.getInt(position);
+		}
+		
+		ByteBuffer getRecord(int position) {
+			ByteBuffer record = buffer.duplicate();
+			int start = position + RECORD_HEADER_SIZE;
+			
+			record.limit(start + buffer.getInt(position));
+			record.position(start);
+			
+			return record;
+		}
+		
+		void delete() {
+			try {
+				Files.deleteIfExists(file);
+			} 
+			catch (IOException e) {
+				// Some platforms do not allow deleting a file while it is 
+				// mapped, so it is deleted when the JVM exits.
+				file.toFile().deleteOnExit();
+			}
+		}
+		
+		long getFirstEntry() {
+			return firstEntry;
+		}
+		
+		int getCount() {
+			return count;
+		}
+		
+		int getWritePosition() {
+			return writePosition;
+		}
+	}
+}
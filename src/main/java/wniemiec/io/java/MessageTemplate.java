@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.Arrays;
+
+/**
+ * Pre-parsed message template, where each <code>{}</code> is replaced by an
+ * argument. Arguments are rendered straight into a buffer, without building
+ * intermediate strings. Missing arguments leave <code>{}</code> untouched, 
+ * and extra arguments are ignored.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class MessageTemplate {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final String PLACEHOLDER = "{}";
+	private final String template;
+	private final int[] placeholders;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private MessageTemplate(String template, int[] placeholders) {
+		this.template = template;
+		this.placeholders = placeholders;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Parses a template.
+	 * 
+	 * @param		template Template with <code>{}</code> placeholders
+	 * 
+	 * @return		Parsed template
+	 */
+	static MessageTemplate parse(String template) {
+		int[] placeholders = new int[4];
+		int total = 0;
+		int index = template.indexOf(PLACEHOLDER);
+		
+		while (index >= 0) {
+			if (total == placeholders.length)
+				placeholders = Arrays.copyOf(placeholders, total * 2);
+			
+			placeholders[total++] = index;
+			index = template.indexOf(PLACEHOLDER, index + PLACEHOLDER.length());
+		}
+		
+		return new MessageTemplate(template, Arrays.copyOf(placeholders, total));
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	void render(StringBuilder output, Object arg) {
+		int start = appendUntilPlaceholder(output, 0, 0);
+		
+		if (placeholders.length > 0) {
+			appendArgument(output, arg);
+			start = placeholders[0] + PLACEHOLDER.length();
+		}
+		
+		appendRemaining(output, start);
+	}
+	
+	void render(StringBuilder output, long arg) {
+		int start = appendUntilPlaceholder(output, 0, 0);
+		
+		if (placeholders.length > 0) {
+			output.append(arg);
+			start = placeholders[0] + PLACEHOLDER.length();
+		}
+		
+		appendRemaining(output, start);
+	}
+	
+	void render(StringBuilder output, double arg) {
+		int start = appendUntilPlaceholder(output, 0, 0);
+		
+		if (placeholders.length > 0) {
+			output.append(arg);
+			start = placeholders[0] + PLACEHOLDER.length();
+		}
+		
+		appendRemaining(output, start);
+	}
+	
+	void render(StringBuilder output, Object first, Object second) {
+		int start = 0;
+		
+		for (int i = 0; (i < placeholders.length) && (i < 2); i++) {
+			appendUntilPlaceholder(output, start, i);
+			appendArgument(output, (i == 0) ? first : second);
+			start = placeholders[i] + PLACEHOLDER.length();
+		}
+		
+		appendRemaining(output, start);
+	}
+	
+	void render(StringBuilder output, Object[] args) {
+		int start = 0;
+		int total = (args == null) ? 0 : Math.min(args.length, placeholders.length);
+		
+		for (int i = 0; i < total; i++) {
+			appendUntilPlaceholder(output, start, i);
+			appendArgument(output, args[i]);
+			start = placeholders[i] + PLACEHOLDER.length();
+		}
+		
+		appendRemaining(output, start);
+	}
+	
+	private int appendUntilPlaceholder(StringBuilder output, int start, int placeholder) {
+		int end = (placeholder < placeholders.length) ? placeholders[placeholder] : template.length();
+		
+		output.append(template, start, end);
+		
+		return end;
+	}
+	
+	private void appendRemaining(StringBuilder output, int start) {
+		if (start < template.length())
+			output.append(template, start, template.length());
+	}
+	
+	private static void appendArgument(StringBuilder output, Object arg) {
+		if (arg instanceof Object[])
+			output.append(Arrays.deepToString((Object[]) arg));
+		else
+			output.append(arg);
+	}
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * History store that keeps entries as UTF-8 bytes in an arena of direct 
+ * buffer segments. Entries are laid out one after the other in a single 
+ * logical byte stream, which may span segments, and a circular 
+ * <code>long[]</code> index holds the stream offset where each entry 
+ * starts. Segments that only contain evicted entries are recycled.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class OffHeapHistoryStore implements HistoryStore {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int SEGMENT_SIZE = 1024 * 1024;
+	private static final int MAX_SPARE_SEGMENTS = 2;
+	private static final int INITIAL_SIZE = 1024;
+	private static final int INDEX_ENTRY_SIZE = Long.BYTES;
+	private final List<ByteBuffer> segments;
+	private final Deque<ByteBuffer> spareSegments;
+	private long[] offsets;
+	private int head;
+	private int size;
+	private int capacity;
+	private long maxBytes;
+	private long baseOffset;
+	private long writeOffset;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	OffHeapHistoryStore(int capacity, long maxBytes) {
+		this.segments = new ArrayList<>();
+		this.spareSegments = new ArrayDeque<>();
+		this.offsets = new long[Math.min(INITIAL_SIZE, capacity)];
+		this.capacity = capacity;
+		this.maxBytes = maxBytes;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	@Override
+	public void add(String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		long contentBytes = bytes.length + INDEX_ENTRY_SIZE;
+		
+		while ((size == capacity) || ((size > 0) && (getRetainedBytes() + contentBytes > maxBytes))) {
+			evictOldest();
+		}
+		
+		releaseUnusedSegments();
+		
+		if (size == offsets.length)
+			grow();
+		
+		offsets[indexOf(size)] = writeOffset;
+		size++;
+		append(bytes);
+	}
+	
+	private void append(byte[] bytes) {
+		int written = 0;
+		
+		while (written < bytes.length) {
+			if (writeOffset == baseOffset + (long) segments.size() * SEGMENT_SIZE)
+				segments.add(newSegment());
+			
+			ByteBuffer segment = segments.get(segments.size() - 1);
+			int position = (int) (writeOffset % SEGMENT_SIZE);
+			int amount = Math.min(bytes.length - written, SEGMENT_SIZE - position);
+			
+			segment.clear().position(position);
+			segment.put(bytes, written, amount);
+			written += amount;
+			writeOffset += amount;
+		}
+	}
+	
+	private ByteBuffer newSegment() {
+		ByteBuffer segment = spareSegments.pollFirst();
+		
+		return (segment == null) ? ByteBuffer.allocateDirect(SEGMENT_SIZE) : segment;
+	}
+	
+	private void evictOldest() {
+		head = (head + 1) % offsets.length;
+		size--;
+	}
+	
+	private void releaseUnusedSegments() {
+		long oldestOffset = getOldestOffset();
+		
+		while (!segments.isEmpty() && (baseOffset + SEGMENT_SIZE <= oldestOffset)) {
+			ByteBuffer segment = segments.remove(0);
+			
+			if (spareSegments.size() < MAX_SPARE_SEGMENTS)
+				spareSegments.addLast(segment);
+			
+			baseOffset += SEGMENT_SIZE;
+		}
+	}
+	
+	private long getOldestOffset() {
+		return (size == 0) ? writeOffset : offsets[head];
+	}
+	
+	private void grow() {
+		relocate((int) Math.min((long) offsets.length * 2, capacity));
+	}
+	
+	private void relocate(int newLength) {
+		long[] newOffsets = new long[newLength];
+		
+		for (int i = 0; i < size; i++) {
+			newOffsets[i] = offsets[indexOf(i)];
+		}
+		
+		offsets = newOffsets;
+		head = 0;
+	}
+	
+	private int indexOf(int position) {
+		return (head + position) % offsets.length;
+	}
+	
+	private String read(int position) {
+		long start = offsets[indexOf(position)];
+		long end = (position + 1 < size) ? offsets[indexOf(position + 1)] : writeOffset;
+		byte[] bytes = new byte[(int) (end - start)];
+		int read = 0;
+		
+		while (read < bytes.length) {
+			long offset = start + read;
+			ByteBuffer segment = getSegment(offset);
+			int segmentPosition = (int) (offset % SEGMENT_SIZE);
+			int amount = Math.min(bytes.length - read, SEGMENT_SIZE - segmentPosition);
+			
+			segment.clear().position(segmentPosition);
+			segment.get(bytes, read, amount);
+			read += amount;
+		}
+		
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Writes the stored bytes of entries, as they are laid out in the 
+	 * segments, so that entries are not decoded and encoded again.
+	 */
+	@Override
+	public long writeTo(WritableByteChannel channel, int from, int to) 
+			throws IOException {
+		ByteBuffer lineSeparator = ByteBuffer.wrap(
+				System.lineSeparator().getBytes(StandardCharsets.UTF_8)
+		);
+		long written = 0;
+		
+		for (int i = from; i < to; i++) {
+			long start = offsets[indexOf(i)];
+			long end = (i + 1 < size) ? offsets[indexOf(i + 1)] : writeOffset;
+			
+			for (long offset = start; offset < end; ) {
+				ByteBuffer segment = getSegment(offset);
+				int segmentPosition = (int) (offset % SEGMENT_SIZE);
+				int amount = (int) Math.min(end - offset, SEGMENT_SIZE - segmentPosition);
+				
+				segment.clear().position(segmentPosition).limit(segmentPosition + amount);
+				written += HistoryStore.writeFully(channel, segment);
+				offset += amount;
+			}
+			
+			written += HistoryStore.writeFully(channel, lineSeparator.rewind());
+		}
+		
+		return written;
+	}
+	
+	private ByteBuffer getSegment(long offset) {
+		return segments.get((int) ((offset - baseOffset) / SEGMENT_SIZE));
+	}
+	
+	@Override
+	public void clear() {
+		head = 0;
+		size = 0;
+		releaseUnusedSegments();
+	}
+	
+	@Override
+	public void close() {
+		clear();
+		segments.clear();
+		spareSegments.clear();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters & Setters
+	//-------------------------------------------------------------------------
+	@Override
+	public List<String> getEntries(int from, int to) {
+		List<String> entries = new ArrayList<>(to - from);
+		
+		for (int i = from; i < to; i++) {
+			entries.add(read(i));
+		}
+		
+		return entries;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+		
+		while (size > capacity) {
+			evictOldest();
+		}
+		
+		if (offsets.length > capacity)
+			relocate(capacity);
+		
+		releaseUnusedSegments();
+	}
+	
+	@Override
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		
+		while ((size > 1) && (getRetainedBytes() > maxBytes)) {
+			evictOldest();
+		}
+		
+		releaseUnusedSegments();
+	}
+	
+	/**
+	 * Gets the amount of bytes used by stored entries and by their index 
+	 * entries.
+	 * 
+	 * @return		Retained bytes
+	 */
+	@Override
+	public long getRetainedBytes() {
+		return (writeOffset - getOldestOffset()) + (long) size * INDEX_ENTRY_SIZE;
+	}
+}
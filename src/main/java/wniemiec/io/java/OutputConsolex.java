@@ -7,10 +7,29 @@
 
 package wniemiec.io.java;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Responsible for console output.
@@ -24,19 +43,31 @@ class OutputConsolex {
 	//-------------------------------------------------------------------------
 	private static final int MARGIN_LEFT = 5;
 	private static final int DIV_WIDTH = 80;
+	private static final int DEFAULT_FILE_BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_BATCH_SIZE = 64 * 1024;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final Duration FOLLOW_POLL_INTERVAL = Duration.ofMillis(500);
+	private static final Duration CONFIGURATION_POLL_INTERVAL = Duration.ofSeconds(2);
+	private static final LineIndexCache lineIndexes = new LineIndexCache();
 	private static final String DIV_SYMBOL = "-";
 	private HistoryConsolex history;
 	private LoggerConsolex logger;
-	private int marginLeft;
+	private volatile OutputSink sink;
+	private volatile String margin;
 	
 	
 	//-------------------------------------------------------------------------
 	//		Constructor
 	//-------------------------------------------------------------------------
 	public OutputConsolex() {
-		marginLeft = 0;
+		this(PrintStreamSink.systemOut());
+	}
+	
+	public OutputConsolex(OutputSink sink) {
+		this.margin = "";
+		this.sink = sink;
 		history = new HistoryConsolex();
-		logger = new LoggerConsolex(history);
+		logger = new LoggerConsolex(history, sink);
 	}
 
 	
@@ -46,12 +77,14 @@ class OutputConsolex {
 	public void writeLine(Object line) {
 		final String finalString = addMargin(line.toString());
 		
-		System.out.println(finalString);
+		sink.writeLine(finalString);
 		history.add(finalString);
 	}
 
 	private String addMargin(String line) {
-		return buildMargin(marginLeft) + line;
+		String currentMargin = margin;
+		
+		return currentMargin.isEmpty() ? line : currentMargin + line;
 	}
 
 	static String buildMargin(int width) {
@@ -64,44 +97,307 @@ class OutputConsolex {
 	}
 	
 	public void writeLines(Object... lines) {
-		for (Object line : lines)
-			writeLine(line);
+		writeLines(Arrays.asList(lines));
 	}
 
 	public void writeLines(List<String> lines) {
-		for (Object line : lines)
-			writeLine(line);
+		writeLines((Iterable<String>) lines);
+	}
+	
+	public void writeLines(Iterable<?> lines) {
+		if (lines == null)
+			throw new IllegalArgumentException("Lines cannot be null");
+		
+		writeBatch(lines.iterator());
+	}
+	
+	public void writeLines(Stream<?> lines) {
+		if (lines == null)
+			throw new IllegalArgumentException("Lines cannot be null");
+		
+		writeBatch(lines.iterator());
+	}
+	
+	/**
+	 * Joins lines into batches of up to {@value #MAX_BATCH_SIZE} characters, 
+	 * so that each batch is a single sink write and a single history append.
+	 */
+	private void writeBatch(Iterator<?> lines) {
+		String currentMargin = margin;
+		boolean keepHistory = history.isEnabled();
+		StringBuilder batch = new StringBuilder();
+		List<String> entries = new ArrayList<>();
+		int batchLines = 0;
+		
+		while (lines.hasNext()) {
+			String line = lines.next().toString();
+			
+			if (batchLines > 0)
+				batch.append(LINE_SEPARATOR);
+			
+			batch.append(currentMargin).append(line);
+			batchLines++;
+			
+			if (keepHistory)
+				entries.add(currentMargin.isEmpty() ? line : currentMargin + line);
+			
+			if (batch.length() >= MAX_BATCH_SIZE) {
+				writeBatch(batch, entries);
+				batchLines = 0;
+			}
+		}
+		
+		if (batchLines > 0)
+			writeBatch(batch, entries);
+	}
+	
+	private void writeBatch(StringBuilder batch, List<String> entries) {
+		sink.writeLine(batch);
+		history.addAll(entries);
+		batch.setLength(0);
+		entries.clear();
 	}
 
 	public void write(Object obj) {
 		final String finalString = addMargin(obj.toString());
 		
-		System.out.print(finalString);
+		sink.write(finalString);
 		history.add(finalString);
 	}
 
-	public void writeFileLines(Path testFile) throws IOException {
-		List<String> fileContent = Files.readAllLines(normalize(testFile));
+	public void writeFileLines(Path file) throws IOException {
+		writeFileLines(file, StandardCharsets.UTF_8, DEFAULT_FILE_BUFFER_SIZE);
+	}
+	
+	public void writeFileLines(Path file, Charset charset) throws IOException {
+		writeFileLines(file, charset, DEFAULT_FILE_BUFFER_SIZE);
+	}
+	
+	public void writeFileLines(Path file, Charset charset, int bufferSize) 
+			throws IOException {
+		validateFileArguments(file, charset, bufferSize);
+		
+		if (margin.isEmpty() && FileLines.isAsciiCompatible(charset) 
+				&& transferFileLines(file, charset)) {
+			return;
+		}
 		
-		for (String line : fileContent) {
-			writeLine(line);
+		try (BufferedReader reader = openFile(file, charset, bufferSize)) {
+			String line;
+			
+			while ((line = reader.readLine()) != null) {
+				writeLine(line);
+			}
 		}
 	}
+	
+	/**
+	 * Copies the bytes of a file to the sink, without decoding and re-encoding
+	 * its lines, so they reach the sink unchanged, even if malformed. If 
+	 * history is enabled, it is filled by a separate scan of the file, which
+	 * decodes the lines and reports malformed input as the regular path does,
+	 * keeping in history only the lines before it.
+	 * 
+	 * @return		False if the sink cannot copy bytes with the charset, in
+	 * which case nothing is written
+	 */
+	private boolean transferFileLines(Path file, Charset charset) throws IOException {
+		try (FileChannel channel = FileChannel.open(normalize(file), StandardOpenOption.READ)) {
+			if (!sink.transferFrom(channel, charset))
+				return false;
+			
+			if (!FileLines.endsWithLineBreak(channel))
+				sink.writeLine("");
+			
+			if (history.isEnabled())
+				FileLines.forEachLine(channel, charset, history::add);
+		}
+		
+		return true;
+	}
+	
+	private void validateFileArguments(Path file, Charset charset, int bufferSize) {
+		if (file == null)
+			throw new IllegalArgumentException("File cannot be null");
+		
+		if (charset == null)
+			throw new IllegalArgumentException("Charset cannot be null");
+		
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException("Buffer size must be positive");
+	}
+	
+	private BufferedReader openFile(Path file, Charset charset, int bufferSize) 
+			throws IOException {
+		// Malformed input is reported, as Files.readAllLines does
+		return new BufferedReader(
+				new InputStreamReader(
+						Files.newInputStream(normalize(file)), 
+						charset.newDecoder()
+				), 
+				bufferSize
+		);
+	}
 
 	private Path normalize(Path file) {
 		return file.normalize().toAbsolutePath();
 	}
 
-	public void writeFileLinesWithEnumeration(Path testFile) throws IOException {
-		List<String> fileContent = Files.readAllLines(normalize(testFile));
+	public void writeFileLinesWithEnumeration(Path file) throws IOException {
+		writeFileLinesWithEnumeration(file, StandardCharsets.UTF_8, DEFAULT_FILE_BUFFER_SIZE);
+	}
+	
+	public void writeFileLinesWithEnumeration(Path file, Charset charset) 
+			throws IOException {
+		writeFileLinesWithEnumeration(file, charset, DEFAULT_FILE_BUFFER_SIZE);
+	}
+	
+	public void writeFileLinesWithEnumeration(Path file, Charset charset, int bufferSize) 
+			throws IOException {
+		validateFileArguments(file, charset, bufferSize);
+		
+		try (BufferedReader reader = openFile(file, charset, bufferSize)) {
+			String line;
+			long lineNumber = 1;
+			
+			while ((line = reader.readLine()) != null) {
+				writeLineWithEnumeration(line, lineNumber++);
+			}
+		}
+	}
+
+	public void writeFileLines(Path file, long fromLine, long toLine) 
+			throws IOException {
+		writeFileLineRange(file, fromLine, toLine, false);
+	}
+	
+	public void writeFileLinesWithEnumeration(Path file, long fromLine, long toLine) 
+			throws IOException {
+		writeFileLineRange(file, fromLine, toLine, true);
+	}
+	
+	/**
+	 * Writes a range of lines of a UTF-8 file. The first line is located 
+	 * through a cached line index, so only the lines in the range are read 
+	 * once the index exists.
+	 */
+	private void writeFileLineRange(Path file, long fromLine, long toLine, 
+									boolean enumerate) 
+			throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("File cannot be null");
+		
+		if ((fromLine < 1) || (toLine < fromLine))
+			throw new IllegalArgumentException("Invalid line range: [" + fromLine + ", " + toLine + "]");
+		
+		Path path = normalize(file);
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			LineIndex index = lineIndexes.get(path, channel);
+			long lastLine = Math.min(toLine, index.getLineCount());
+			
+			if (fromLine > lastLine)
+				return;
+			
+			channel.position(index.getLineOffset(channel, fromLine - 1));
+			
+			BufferedReader reader = new BufferedReader(
+					Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1), 
+					DEFAULT_FILE_BUFFER_SIZE
+			);
+			String line;
+			
+			for (long lineNumber = fromLine; lineNumber <= lastLine; lineNumber++) {
+				if ((line = reader.readLine()) == null)
+					break;
+				
+				if (enumerate)
+					writeLineWithEnumeration(line, lineNumber);
+				else
+					writeLine(line);
+			}
+		}
+	}
+
+	public void writeFileLines(Path file, Predicate<String> filter) 
+			throws IOException {
+		writeMatchingFileLines(file, toFilterSupplier(filter), (line, lineNumber) -> writeLine(line));
+	}
+	
+	public void writeFileLines(Path file, Pattern regex) throws IOException {
+		writeMatchingFileLines(file, toFilterSupplier(regex), (line, lineNumber) -> writeLine(line));
+	}
+	
+	public void writeFileLinesWithEnumeration(Path file, Predicate<String> filter) 
+			throws IOException {
+		writeMatchingFileLines(file, toFilterSupplier(filter), this::writeLineWithEnumeration);
+	}
+	
+	public void writeFileLinesWithEnumeration(Path file, Pattern regex) 
+			throws IOException {
+		writeMatchingFileLines(file, toFilterSupplier(regex), this::writeLineWithEnumeration);
+	}
+	
+	private Supplier<Predicate<String>> toFilterSupplier(Predicate<String> filter) {
+		if (filter == null)
+			throw new IllegalArgumentException("Filter cannot be null");
+		
+		return () -> filter;
+	}
+	
+	/**
+	 * Creates a filter per chunk around a single matcher, since matchers are
+	 * not thread-safe and creating one per line would be wasteful.
+	 */
+	private Supplier<Predicate<String>> toFilterSupplier(Pattern regex) {
+		if (regex == null)
+			throw new IllegalArgumentException("Regex cannot be null");
 		
-		for (int i = 0; i < fileContent.size(); i++) {
-			writeLineWithEnumeration(fileContent.get(i), i+1);
+		return () -> {
+			Matcher matcher = regex.matcher("");
+			
+			return line -> matcher.reset(line).find();
+		};
+	}
+	
+	/**
+	 * Writes the lines of a UTF-8 file that match a filter. Chunks of the 
+	 * file are filtered in parallel, but lines are written in file order.
+	 */
+	private void writeMatchingFileLines(Path file, Supplier<Predicate<String>> filter, 
+										ObjLongConsumer<String> writer) 
+			throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("File cannot be null");
+		
+		try (FileChannel channel = FileChannel.open(normalize(file), StandardOpenOption.READ)) {
+			ParallelLineFilter.forEachMatch(channel, StandardCharsets.UTF_8, filter, writer);
 		}
 	}
 
-	private void writeLineWithEnumeration(String line, int lineNumber) {
-		System.out.printf("%-" + MARGIN_LEFT + "d\t%s\n", lineNumber, line);
+	public BackgroundTask followFileLines(Path file) {
+		return followFile(file, (line, lineNumber) -> writeLine(line));
+	}
+	
+	public BackgroundTask followFileLinesWithEnumeration(Path file) {
+		return followFile(file, this::writeLineWithEnumeration);
+	}
+	
+	private BackgroundTask followFile(Path file, ObjLongConsumer<String> consumer) {
+		if (file == null)
+			throw new IllegalArgumentException("File cannot be null");
+		
+		return new FileFollower(
+				normalize(file), 
+				StandardCharsets.UTF_8, 
+				consumer, 
+				error -> logger.writeUnfiltered(LogLevel.ERROR, "File no longer followed: " + error),
+				FOLLOW_POLL_INTERVAL.toNanos()
+		);
+	}
+
+	private void writeLineWithEnumeration(String line, long lineNumber) {
+		sink.writeLine(String.format("%-" + MARGIN_LEFT + "d\t%s", lineNumber, line));
 		history.add(line);
 	}
 
@@ -154,27 +450,188 @@ class OutputConsolex {
 	}
 
 	public void writeError(Object message) {
-		logger.writeError(message.toString());
+		logger.writeError(message);
+	}
+	
+	public void writeError(Supplier<?> message) {
+		logger.writeError(message);
 	}
 	
 	public void writeWarning(Object message) {
-		logger.writeWarning(message.toString());
+		logger.writeWarning(message);
+	}
+	
+	public void writeWarning(Supplier<?> message) {
+		logger.writeWarning(message);
 	}
 	
 	public void writeInfo(Object message) {
-		logger.writeInfo(message.toString());
+		logger.writeInfo(message);
+	}
+	
+	public void writeInfo(Supplier<?> message) {
+		logger.writeInfo(message);
 	}
 	
 	public void writeDebug(Object message) {
-		logger.writeDebug(message.toString());
+		logger.writeDebug(message);
+	}
+	
+	public void writeDebug(Supplier<?> message) {
+		logger.writeDebug(message);
+	}
+	
+	public void writeError(Class<?> source, Object message) {
+		logger.writeError(source, message);
+	}
+	
+	public void writeWarning(Class<?> source, Object message) {
+		logger.writeWarning(source, message);
+	}
+	
+	public void writeInfo(Class<?> source, Object message) {
+		logger.writeInfo(source, message);
+	}
+	
+	public void writeDebug(Class<?> source, Object message) {
+		logger.writeDebug(source, message);
+	}
+	
+	public void writeError(String template, Object arg) {
+		logger.writeError(template, arg);
+	}
+	
+	public void writeError(String template, Object first, Object second) {
+		logger.writeError(template, first, second);
+	}
+	
+	public void writeError(String template, Object... args) {
+		logger.writeError(template, args);
+	}
+	
+	public void writeError(String template, long arg) {
+		logger.writeError(template, arg);
+	}
+	
+	public void writeError(String template, double arg) {
+		logger.writeError(template, arg);
+	}
+	
+	public void writeWarning(String template, Object arg) {
+		logger.writeWarning(template, arg);
+	}
+	
+	public void writeWarning(String template, Object first, Object second) {
+		logger.writeWarning(template, first, second);
+	}
+	
+	public void writeWarning(String template, Object... args) {
+		logger.writeWarning(template, args);
+	}
+	
+	public void writeWarning(String template, long arg) {
+		logger.writeWarning(template, arg);
+	}
+	
+	public void writeWarning(String template, double arg) {
+		logger.writeWarning(template, arg);
+	}
+	
+	public void writeInfo(String template, Object arg) {
+		logger.writeInfo(template, arg);
+	}
+	
+	public void writeInfo(String template, Object first, Object second) {
+		logger.writeInfo(template, first, second);
+	}
+	
+	public void writeInfo(String template, Object... args) {
+		logger.writeInfo(template, args);
+	}
+	
+	public void writeInfo(String template, long arg) {
+		logger.writeInfo(template, arg);
+	}
+	
+	public void writeInfo(String template, double arg) {
+		logger.writeInfo(template, arg);
+	}
+	
+	public void writeDebug(String template, Object arg) {
+		logger.writeDebug(template, arg);
+	}
+	
+	public void writeDebug(String template, Object first, Object second) {
+		logger.writeDebug(template, first, second);
+	}
+	
+	public void writeDebug(String template, Object... args) {
+		logger.writeDebug(template, args);
+	}
+	
+	public void writeDebug(String template, long arg) {
+		logger.writeDebug(template, arg);
+	}
+	
+	public void writeDebug(String template, double arg) {
+		logger.writeDebug(template, arg);
+	}
+	
+	public void loadConfiguration(Path file) throws IOException {
+		if (file == null)
+			throw new IllegalArgumentException("File cannot be null");
+		
+		configure(ConsoleConfiguration.load(normalize(file)));
+	}
+	
+	public BackgroundTask watchConfiguration(Path file) throws IOException {
+		loadConfiguration(file);
+		
+		return new ConfigurationWatcher(
+				normalize(file), 
+				this::configure, 
+				error -> logger.writeUnfiltered(LogLevel.ERROR, "Configuration not reloaded: " + error),
+				CONFIGURATION_POLL_INTERVAL.toNanos()
+		);
+	}
+	
+	/**
+	 * Applies a configuration while holding the lock of the console, so that
+	 * configurations applied at the same time do not mix.
+	 */
+	private synchronized void configure(ConsoleConfiguration configuration) {
+		configuration.applyTo(this);
 	}
 	
 	public void clearHistory() {
 		history.clear();
 	}
 	
-	public void dumpTo(Path output) {
-		history.dumpTo(output);
+	public DumpResult dumpTo(Path output) {
+		return history.dumpTo(output);
+	}
+	
+	public DumpResult appendTo(Path output) {
+		return history.appendTo(output);
+	}
+	
+	public BackgroundTask scheduleAppendTo(Path output, Duration interval, 
+										   Consumer<DumpResult> callback) {
+		return history.scheduleAppendTo(output, interval, callback);
+	}
+	
+	public void enableAsyncLogging(int capacity, WaitStrategy waitStrategy, 
+								   OverflowPolicy overflowPolicy) {
+		logger.enableAsync(capacity, waitStrategy, overflowPolicy);
+	}
+	
+	public void disableAsyncLogging() {
+		logger.disableAsync();
+	}
+	
+	public void flush() {
+		logger.flush();
+		sink.flush();
 	}
 	
 	
@@ -189,14 +646,185 @@ class OutputConsolex {
 		return logger.getLoggerLevel();
 	}
 	
+	public void setLoggerLevel(String name, LogLevel level) {
+		logger.setLevel(name, level);
+	}
+	
+	public void setLoggerLevel(Class<?> source, LogLevel level) {
+		if (source == null)
+			throw new IllegalArgumentException("Source class cannot be null");
+		
+		logger.setLevel(source.getName(), level);
+	}
+	
+	public void removeLoggerLevel(String name) {
+		logger.removeLevel(name);
+	}
+	
+	public LogLevel getLoggerLevel(Class<?> source) {
+		return logger.getLoggerLevel(source);
+	}
+	
+	void setLoggerLevels(LogLevel level, Map<String, LogLevel> levelsByName) {
+		logger.setLevels(level, levelsByName);
+	}
+	
+	public boolean isErrorEnabled() {
+		return logger.isErrorEnabled();
+	}
+	
+	public boolean isWarningEnabled() {
+		return logger.isWarningEnabled();
+	}
+	
+	public boolean isInfoEnabled() {
+		return logger.isInfoEnabled();
+	}
+	
+	public boolean isDebugEnabled() {
+		return logger.isDebugEnabled();
+	}
+	
+	public boolean isAsyncLogging() {
+		return logger.isAsync();
+	}
+	
+	public long getDroppedLogMessages() {
+		return logger.getDroppedMessages();
+	}
+	
+	public long getDroppedLogMessages(LogLevel level) {
+		return logger.getDroppedMessages(level);
+	}
+	
+	public void setDuplicateSuppression(boolean enabled) {
+		logger.setDuplicateSuppression(enabled);
+	}
+	
+	public boolean isDuplicateSuppression() {
+		return logger.isDuplicateSuppression();
+	}
+	
+	public void setRateLimit(LogLevel level, int messagesPerSecond, int burst) {
+		logger.setRateLimit(level, messagesPerSecond, burst);
+	}
+	
+	public void removeRateLimit(LogLevel level) {
+		logger.removeRateLimit(level);
+	}
+	
+	public long getRateLimitedLogMessages(LogLevel level) {
+		return logger.getRateLimitedMessages(level);
+	}
+	
+	public void setSampling(LogLevel level, double probability) {
+		logger.setSampling(level, probability);
+	}
+	
+	public void setSampling(LogLevel level, int oneInN) {
+		logger.setSampling(level, oneInN);
+	}
+	
+	public void removeSampling(LogLevel level) {
+		logger.removeSampling(level);
+	}
+	
+	public long getSampledOutLogMessages(LogLevel level) {
+		return logger.getSampledOutMessages(level);
+	}
+	
+	public synchronized void setOutputSink(OutputSink sink) {
+		if (sink == null)
+			throw new IllegalArgumentException("Sink cannot be null");
+		
+		OutputSink previous = this.sink;
+		
+		logger.setSink(sink);
+		this.sink = sink;
+		previous.flush();
+	}
+	
+	public OutputSink getOutputSink() {
+		return sink;
+	}
+	
+	public void setOutputSinkLevel(LogLevel level) {
+		logger.setSinkLevel(level);
+	}
+	
+	public LogLevel getOutputSinkLevel() {
+		return logger.getSinkLevel();
+	}
+	
+	public void addLogSink(String name, OutputSink sink, LogLevel level) {
+		logger.addSink(name, sink, level);
+	}
+	
+	public void addLogSink(String name, OutputSink sink, LogLevel level, int capacity, 
+						   WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		logger.addSink(name, sink, level, capacity, waitStrategy, overflowPolicy);
+	}
+	
+	public void removeLogSink(String name) {
+		logger.removeSink(name);
+	}
+	
+	public long getLogSinkFailures(String name) {
+		return logger.getSinkFailures(name);
+	}
+	
+	public long getDroppedLogMessages(String sinkName) {
+		return logger.getDroppedMessages(sinkName);
+	}
+	
 	public void setMarginLeft(int margin) {
-		marginLeft = margin;
+		this.margin = buildMargin(margin);
 	}
 
 	public List<String> getHistory() {
 		return history.getHistory();
 	}
 	
+	public void setHistoryEnabled(boolean enabled) {
+		history.setEnabled(enabled);
+	}
+	
+	public boolean isHistoryEnabled() {
+		return history.isEnabled();
+	}
+	
+	public void setHistoryCapacity(int capacity) {
+		history.setCapacity(capacity);
+	}
+	
+	public int getHistoryCapacity() {
+		return history.getCapacity();
+	}
+	
+	public void setHistoryMaxBytes(long maxBytes) {
+		history.setMaxBytes(maxBytes);
+	}
+	
+	public long getHistoryMaxBytes() {
+		return history.getMaxBytes();
+	}
+	
+	public List<String> getHistory(int from, int to) {
+		return history.getHistory(from, to);
+	}
+	
+	public Path useDiskHistory(Path directory, int segmentSize, long maxDiskUsage) {
+		return history.useDiskStorage(directory, segmentSize, maxDiskUsage);
+	}
+	
+	public void setHistoryStorage(HistoryStorage storage) {
+		history.setStorage(storage);
+	}
+	
+	public HistoryStorage getHistoryStorage() {
+		return history.getStorage();
+	}
+	
 	static String getDefaultDivSymbol() {
 		return DIV_SYMBOL;
 	}
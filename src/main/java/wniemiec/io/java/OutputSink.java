@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Destination of the content written on the console. Implementations must be
+ * thread-safe, and each call must be written as a whole, without being 
+ * interleaved with content from other threads.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public interface OutputSink extends Closeable {
+	
+	/**
+	 * Writes a content without putting a line break at the end.
+	 * 
+	 * @param		content Content to be written
+	 */
+	void write(CharSequence content);
+	
+	/**
+	 * Writes a content, putting a line break at the end. The content may
+	 * contain line breaks itself.
+	 * 
+	 * @param		content Content to be written
+	 */
+	void writeLine(CharSequence content);
+	
+	/**
+	 * Writes the whole content of a file as is, without decoding it. Sinks 
+	 * that write with the charset of the file may copy its bytes directly, 
+	 * which avoids decoding and re-encoding each line. By default, nothing is
+	 * written.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * @param		charset File charset
+	 * 
+	 * @return		False if the sink does not write with that charset or 
+	 * does not support copying bytes, in which case nothing is written
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	default boolean transferFrom(FileChannel file, Charset charset) throws IOException {
+		return false;
+	}
+	
+	/**
+	 * Forces any buffered content to be written.
+	 */
+	void flush();
+	
+	/**
+	 * Flushes the sink and releases its resources. By default, it only 
+	 * flushes the sink.
+	 */
+	@Override
+	default void close() {
+		flush();
+	}
+}
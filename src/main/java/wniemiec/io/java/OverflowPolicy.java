@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+/**
+ * Defines what happens when a message is published to an asynchronous queue
+ * that is full.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public final class OverflowPolicy {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final OverflowPolicy BLOCK = new OverflowPolicy(Kind.BLOCK, null);
+	private static final OverflowPolicy DROP_NEWEST = new OverflowPolicy(Kind.DROP_NEWEST, null);
+	private static final OverflowPolicy DROP_OLDEST = new OverflowPolicy(Kind.DROP_OLDEST, null);
+	private final Kind kind;
+	private final LogLevel threshold;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private OverflowPolicy(Kind kind, LogLevel threshold) {
+		this.kind = kind;
+		this.threshold = threshold;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * The caller waits until there is room in the queue. No message is lost.
+	 * 
+	 * @return		Overflow policy
+	 */
+	public static OverflowPolicy block() {
+		return BLOCK;
+	}
+	
+	/**
+	 * The message being published is discarded.
+	 * 
+	 * @return		Overflow policy
+	 */
+	public static OverflowPolicy dropNewest() {
+		return DROP_NEWEST;
+	}
+	
+	/**
+	 * The oldest message in the queue is discarded to make room for the 
+	 * message being published.
+	 * 
+	 * @return		Overflow policy
+	 */
+	public static OverflowPolicy dropOldest() {
+		return DROP_OLDEST;
+	}
+	
+	/**
+	 * Messages less severe than the given level are discarded, while the 
+	 * others wait until there is room in the queue. For instance, with 
+	 * <code>WARNING</code>, info and debug messages are discarded and error 
+	 * and warning messages are never lost.
+	 * 
+	 * @param		level Least severe level that will not be discarded
+	 * 
+	 * @return		Overflow policy
+	 * 
+	 * @throws		IllegalArgumentException If level is null
+	 */
+	public static OverflowPolicy dropBelow(LogLevel level) {
+		if (level == null)
+			throw new IllegalArgumentException("Level cannot be null");
+		
+		return new OverflowPolicy(Kind.DROP_BELOW_LEVEL, level);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	boolean shouldBlock(LogLevel level) {
+		if (kind == Kind.BLOCK)
+			return true;
+		
+		if (kind == Kind.DROP_BELOW_LEVEL)
+			return !isBelowThreshold(level);
+		
+		return false;
+	}
+	
+	private boolean isBelowThreshold(LogLevel level) {
+		return (level != null) && (level.ordinal() > threshold.ordinal());
+	}
+	
+	boolean shouldDropOldest() {
+		return (kind == Kind.DROP_OLDEST);
+	}
+	
+	@Override
+	public String toString() {
+		return (threshold == null) ? kind.name() : kind.name() + "(" + threshold.getName() + ")";
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	private enum Kind {
+		BLOCK,
+		DROP_NEWEST,
+		DROP_OLDEST,
+		DROP_BELOW_LEVEL
+	}
+}
@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Finds the lines of a file that match a filter, in parallel. The file is
+ * split into chunks that start and end on line breaks, and each chunk is
+ * mapped into memory and filtered by a task of the common fork-join pool.
+ * Matching lines are given back in file order, with their line numbers, as
+ * soon as the chunks before them have been filtered. Only about twice as 
+ * many chunks as the pool has threads are filtered at a time, so that the
+ * matches waiting for the consumer stay bounded. Lines end as in 
+ * {@link FileLines}, at '\n', at '\r' or at "\r\n", which requires an 
+ * ASCII-compatible charset.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class ParallelLineFilter {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final byte LINE_FEED = '\n';
+	private static final long MIN_CHUNK_SIZE = 8L * 1024 * 1024;
+	private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+	private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+	private static final int LINE_BUFFER_SIZE = 256;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	private ParallelLineFilter() {
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Gives the lines of a file that match a filter to a consumer.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * @param		charset File charset. It must be ASCII-compatible
+	 * @param		filter Provides the filter used by each chunk, so that
+	 * filters that are not thread-safe can be created per chunk
+	 * @param		consumer Receives each matching line and its number,
+	 * starting at 1, in file order and on the calling thread
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	static void forEachMatch(FileChannel file, Charset charset,
+							 Supplier<Predicate<String>> filter,
+							 ObjLongConsumer<String> consumer)
+			throws IOException {
+		forEachMatch(file, charset, filter, consumer, computeChunkSize(file.size()));
+	}
+	
+	/**
+	 * Gives the lines of a file that match a filter to a consumer, splitting
+	 * it into chunks of about a given size.
+	 * 
+	 * @param		file File channel. Its position is not changed
+	 * @param		charset File charset. It must be ASCII-compatible
+	 * @param		filter Provides the filter used by each chunk
+	 * @param		consumer Receives each matching line and its number
+	 * @param		chunkSize Chunk size, in bytes
+	 * 
+	 * @throws		IOException If file cannot be read
+	 */
+	static void forEachMatch(FileChannel file, Charset charset,
+							 Supplier<Predicate<String>> filter,
+							 ObjLongConsumer<String> consumer, long chunkSize)
+			throws IOException {
+		long[] boundaries = findChunkBoundaries(file, chunkSize);
+		int totalChunks = boundaries.length - 1;
+		int maxInFlight = 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+		Deque<CompletableFuture<Matches>> inFlight = new ArrayDeque<>();
+		int submitted = 0;
+		
+		try {
+			long firstLine = 1;
+			
+			while ((submitted < totalChunks) || !inFlight.isEmpty()) {
+				// Matches are kept until they are given to the consumer, so 
+				// only a few chunks are filtered ahead of it
+				while ((submitted < totalChunks) && (inFlight.size() < maxInFlight)) {
+					inFlight.add(submitChunk(file, boundaries, submitted++, charset, filter));
+				}
+				
+				Matches matches = inFlight.poll().join();
+				
+				matches.forEach(firstLine, consumer);
+				firstLine += matches.lineCount;
+			}
+		}
+		catch (CompletionException e) {
+			inFlight.forEach(chunk -> chunk.cancel(false));
+			throw unwrap(e);
+		}
+		catch (RuntimeException | Error e) {
+			inFlight.forEach(chunk -> chunk.cancel(false));
+			throw e;
+		}
+	}
+	
+	private static CompletableFuture<Matches> submitChunk(FileChannel file, long[] boundaries,
+														  int index, Charset charset,
+														  Supplier<Predicate<String>> filter) {
+		long start = boundaries[index];
+		long end = boundaries[index+1];
+		
+		return CompletableFuture.supplyAsync(
+				() -> filterChunk(file, start, end, charset, filter.get())
+		);
+	}
+	
+	private static long computeChunkSize(long size) {
+		long perThread = size / (4L * Runtime.getRuntime().availableProcessors());
+		
+		return Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, perThread));
+	}
+	
+	/**
+	 * Splits a file into chunks that only hold whole lines. Each chunk ends
+	 * right after the first '\n' found from its nominal end on.
+	 * 
+	 * @return		Offsets where the chunks start, followed by the file size
+	 */
+	private static long[] findChunkBoundaries(FileChannel file, long chunkSize)
+			throws IOException {
+		long size = file.size();
+		long[] boundaries = new long[(int) ((size + chunkSize - 1) / chunkSize) + 1];
+		int totalBoundaries = 1;
+		
+		for (long nominal = chunkSize; nominal < size; nominal += chunkSize) {
+			long previous = boundaries[totalBoundaries-1];
+			
+			if (nominal <= previous)
+				continue;
+			
+			long boundary = findNextLineStart(file, nominal, size);
+			
+			if (boundary < size)
+				boundaries[totalBoundaries++] = boundary;
+		}
+		
+		boundaries[totalBoundaries++] = size;
+		
+		return Arrays.copyOf(boundaries, totalBoundaries);
+	}
+	
+	/**
+	 * Finds the offset of the first line that starts at or after an offset.
+	 */
+	private static long findNextLineStart(FileChannel file, long offset, long size)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long position = offset - 1;
+		
+		while (position < size) {
+			buffer.clear();
+			
+			int read = file.read(buffer, position);
+			
+			if (read <= 0)
+				break;
+			
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == LINE_FEED)
+					return position + i + 1;
+			}
+			
+			position += read;
+		}
+		
+		return size;
+	}
+	
+	private static Matches filterChunk(FileChannel file, long start, long end,
+									   Charset charset, Predicate<String> filter) {
+		if (end - start > Integer.MAX_VALUE)
+			throw new UncheckedIOException(new IOException("Line longer than " + Integer.MAX_VALUE + " bytes"));
+		
+		Matches matches = new Matches();
+		int length = (int) (end - start);
+		byte[] line = new byte[LINE_BUFFER_SIZE];
+		MappedByteBuffer chunk;
+		
+		try {
+			chunk = file.map(FileChannel.MapMode.READ_ONLY, start, length);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		int lineStart = 0;
+		
+		// Chunks end right after a '\n' or at the end of the file, so a '\r'
+		// ending the chunk is not followed by '\n'
+		for (int i = 0; i < length; i++) {
+			if (FileLines.isLineEnd(chunk, i, length)) {
+				line = filterLine(chunk, lineStart, i + 1, charset, line, filter, matches);
+				lineStart = i + 1;
+			}
+		}
+		
+		// Only the last chunk may end without a line break
+		if (lineStart < length)
+			filterLine(chunk, lineStart, length, charset, line, filter, matches);
+		
+		return matches;
+	}
+	
+	/**
+	 * Decodes a line and keeps it if it matches the filter.
+	 * 
+	 * @return		Buffer used to copy the line, which may have been grown
+	 */
+	private static byte[] filterLine(ByteBuffer chunk, int from, int to,
+									 Charset charset, byte[] line,
+									 Predicate<String> filter, Matches matches) {
+		int length = FileLines.contentLength(chunk, from, to);
+		byte[] bytes = (line.length < length) ? new byte[length] : line;
+		
+		chunk.position(from);
+		chunk.get(bytes, 0, length);
+		
+		String decoded = new String(bytes, 0, length, charset);
+		
+		if (filter.test(decoded))
+			matches.add(decoded);
+		
+		matches.lineCount++;
+		
+		return bytes;
+	}
+	
+	private static RuntimeException unwrap(CompletionException e) throws IOException {
+		Throwable cause = e.getCause();
+		
+		if (cause instanceof UncheckedIOException)
+			throw ((UncheckedIOException) cause).getCause();
+		
+		if (cause instanceof Error)
+			throw (Error) cause;
+		
+		if (cause instanceof RuntimeException)
+			return (RuntimeException) cause;
+		
+		return e;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Lines of a chunk that match a filter, with their numbers relative to
+	 * the first line of the chunk.
+	 */
+	private static class Matches {
+		
+		private final List<String> lines = new ArrayList<>();
+		private long[] localLineNumbers = new long[16];
+		private long lineCount;
+		
+		void add(String line) {
+			if (lines.size() == localLineNumbers.length)
+				localLineNumbers = Arrays.copyOf(localLineNumbers, localLineNumbers.length * 2);
+			
+			localLineNumbers[lines.size()] = lineCount;
+			lines.add(line);
+		}
+		
+		void forEach(long firstLine, ObjLongConsumer<String> consumer) {
+			for (int i = 0; i < lines.size(); i++) {
+				consumer.accept(lines.get(i), firstLine + localLineNumbers[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.function.Supplier;
+
+/**
+ * Output sink that writes on a {@link PrintStream}. It is the default sink,
+ * since it honors redirections made with {@link System#setOut(PrintStream)}.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public class PrintStreamSink implements OutputSink {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+	private static final PrintStreamSink SYSTEM_OUT = 
+			new PrintStreamSink(() -> System.out, getStdoutCharset());
+	private final Supplier<PrintStream> stream;
+	private final PrintStream charsetStream;
+	private final Charset charset;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructors
+	//-------------------------------------------------------------------------
+	/**
+	 * Output sink that writes on a print stream.
+	 * 
+	 * @param		stream Print stream
+	 * 
+	 * @throws		IllegalArgumentException If stream is null
+	 */
+	public PrintStreamSink(PrintStream stream) {
+		this(stream, null);
+	}
+	
+	/**
+	 * Output sink that writes on a print stream whose charset is known, which
+	 * allows file contents to be copied to it without being decoded.
+	 * 
+	 * @param		stream Print stream
+	 * @param		charset Charset used by the stream. It may be null if it
+	 * is unknown.
+	 * 
+	 * @throws		IllegalArgumentException If stream is null
+	 */
+	public PrintStreamSink(PrintStream stream, Charset charset) {
+		if (stream == null)
+			throw new IllegalArgumentException("Stream cannot be null");
+		
+		this.stream = () -> stream;
+		this.charsetStream = stream;
+		this.charset = charset;
+	}
+	
+	/**
+	 * Output sink that writes on the stream provided at each write. The 
+	 * charset is only known for the stream provided when it is created.
+	 */
+	private PrintStreamSink(Supplier<PrintStream> stream, Charset charset) {
+		this.stream = stream;
+		this.charsetStream = stream.get();
+		this.charset = charset;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Factories
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets a sink that writes on whatever stream {@link System#out} is at the
+	 * moment of each write.
+	 * 
+	 * @return		Standard output sink
+	 */
+	public static PrintStreamSink systemOut() {
+		return SYSTEM_OUT;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	@Override
+	public void write(CharSequence content) {
+		stream.get().append(content);
+	}
+
+	@Override
+	public void writeLine(CharSequence content) {
+		PrintStream output = stream.get();
+		
+		synchronized (output) {
+			output.append(content);
+			output.println();
+		}
+	}
+
+	/**
+	 * Copies the bytes of a file to the stream, if the charset of the stream
+	 * is known and it is the charset of the file. The charset of the 
+	 * standard output is only known while {@link System#out} has not been
+	 * replaced.
+	 */
+	@Override
+	public boolean transferFrom(FileChannel file, Charset charset) throws IOException {
+		PrintStream output = stream.get();
+		
+		if ((this.charset == null) || (output != charsetStream) || !this.charset.equals(charset))
+			return false;
+		
+		byte[] chunk = new byte[TRANSFER_BUFFER_SIZE];
+		ByteBuffer buffer = ByteBuffer.wrap(chunk);
+		long position = 0;
+		int read;
+		
+		synchronized (output) {
+			while ((read = file.read(buffer, position)) > 0) {
+				output.write(chunk, 0, read);
+				position += read;
+				buffer.clear();
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public void flush() {
+		stream.get().flush();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Getters
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets the charset of the standard output, as the JVM chose it.
+	 * 
+	 * @return		Charset of the standard output
+	 */
+	private static Charset getStdoutCharset() {
+		String name = System.getProperty(
+				"stdout.encoding", 
+				System.getProperty("sun.stdout.encoding")
+		);
+		
+		if (name == null)
+			return Charset.defaultCharset();
+		
+		try {
+			return Charset.forName(name);
+		}
+		catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+			return Charset.defaultCharset();
+		}
+	}
+}
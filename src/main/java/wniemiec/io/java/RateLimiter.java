@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets that limit how many log messages are written per second,
+ * for each level and each template or call site. Each bucket refills at a
+ * constant rate up to a burst size. Buckets keep a single timestamp, as in
+ * the generic cell rate algorithm, so taking a token is a single
+ * compare-and-set and messages from different call sites do not contend.
+ * 
+ * <p>The number of buckets per level is bounded. Once the bound is reached,
+ * new templates and call sites of that level share one bucket.</p>
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class RateLimiter {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int MAX_BUCKETS = 4096;
+	private static final Object SHARED_KEY = new Object();
+	private static final StackWalker stackWalker = StackWalker.getInstance();
+	private static final Set<String> LOGGING_CLASSES = Set.of(
+			RateLimiter.class.getName(),
+			LoggerConsolex.class.getName(),
+			OutputConsolex.class.getName(),
+			ConsolexInstance.class.getName(),
+			Consolex.class.getName()
+	);
+	private volatile Limit[] limits;
+	private final DropCounters droppedMessages;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a rate limiter without limits.
+	 * 
+	 * @param		droppedMessages Counters of messages dropped by the limits
+	 */
+	RateLimiter(DropCounters droppedMessages) {
+		this.limits = new Limit[LogLevel.values().length];
+		this.droppedMessages = droppedMessages;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Sets the limit of a level, discarding the buckets of the previous one.
+	 * 
+	 * @param		level Log level
+	 * @param		messagesPerSecond Messages per second allowed for each
+	 * template or call site
+	 * @param		burst Messages that can be written at once after a quiet
+	 * period
+	 */
+	synchronized void setLimit(LogLevel level, int messagesPerSecond, int burst) {
+		replaceLimit(level, new Limit(messagesPerSecond, burst));
+	}
+	
+	synchronized void removeLimit(LogLevel level) {
+		replaceLimit(level, null);
+	}
+	
+	/**
+	 * Publishes a copy of the limits, so that reading them needs no lock.
+	 */
+	private void replaceLimit(LogLevel level, Limit limit) {
+		Limit[] updated = limits.clone();
+		
+		updated[level.ordinal()] = limit;
+		limits = updated;
+	}
+	
+	/**
+	 * Takes a token for a message.
+	 * 
+	 * @param		level Message level
+	 * @param		template Message template or null to use the call site
+	 * of the logging method as key
+	 * 
+	 * @return		-1 if the message must be dropped; otherwise, how many
+	 * messages with the same key were dropped since the last one written
+	 */
+	long tryAcquire(LogLevel level, String template) {
+		Limit limit = limits[level.ordinal()];
+		
+		if (limit == null)
+			return 0;
+		
+		Bucket bucket = limit.getBucket((template == null) ? findCallSite() : template);
+		
+		if (bucket.tryAcquire(limit, System.nanoTime()))
+			return bucket.takeDropped();
+		
+		bucket.dropped.incrementAndGet();
+		droppedMessages.increment(level);
+		
+		return -1;
+	}
+	
+	/**
+	 * Finds where a logging method was called from, skipping the frames of
+	 * the console itself.
+	 */
+	private static String findCallSite() {
+		return stackWalker.walk(frames -> frames
+				.filter(frame -> !LOGGING_CLASSES.contains(frame.getClassName()))
+				.findFirst()
+				.map(frame -> frame.getClassName() + ':' + frame.getLineNumber())
+				.orElse("")
+		);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	/**
+	 * Rate and burst of a level, with the buckets of its keys.
+	 */
+	private static class Limit {
+		
+		private final long interval;
+		private final long tolerance;
+		private final ConcurrentMap<Object, Bucket> buckets;
+		
+		Limit(int messagesPerSecond, int burst) {
+			this.interval = TimeUnit.SECONDS.toNanos(1) / messagesPerSecond;
+			this.tolerance = interval * (burst - 1);
+			this.buckets = new ConcurrentHashMap<>();
+		}
+		
+		Bucket getBucket(Object key) {
+			Bucket bucket = buckets.get(key);
+			
+			if (bucket != null)
+				return bucket;
+			
+			if (buckets.size() >= MAX_BUCKETS)
+				return buckets.computeIfAbsent(SHARED_KEY, k -> new Bucket());
+			
+			return buckets.computeIfAbsent(key, k -> new Bucket());
+		}
+	}
+	
+	/**
+	 * Bucket that stores the time when it will be full again, instead of
+	 * a number of tokens.
+	 */
+	private static class Bucket {
+		
+		private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+		private final AtomicLong dropped = new AtomicLong();
+		
+		boolean tryAcquire(Limit limit, long now) {
+			while (true) {
+				long current = fullAt.get();
+				long start = (current == Long.MIN_VALUE) ? now : Math.max(current, now);
+				
+				if (start - now > limit.tolerance)
+					return false;
+				
+				if (fullAt.compareAndSet(current, start + limit.interval))
+					return true;
+			}
+		}
+		
+		long takeDropped() {
+			return (dropped.get() == 0) ? 0 : dropped.getAndSet(0);
+		}
+	}
+}
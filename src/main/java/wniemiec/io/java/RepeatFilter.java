@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Collapses consecutive identical log messages. Repetitions are not written;
+ * instead, a message saying how many times the last message was repeated is
+ * written before the next different message, when the filter is flushed or
+ * periodically, so that a summary is not held back while nothing else is
+ * logged.
+ * A repetition that comes after a period without messages being written is
+ * written as usual, so that it is not hidden indefinitely.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class RepeatFilter {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final long MAX_SILENCE_NANOS = Duration.ofSeconds(30).toNanos();
+	private final BiConsumer<LogLevel, String> writer;
+	private final long reportIntervalNanos;
+	private ScheduledFuture<?> report;
+	private LogLevel lastLevel;
+	private String lastMessage;
+	private long repetitions;
+	private long lastWritten;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a filter with no messages.
+	 * 
+	 * @param		writer Writes messages, while the filter is locked so that
+	 * the repetition summary comes right before the next message
+	 * @param		reportIntervalNanos Interval between periodic summaries
+	 */
+	RepeatFilter(BiConsumer<LogLevel, String> writer, long reportIntervalNanos) {
+		this.writer = writer;
+		this.reportIntervalNanos = reportIntervalNanos;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Starts writing the repetition summary periodically.
+	 */
+	synchronized void startReports() {
+		if (report == null)
+			report = BackgroundScheduler.schedule(this, RepeatFilter::flush, reportIntervalNanos);
+	}
+	
+	/**
+	 * Stops the periodic summaries and writes the pending one, if any.
+	 */
+	synchronized void stopReports() {
+		if (report != null) {
+			report.cancel(false);
+			report = null;
+		}
+		
+		flush();
+	}
+	
+	/**
+	 * Writes a message unless it repeats the last one.
+	 * 
+	 * @param		level Message level
+	 * @param		message Message
+	 */
+	synchronized void write(LogLevel level, String message) {
+		long now = System.nanoTime();
+		
+		if ((level == lastLevel) && message.equals(lastMessage)
+				&& (now - lastWritten < MAX_SILENCE_NANOS)) {
+			repetitions++;
+			return;
+		}
+		
+		flush();
+		writer.accept(level, message);
+		lastLevel = level;
+		lastMessage = message;
+		lastWritten = now;
+	}
+	
+	/**
+	 * Writes how many times the last message was repeated, if it was.
+	 */
+	synchronized void flush() {
+		if (repetitions == 0)
+			return;
+		
+		long total = repetitions;
+		String times = (total == 1) ? " time" : " times";
+		
+		repetitions = 0;
+		writer.accept(lastLevel, "Last message repeated " + total + times);
+		lastWritten = System.nanoTime();
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps a random sample of the log messages of each level. Whether a message
+ * is kept is decided by the random generator of the current thread, so it
+ * needs no locking and it is done before the message is built. While any
+ * level is sampled, how many messages were left out is reported
+ * periodically, so that the real volume remains visible.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class Sampler {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private final DropCounters sampledOut;
+	private final DropCounters unreported;
+	private final BiConsumer<LogLevel, String> reporter;
+	private final long reportIntervalNanos;
+	private volatile double[] probabilities;
+	private ScheduledFuture<?> report;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Creates a sampler that keeps every message.
+	 * 
+	 * @param		sampledOut Counters of messages left out
+	 * @param		reporter Writes how many messages of a level were left out
+	 * @param		reportIntervalNanos Interval between reports
+	 */
+	Sampler(DropCounters sampledOut, BiConsumer<LogLevel, String> reporter,
+			long reportIntervalNanos) {
+		this.sampledOut = sampledOut;
+		this.unreported = new DropCounters();
+		this.reporter = reporter;
+		this.reportIntervalNanos = reportIntervalNanos;
+		this.probabilities = new double[LogLevel.values().length];
+		
+		Arrays.fill(probabilities, 1);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Decides whether a message is kept.
+	 * 
+	 * @param		level Message level
+	 * 
+	 * @return		True if the message must be written
+	 */
+	boolean sample(LogLevel level) {
+		double probability = probabilities[level.ordinal()];
+		
+		if ((probability >= 1) || (ThreadLocalRandom.current().nextDouble() < probability))
+			return true;
+		
+		sampledOut.increment(level);
+		unreported.increment(level);
+		
+		return false;
+	}
+	
+	/**
+	 * Sets the probability of a message of a level being kept.
+	 * 
+	 * @param		level Log level
+	 * @param		probability Probability, where 1 keeps every message
+	 */
+	synchronized void setProbability(LogLevel level, double probability) {
+		double[] updated = probabilities.clone();
+		
+		updated[level.ordinal()] = probability;
+		probabilities = updated;
+		
+		if (isSampling())
+			startReports();
+		else
+			stopReports();
+	}
+	
+	private boolean isSampling() {
+		for (double probability : probabilities) {
+			if (probability < 1)
+				return true;
+		}
+		
+		return false;
+	}
+	
+	private void startReports() {
+		if (report == null)
+			report = BackgroundScheduler.schedule(this, Sampler::report, reportIntervalNanos);
+	}
+	
+	private void stopReports() {
+		if (report == null)
+			return;
+		
+		report.cancel(false);
+		report = null;
+		report();
+	}
+	
+	/**
+	 * Writes how many messages of each level were left out since the last
+	 * report, for the levels that had any.
+	 */
+	void report() {
+		for (LogLevel level : LogLevel.values()) {
+			long total = unreported.getAndReset(level);
+			
+			if (total > 0)
+				reporter.accept(level, "Sampling left out " + total + " messages");
+		}
+	}
+}
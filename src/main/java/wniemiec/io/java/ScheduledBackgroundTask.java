@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Background task that runs periodically on the {@link BackgroundScheduler}.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class ScheduledBackgroundTask implements BackgroundTask {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private final ScheduledFuture<?> future;
+	private final Runnable onCancel;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructor
+	//-------------------------------------------------------------------------
+	/**
+	 * Schedules a task.
+	 * 
+	 * @param		task Task to be run periodically
+	 * @param		periodNanos Interval between executions
+	 * @param		onCancel Action run once when the task is cancelled
+	 */
+	ScheduledBackgroundTask(Runnable task, long periodNanos, Runnable onCancel) {
+		this.future = BackgroundScheduler.schedule(task, periodNanos);
+		this.onCancel = onCancel;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	@Override
+	public void cancel() {
+		if (future.cancel(false))
+			onCancel.run();
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return future.isCancelled();
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of parsed message templates. When it is full, an arbitrary
+ * template is evicted, which keeps lookups lock-free.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+class TemplateCache {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int DEFAULT_MAX_SIZE = 1024;
+	private final Map<String, MessageTemplate> templates;
+	private final int maxSize;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Constructors
+	//-------------------------------------------------------------------------
+	TemplateCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+	
+	TemplateCache(int maxSize) {
+		this.templates = new ConcurrentHashMap<>();
+		this.maxSize = maxSize;
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets a parsed template, parsing it if it is not cached.
+	 * 
+	 * @param		template Template
+	 * 
+	 * @return		Parsed template
+	 */
+	MessageTemplate get(String template) {
+		MessageTemplate parsedTemplate = templates.get(template);
+		
+		if (parsedTemplate != null)
+			return parsedTemplate;
+		
+		parsedTemplate = MessageTemplate.parse(template);
+		
+		if (templates.size() >= maxSize)
+			evictOne();
+		
+		templates.put(template, parsedTemplate);
+		
+		return parsedTemplate;
+	}
+	
+	private void evictOne() {
+		Iterator<String> iterator = templates.keySet().iterator();
+		
+		if (iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+	
+	int size() {
+		return templates.size();
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) William Niemiec.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package wniemiec.io.java;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Defines how the background log drainer waits for new messages when the
+ * asynchronous log queue is empty.
+ * 
+ * @author		William Niemiec &lt; williamniemiec@hotmail.com &gt;
+ */
+public enum WaitStrategy {
+	
+	//-------------------------------------------------------------------------
+	//		Enumerations
+	//-------------------------------------------------------------------------
+	/**
+	 * Parks the drainer until a producer wakes it up. Lowest CPU usage, 
+	 * highest latency.
+	 */
+	BLOCKING {
+		@Override
+		void idle(int attempt) {
+			LockSupport.parkNanos(MAX_PARK_NANOS);
+		}
+	},
+	
+	/**
+	 * Spins, then yields, then sleeps for short periods. Good balance between
+	 * CPU usage and latency.
+	 */
+	SLEEPING {
+		@Override
+		void idle(int attempt) {
+			if (attempt < SPIN_TRIES)
+				Thread.onSpinWait();
+			else if (attempt < SPIN_TRIES + YIELD_TRIES)
+				Thread.yield();
+			else
+				LockSupport.parkNanos(SLEEP_NANOS);
+		}
+	},
+	
+	/**
+	 * Spins for a while and then yields the processor. Low latency, but keeps
+	 * a core busy while there is no message.
+	 */
+	YIELDING {
+		@Override
+		void idle(int attempt) {
+			if (attempt < SPIN_TRIES)
+				Thread.onSpinWait();
+			else
+				Thread.yield();
+		}
+	},
+	
+	/**
+	 * Busy spins. Lowest latency, but burns a whole core.
+	 */
+	BUSY_SPIN {
+		@Override
+		void idle(int attempt) {
+			Thread.onSpinWait();
+		}
+	};
+	
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 100;
+	private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	/**
+	 * Waits once while there is nothing to be done.
+	 * 
+	 * @param		attempt Number of consecutive idle rounds so far
+	 */
+	abstract void idle(int attempt);
+	
+	boolean requiresSignal() {
+		return (this == BLOCKING);
+	}
+}
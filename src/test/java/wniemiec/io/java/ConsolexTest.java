@@ -1,14 +1,49 @@
 package wniemiec.io.java;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ConsolexTest {
 	
@@ -41,6 +76,58 @@ class ConsolexTest {
 		assertConsoleOutputIs("hello", "world");
 	}
 	
+	@Test
+	void testWriteLinesInBatches() {
+		StringBuilder output = new StringBuilder();
+		AtomicInteger writes = new AtomicInteger();
+		ConsolexInstance console = ConsolexInstance.builder()
+				.outputSink(new OutputSink() {
+					@Override
+					public void write(CharSequence content) {
+						writes.incrementAndGet();
+						output.append(content);
+					}
+					
+					@Override
+					public void writeLine(CharSequence content) {
+						write(content);
+						output.append(System.lineSeparator());
+					}
+					
+					@Override
+					public void flush() {
+					}
+				})
+				.marginLeft(1)
+				.historyCapacity(100000)
+				.build();
+		
+		console.writeLines(IntStream.range(0, 100000).boxed());
+		console.writeLines(Set.of("x"));
+		
+		Assertions.assertTrue(writes.get() < 100);
+		Assertions.assertEquals(
+				IntStream.range(0, 100000)
+						.mapToObj(i -> " " + i + System.lineSeparator())
+						.collect(Collectors.joining()) + " x" + System.lineSeparator(), 
+				output.toString()
+		);
+		Assertions.assertEquals(100000, console.getHistory().size());
+		Assertions.assertEquals(List.of(" 99999", " x"), console.getHistory(99998, 100000));
+		
+		output.setLength(0);
+		console.setMarginLeft(0);
+		console.clearHistory();
+		console.writeLines(List.of("", "a", ""));
+		console.writeLines(List.of(""));
+		
+		Assertions.assertEquals(
+				String.join(System.lineSeparator(), "", "a", "", "", ""), 
+				output.toString()
+		);
+		Assertions.assertEquals(List.of("", "a", "", ""), console.getHistory());
+	}
+	
 	@Test
 	void testWrite() {
 		Object foo = new Object() {
@@ -68,6 +155,313 @@ class ConsolexTest {
 		assertConsoleOutputIsEqualsToFileContent(testFile);
 	}
 	
+	@Test
+	void testWriteFileLinesWithCharsetAndBufferSize(@TempDir Path directory) 
+			throws IOException {
+		Path file = directory.resolve("latin1.txt");
+		List<String> lines = List.of("ação", "", "a longer line than the buffer");
+		
+		Files.write(file, lines, StandardCharsets.ISO_8859_1);
+		
+		Consolex.writeFileLines(file, StandardCharsets.ISO_8859_1, 4);
+		assertConsoleOutputIs(lines);
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLinesWithEnumeration(file, StandardCharsets.ISO_8859_1);
+		assertConsoleOutputIs(lines);
+	}
+	
+	@Test
+	void testWriteFileLinesPassthrough(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("data.txt");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		OutputSink defaultSink = Consolex.getOutputSink();
+		OutputSink sink = new ChannelOutputSink(
+				Channels.newChannel(output), 
+				StandardCharsets.UTF_8, 
+				1024, 
+				FlushPolicy.manual()
+		);
+		
+		Files.write(file, "ação\r\nb\n\nlast".getBytes(StandardCharsets.UTF_8));
+		Consolex.setOutputSink(sink);
+		
+		try {
+			Consolex.writeLine("first");
+			Consolex.setHistoryEnabled(false);
+			Consolex.writeFileLines(file);
+			Consolex.flush();
+			
+			Assertions.assertEquals(
+					"first" + System.lineSeparator() + "ação\r\nb\n\nlast" + System.lineSeparator(), 
+					output.toString(StandardCharsets.UTF_8)
+			);
+			assertConsoleOutputIs("first");
+			
+			Consolex.setHistoryEnabled(true);
+			Consolex.writeFileLines(file);
+			assertConsoleOutputIs("first", "ação", "b", "", "last");
+			
+			byte[] malformed = {'o', 'k', '\n', (byte) 0xC3, '\n'};
+			
+			Files.write(file, malformed);
+			Consolex.flush();
+			output.reset();
+			Consolex.clearHistory();
+			Assertions.assertThrows(
+					MalformedInputException.class, 
+					() -> Consolex.writeFileLines(file)
+			);
+			Consolex.flush();
+			Assertions.assertArrayEquals(malformed, output.toByteArray());
+			assertConsoleOutputIs("ok");
+		}
+		finally {
+			Consolex.setHistoryEnabled(true);
+			Consolex.setOutputSink(defaultSink);
+			sink.close();
+		}
+	}
+	
+	@Test
+	void testWriteFileLineRange(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("lines.txt");
+		List<String> lines = new ArrayList<>();
+		
+		for (int i = 1; i <= 1000; i++) {
+			lines.add((i % 7 == 0) ? "" : "line " + i);
+		}
+		
+		Files.write(file, lines);
+		
+		Consolex.writeFileLines(file, 500, 502);
+		assertConsoleOutputIs(lines.subList(499, 502));
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLinesWithEnumeration(file, 999, 5000);
+		assertConsoleOutputIs(lines.subList(998, 1000));
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLines(file, 1001, 1002);
+		assertConsoleOutputIsEmpty();
+		
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> Consolex.writeFileLines(file, 0, 1)
+		);
+	}
+	
+	@Test
+	void testWriteFileLinesWithFilter(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("app.log");
+		
+		Files.writeString(file, "INFO start\r\nERROR disk\nINFO ok\nERROR net");
+		
+		Consolex.writeFileLines(file, line -> line.startsWith("INFO"));
+		assertConsoleOutputIs("INFO start", "INFO ok");
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLinesWithEnumeration(file, Pattern.compile("ERR\\w+"));
+		assertConsoleOutputIs("ERROR disk", "ERROR net");
+		
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> Consolex.writeFileLines(file, (Pattern) null)
+		);
+	}
+	
+	@Test
+	void testParallelLineFilterAcrossChunks(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("lines.txt");
+		StringBuilder content = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		
+		for (int i = 1; i <= 1000; i++) {
+			String line = "x".repeat(i % 17) + i;
+			
+			content.append(line).append('\n');
+			
+			if (i % 3 == 0)
+				expected.add(i + ":" + line);
+		}
+		
+		Files.writeString(file, content);
+		
+		try (FileChannel channel = FileChannel.open(file)) {
+			List<String> matches = new ArrayList<>();
+			
+			ParallelLineFilter.forEachMatch(
+					channel, 
+					StandardCharsets.UTF_8, 
+					() -> line -> Integer.parseInt(line.replace("x", "")) % 3 == 0, 
+					(line, lineNumber) -> matches.add(lineNumber + ":" + line), 
+					7
+			);
+			
+			Assertions.assertEquals(expected, matches);
+		}
+	}
+	
+	@Test
+	void testLineBreaksAreTheSameForEveryPath(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("mixed.txt");
+		List<String> lines = List.of("one", "two", "", "three", "", "four");
+		
+		Files.writeString(file, "one\rtwo\r\n\nthree\r\rfour\r");
+		
+		Consolex.writeFileLines(file);
+		assertConsoleOutputIs(lines);
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLinesWithEnumeration(file, StandardCharsets.UTF_8);
+		assertConsoleOutputIs(lines);
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLines(file, 2, 6);
+		assertConsoleOutputIs(lines.subList(1, 6));
+		
+		Consolex.clearHistory();
+		Consolex.writeFileLinesWithEnumeration(file, line -> line.startsWith("f"));
+		assertConsoleOutputIs("four");
+	}
+	
+	@Test
+	void testLineIndexAcrossChunks(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("lines.txt");
+		StringBuilder content = new StringBuilder();
+		List<Long> offsets = new ArrayList<>();
+		
+		String[] lineBreaks = {"\n", "\r", "\r\n"};
+		
+		for (int i = 0; i < 1000; i++) {
+			offsets.add((long) content.length());
+			content.append("x".repeat(i % 13)).append(lineBreaks[i % 3]);
+		}
+		
+		offsets.add((long) content.length());
+		content.append("no line break");
+		Files.writeString(file, content);
+		
+		try (FileChannel channel = FileChannel.open(file)) {
+			LineIndex index = LineIndex.build(channel, 7);
+			
+			Assertions.assertEquals(offsets.size(), index.getLineCount());
+			
+			for (int i = 0; i < offsets.size(); i++) {
+				Assertions.assertEquals(offsets.get(i), index.getLineOffset(channel, i));
+			}
+		}
+	}
+	
+	@Test
+	void testFollowFileLines(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("app.log");
+		
+		Files.writeString(file, "a\nb\n");
+		
+		try (BackgroundTask follower = Consolex.followFileLinesWithEnumeration(file)) {
+			awaitHistory("a", "b");
+			
+			Files.writeString(file, "c\npartial", StandardOpenOption.APPEND);
+			awaitHistory("a", "b", "c");
+			
+			Files.writeString(file, " line\n", StandardOpenOption.APPEND);
+			awaitHistory("a", "b", "c", "partial line");
+			
+			Files.writeString(file, "cr\rcrlf\r\nlast\r", StandardOpenOption.APPEND);
+			awaitHistory("a", "b", "c", "partial line", "cr", "crlf");
+			
+			Files.writeString(file, "next\n", StandardOpenOption.APPEND);
+			awaitHistory("a", "b", "c", "partial line", "cr", "crlf", "last", "next");
+			
+			Files.move(file, directory.resolve("app.log.1"));
+			Files.writeString(file, "rotated\n");
+			awaitHistory("a", "b", "c", "partial line", "cr", "crlf", "last", "next", "rotated");
+			
+			Files.writeString(file, "");
+			Files.writeString(file, "truncated\n");
+			awaitHistory("a", "b", "c", "partial line", "cr", "crlf", "last", "next", "rotated", "truncated");
+			
+			follower.cancel();
+			Assertions.assertTrue(follower.isCancelled());
+		}
+	}
+	
+	@Test
+	void testFollowFileLinesStopsWhenWritingFails(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("app.log");
+		ConsolexInstance console = ConsolexInstance.builder()
+				.outputSink(new OutputSink() {
+					@Override
+					public void write(CharSequence content) {
+					}
+					
+					@Override
+					public void writeLine(CharSequence content) {
+						if ("boom".contentEquals(content))
+							throw new IllegalStateException("Sink failed");
+					}
+					
+					@Override
+					public void flush() {
+					}
+				})
+				.build();
+		
+		Files.writeString(file, "a\nboom\nb\n");
+		
+		try (BackgroundTask follower = console.followFileLines(file)) {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			
+			while (!follower.isCancelled() && (System.nanoTime() < deadline)) {
+				Thread.sleep(20);
+			}
+			
+			Assertions.assertTrue(follower.isCancelled());
+			Assertions.assertEquals(
+					List.of("a", "File no longer followed: java.lang.IllegalStateException: Sink failed"), 
+					console.getHistory()
+			);
+		}
+	}
+	
+	@Test
+	void testCancelFollowerWhileWriting(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("app.log");
+		Path output = directory.resolve("output.txt");
+		
+		Files.write(file, IntStream.range(0, 400_000).mapToObj(i -> "line " + i).collect(Collectors.toList()));
+		
+		try (OutputSink sink = new ChannelOutputSink(
+				FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE), 
+				StandardCharsets.UTF_8, 
+				1024, 
+				FlushPolicy.perLine()
+		)) {
+			ConsolexInstance console = ConsolexInstance.builder()
+					.outputSink(sink)
+					.build();
+			BackgroundTask follower = console.followFileLines(file);
+			
+			Thread.sleep(50);
+			follower.cancel();
+			Thread.sleep(50);
+			
+			Assertions.assertDoesNotThrow(() -> console.writeLine("after cancel"));
+		}
+	}
+	
+	private void awaitHistory(String... lines) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		
+		while (!Consolex.getHistory().equals(List.of(lines)) 
+				&& (System.nanoTime() < deadline)) {
+			Thread.sleep(20);
+		}
+		
+		assertConsoleOutputIs(lines);
+	}
+	
 	@Test
 	void testWriteDiv() {
 		Consolex.writeDiv();
@@ -273,9 +667,978 @@ class ConsolexTest {
 	}
 	
 	
+	@Test
+	void testLazyMessages() {
+		AtomicInteger evaluations = new AtomicInteger();
+		Supplier<String> message = () -> {
+			evaluations.incrementAndGet();
+			return "lazy message";
+		};
+		
+		Consolex.setLoggerLevel(LogLevel.INFO);
+		Consolex.writeDebug(message);
+		Consolex.writeInfo(message);
+		
+		Assertions.assertEquals(1, evaluations.get());
+		Assertions.assertFalse(Consolex.isDebugEnabled());
+		Assertions.assertTrue(Consolex.isInfoEnabled());
+		assertConsoleOutputIs("lazy message");
+	}
+	
+	@Test
+	void testDisabledLevelDoesNotCallToString() {
+		Object message = new Object() {
+			@Override
+			public String toString() { 
+				throw new AssertionError("toString should not be called"); 
+			}
+		};
+		
+		Consolex.setLoggerLevel(LogLevel.INFO);
+		Consolex.writeDebug(message);
+		assertConsoleOutputIsEmpty();
+	}
+	
+	@Test
+	void testTemplateMessages() {
+		Consolex.setLoggerLevel(LogLevel.DEBUG);
+		Consolex.writeInfo("user {} took {} ms", "alice", 42);
+		Consolex.writeWarning("{} retries", 3);
+		Consolex.writeError("ratio: {}", 0.5);
+		Consolex.writeDebug("{}-{}-{} {}", "a", 'b', 3);
+		Consolex.writeInfo("no placeholder", "ignored");
+		Consolex.writeInfo("ids: {}", (Object) new Integer[] {1, 2});
+		
+		assertConsoleOutputIs(
+				"user alice took 42 ms", 
+				"3 retries", 
+				"ratio: 0.5", 
+				"a-b-3 {}", 
+				"no placeholder",
+				"ids: [1, 2]"
+		);
+	}
+	
+	@Test
+	void testTemplateMessagesOnDisabledLevel() {
+		Object argument = new Object() {
+			@Override
+			public String toString() { 
+				throw new AssertionError("toString should not be called"); 
+			}
+		};
+		
+		Consolex.setLoggerLevel(LogLevel.INFO);
+		Consolex.writeDebug("value: {}", argument);
+		assertConsoleOutputIsEmpty();
+	}
+	
+	@Test
+	void testLevelsByPackageAndClass() {
+		ConsolexInstance console = ConsolexInstance.builder()
+				.loggerLevel(LogLevel.ERROR)
+				.build();
+		
+		console.setLoggerLevel("wniemiec.io", LogLevel.DEBUG);
+		console.writeDebug(ConsolexTest.class, "shown");
+		console.writeWarning(String.class, "hidden");
+		
+		console.setLoggerLevel(ConsolexTest.class, LogLevel.ERROR);
+		console.writeWarning(ConsolexTest.class, "hidden");
+		console.writeError(InputTest.class, "nested");
+		Assertions.assertEquals(LogLevel.ERROR, console.getLoggerLevel(InputTest.class));
+		Assertions.assertEquals(LogLevel.DEBUG, console.getLoggerLevel(LevelTree.class));
+		
+		console.removeLoggerLevel(ConsolexTest.class.getName());
+		console.setLoggerLevel(LogLevel.INFO);
+		console.writeInfo(ConsolexTest.class, "package");
+		console.writeInfo(String.class, "global");
+		
+		Assertions.assertEquals(
+				List.of(
+						"{ ConsolexTest } shown", 
+						"{ ConsolexTest$InputTest } nested", 
+						"{ ConsolexTest } package", 
+						"{ String } global"
+				), 
+				console.getHistory()
+		);
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.setLoggerLevel("", LogLevel.INFO)
+		);
+	}
+	
+	@Test
+	void testWatchConfiguration(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("consolex.properties");
+		ConsolexInstance console = ConsolexInstance.builder().build();
+		
+		Files.writeString(file, "level=DEBUG\nlevel.java.lang=WARN\nhistory.capacity=3\n");
+		
+		try (BackgroundTask watcher = console.watchConfiguration(file)) {
+			Assertions.assertEquals(LogLevel.DEBUG, console.getLoggerLevel());
+			Assertions.assertEquals(LogLevel.WARNING, console.getLoggerLevel(String.class));
+			Assertions.assertEquals(3, console.getHistoryCapacity());
+			
+			Files.writeString(file, "level=OFF\n");
+			
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			
+			while ((console.getLoggerLevel() != LogLevel.OFF) && (System.nanoTime() < deadline)) {
+				Thread.sleep(20);
+			}
+			
+			Assertions.assertEquals(LogLevel.OFF, console.getLoggerLevel());
+			Assertions.assertEquals(LogLevel.OFF, console.getLoggerLevel(String.class));
+			Assertions.assertEquals(3, console.getHistoryCapacity());
+			
+			Files.writeString(file, "level=LOUD\n");
+			deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			
+			while (console.getHistory().isEmpty() && (System.nanoTime() < deadline)) {
+				Thread.sleep(20);
+			}
+			
+			Assertions.assertTrue(console.getHistory().get(0).startsWith("Configuration not reloaded"));
+			Assertions.assertEquals(LogLevel.OFF, console.getLoggerLevel());
+		}
+		
+		Files.writeString(file, "level=LOUD\nmarginLeft=2\n");
+		
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.loadConfiguration(file)
+		);
+		Assertions.assertEquals(LogLevel.OFF, console.getLoggerLevel());
+	}
+	
+	@Test
+	void testDuplicateSuppression() {
+		ConsolexInstance console = ConsolexInstance.builder()
+				.loggerLevel(LogLevel.DEBUG)
+				.build();
+		
+		console.setDuplicateSuppression(true);
+		
+		for (int i = 0; i < 5; i++) {
+			console.writeError("disk full");
+		}
+		
+		console.writeError("network down");
+		console.writeError("network down");
+		console.flush();
+		
+		Assertions.assertEquals(
+				List.of(
+						"disk full", 
+						"Last message repeated 4 times", 
+						"network down", 
+						"Last message repeated 1 time"
+				), 
+				console.getHistory()
+		);
+	}
+	
+	@Test
+	void testRateLimit() {
+		ConsolexInstance console = ConsolexInstance.builder()
+				.loggerLevel(LogLevel.DEBUG)
+				.build();
+		
+		console.setRateLimit(LogLevel.WARNING, 1, 3);
+		
+		for (int i = 0; i < 10; i++) {
+			console.writeWarning("retry {}", i);
+			console.writeWarning("call site " + i);
+		}
+		
+		console.writeWarning("other call site");
+		console.writeInfo("not limited");
+		
+		Assertions.assertEquals(
+				List.of(
+						"retry 0", "call site 0", 
+						"retry 1", "call site 1", 
+						"retry 2", "call site 2", 
+						"other call site", 
+						"not limited"
+				), 
+				console.getHistory()
+		);
+		Assertions.assertEquals(14, console.getRateLimitedLogMessages(LogLevel.WARNING));
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.setRateLimit(LogLevel.OFF, 1, 1)
+		);
+	}
+	
+	@Test
+	void testSampling() {
+		ConsolexInstance console = ConsolexInstance.builder()
+				.loggerLevel(LogLevel.DEBUG)
+				.build();
+		
+		console.setSampling(LogLevel.DEBUG, 1_000_000);
+		
+		for (int i = 0; i < 1000; i++) {
+			console.writeDebug("cache miss {}", i);
+		}
+		
+		console.writeInfo("not sampled");
+		
+		long kept = console.getHistory().size() - 1;
+		long sampledOut = console.getSampledOutLogMessages(LogLevel.DEBUG);
+		
+		Assertions.assertEquals(1000, kept + sampledOut);
+		Assertions.assertTrue(sampledOut > 990);
+		
+		console.removeSampling(LogLevel.DEBUG);
+		console.writeDebug("not sampled anymore");
+		
+		List<String> history = console.getHistory();
+		
+		Assertions.assertEquals("Sampling left out " + sampledOut + " messages", history.get(history.size() - 2));
+		Assertions.assertEquals("not sampled anymore", history.get(history.size() - 1));
+		
+		AtomicInteger conversions = new AtomicInteger();
+		Object message = new Object() {
+			@Override
+			public String toString() {
+				conversions.incrementAndGet();
+				
+				return "converted";
+			}
+		};
+		
+		console.setSampling(LogLevel.DEBUG, 1_000_000);
+		
+		for (int i = 0; i < 1000; i++) {
+			console.writeDebug(message);
+		}
+		
+		Assertions.assertTrue(conversions.get() < 10);
+		console.removeSampling(LogLevel.DEBUG);
+		
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.setSampling(LogLevel.INFO, 1.5)
+		);
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.setSampling(LogLevel.OFF, 2)
+		);
+	}
+	
+	@Test
+	void testPeriodicReportsDoNotRetainLogger() throws InterruptedException {
+		LoggerConsolex logger = new LoggerConsolex(new HistoryConsolex(), Consolex.getOutputSink());
+		WeakReference<LoggerConsolex> reference = new WeakReference<>(logger);
+		
+		logger.setSampling(LogLevel.DEBUG, 10);
+		logger.setDuplicateSuppression(true);
+		logger = null;
+		
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		
+		while ((reference.get() != null) && (System.nanoTime() < deadline)) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		
+		Assertions.assertNull(reference.get());
+	}
+	
+	@Test
+	void testLogSinks() {
+		ByteArrayOutputStream terminal = new ByteArrayOutputStream();
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		ConsolexInstance console = ConsolexInstance.builder()
+				.outputSink(new PrintStreamSink(new PrintStream(terminal, true, StandardCharsets.UTF_8)))
+				.loggerLevel(LogLevel.DEBUG)
+				.build();
+		
+		console.setOutputSinkLevel(LogLevel.WARNING);
+		console.addLogSink(
+				"file", 
+				new PrintStreamSink(new PrintStream(file, true, StandardCharsets.UTF_8)), 
+				LogLevel.DEBUG, 
+				16, 
+				WaitStrategy.BLOCKING, 
+				OverflowPolicy.block()
+		);
+		console.addLogSink("broken", new OutputSink() {
+			@Override
+			public void write(CharSequence content) {
+				throw new IllegalStateException("disk failure");
+			}
+			
+			@Override
+			public void writeLine(CharSequence content) {
+				write(content);
+			}
+			
+			@Override
+			public void flush() {
+			}
+		}, LogLevel.INFO);
+		
+		console.writeError("error message");
+		console.writeInfo("info message");
+		console.writeDebug("debug message");
+		console.flush();
+		
+		Assertions.assertEquals(
+				List.of("[ERROR]  error message"), 
+				terminal.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList())
+		);
+		Assertions.assertEquals(
+				List.of("[ERROR]  error message", "[INFO]   info message", "[DEBUG]  debug message"), 
+				file.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList())
+		);
+		Assertions.assertEquals(List.of("error message", "info message", "debug message"), console.getHistory());
+		Assertions.assertEquals(2, console.getLogSinkFailures("broken"));
+		Assertions.assertEquals(0, console.getDroppedLogMessages("file"));
+		
+		console.removeLogSink("file");
+		console.writeError("after removal");
+		
+		Assertions.assertEquals(3, file.toString(StandardCharsets.UTF_8).lines().count());
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.getLogSinkFailures("file")
+		);
+		Assertions.assertThrows(
+				IllegalArgumentException.class, 
+				() -> console.addLogSink("broken", Consolex.getOutputSink(), LogLevel.INFO)
+		);
+	}
+	
+	@Test
+	void testAsyncLogging() {
+		String errorMsg = "error message";
+		String infoMsg = "info message";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		OutputSink defaultSink = Consolex.getOutputSink();
+		OutputSink sink = new ChannelOutputSink(
+				Channels.newChannel(output), 
+				StandardCharsets.UTF_8, 
+				1024, 
+				FlushPolicy.manual()
+		);
+		StringBuilder expected = new StringBuilder();
+		
+		Consolex.setOutputSink(sink);
+		Consolex.setLoggerLevel(LogLevel.INFO);
+		Consolex.enableAsyncLogging(4, WaitStrategy.BLOCKING, OverflowPolicy.block());
+		
+		try {
+			Assertions.assertTrue(Consolex.isAsyncLogging());
+			
+			for (int i = 0; i < 100; i++) {
+				Consolex.writeError(errorMsg);
+				Consolex.writeInfo(infoMsg);
+				expected.append("[ERROR]  ").append(errorMsg).append(System.lineSeparator());
+				expected.append("[INFO]   ").append(infoMsg).append(System.lineSeparator());
+			}
+			
+			Consolex.flush();
+			Assertions.assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+			Assertions.assertEquals(200, Consolex.getHistory().size());
+			Assertions.assertEquals(0, Consolex.getDroppedLogMessages());
+		}
+		finally {
+			Consolex.disableAsyncLogging();
+			Consolex.setOutputSink(defaultSink);
+			sink.close();
+		}
+		
+		Assertions.assertFalse(Consolex.isAsyncLogging());
+	}
+	
+	@Test
+	void testAsyncLoggingStopWhilePublishing() throws InterruptedException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ChannelOutputSink sink = new ChannelOutputSink(
+				Channels.newChannel(output), 
+				StandardCharsets.UTF_8, 
+				1024, 
+				FlushPolicy.manual()
+		);
+		DropCounters droppedMessages = new DropCounters();
+		AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(
+				64, 
+				WaitStrategy.SLEEPING, 
+				OverflowPolicy.dropOldest(), 
+				droppedMessages, 
+				() -> sink
+		);
+		AtomicLong accepted = new AtomicLong();
+		List<Thread> threads = new ArrayList<>();
+		
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; (j < 100000) && dispatcher.publish(LogLevel.INFO, "m"); j++) {
+					accepted.incrementAndGet();
+				}
+			}));
+		}
+		
+		threads.forEach(Thread::start);
+		Thread.sleep(5);
+		
+		Thread concurrentStop = new Thread(dispatcher::shutdown);
+		
+		concurrentStop.start();
+		dispatcher.shutdown();
+		concurrentStop.join();
+		
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		sink.flush();
+		
+		long written = output.toString(StandardCharsets.UTF_8).lines().count();
+		
+		Assertions.assertEquals(accepted.get(), written + droppedMessages.getTotal());
+	}
+	
+	@Test
+	void testAsyncLoggingWithInvalidCapacity() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {
+			Consolex.enableAsyncLogging(0, WaitStrategy.SLEEPING, OverflowPolicy.dropNewest());
+		});
+		Assertions.assertFalse(Consolex.isAsyncLogging());
+	}
+	
+	
+	@Test
+	void testOutputSink() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		OutputSink defaultSink = Consolex.getOutputSink();
+		OutputSink sink = new ChannelOutputSink(
+				Channels.newChannel(output), 
+				StandardCharsets.UTF_8, 
+				1024, 
+				FlushPolicy.manual()
+		);
+		
+		Consolex.setOutputSink(sink);
+		
+		try {
+			Consolex.writeLine("hello");
+			Consolex.write("world");
+			Assertions.assertEquals(0, output.size());
+			
+			Consolex.flush();
+			Assertions.assertEquals(
+					"hello" + System.lineSeparator() + "world", 
+					output.toString(StandardCharsets.UTF_8)
+			);
+		}
+		finally {
+			Consolex.setOutputSink(defaultSink);
+			sink.close();
+		}
+		
+		assertConsoleOutputIs("hello", "world");
+	}
+	
+	@Test
+	void testChannelOutputSinkFlushEveryBytes() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		
+		try (OutputSink sink = new ChannelOutputSink(
+				Channels.newChannel(output), 
+				StandardCharsets.UTF_8, 
+				4, 
+				FlushPolicy.everyBytes(8)
+		)) {
+			sink.write("1234");
+			Assertions.assertEquals(0, output.size());
+			
+			sink.write("567890");
+			Assertions.assertEquals("1234567890", output.toString(StandardCharsets.UTF_8));
+		}
+	}
+	
+	
+	@Test
+	void testHistoryCapacity() {
+		int defaultCapacity = Consolex.getHistoryCapacity();
+		
+		Consolex.setHistoryCapacity(3);
+		
+		try {
+			Consolex.writeLines("a", "b", "c", "d", "e");
+			assertConsoleOutputIs("c", "d", "e");
+			
+			Consolex.setHistoryCapacity(2);
+			assertConsoleOutputIs("d", "e");
+		}
+		finally {
+			Consolex.setHistoryCapacity(defaultCapacity);
+		}
+	}
+	
+	@Test
+	void testHistoryMaxBytes() {
+		long defaultMaxBytes = Consolex.getHistoryMaxBytes();
+		
+		Consolex.setHistoryMaxBytes(200);
+		
+		try {
+			for (int i = 0; i < 100; i++) {
+				Consolex.writeLine("line" + i);
+			}
+			
+			List<String> history = Consolex.getHistory();
+			
+			Assertions.assertTrue(history.size() < 100);
+			Assertions.assertEquals("line99", history.get(history.size() - 1));
+		}
+		finally {
+			Consolex.setHistoryMaxBytes(defaultMaxBytes);
+		}
+	}
+	
+	
+	@Test
+	void testOffHeapHistory() {
+		int defaultCapacity = Consolex.getHistoryCapacity();
+		
+		Consolex.writeLine("before");
+		Consolex.setHistoryStorage(HistoryStorage.OFF_HEAP);
+		
+		try {
+			Consolex.writeLines("olá", "", "mundo");
+			assertConsoleOutputIs("before", "olá", "", "mundo");
+			
+			Consolex.setHistoryCapacity(2);
+			assertConsoleOutputIs("", "mundo");
+			
+			Consolex.clearHistory();
+			assertConsoleOutputIsEmpty();
+		}
+		finally {
+			Consolex.setHistoryCapacity(defaultCapacity);
+			Consolex.setHistoryStorage(HistoryStorage.HEAP);
+		}
+	}
+	
+	@Test
+	void testOffHeapHistoryAcrossSegments() throws IOException {
+		OffHeapHistoryStore store = new OffHeapHistoryStore(1000, Long.MAX_VALUE);
+		String line = "x".repeat(10000);
+		
+		for (int i = 0; i < 5000; i++) {
+			store.add(i + line);
+		}
+		
+		List<String> entries = store.getEntries(0, store.size());
+		
+		Assertions.assertEquals(1000, entries.size());
+		Assertions.assertEquals("4000" + line, entries.get(0));
+		Assertions.assertEquals("4999" + line, entries.get(999));
+		Assertions.assertTrue(store.getRetainedBytes() < 11 * 1024 * 1024);
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		
+		store.writeTo(Channels.newChannel(output), 0, store.size());
+		Assertions.assertEquals(
+				entries, 
+				output.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList())
+		);
+		store.close();
+	}
+	
+	
+	@Test
+	void testDiskHistory(@TempDir Path directory) throws IOException {
+		Path historyDirectory = Consolex.useDiskHistory(directory, 1024, 4096);
+		
+		try {
+			Assertions.assertEquals(
+					MappedHistoryStore.DEFAULT_CAPACITY, 
+					Consolex.getHistoryCapacity()
+			);
+			
+			for (int i = 0; i < 1000; i++) {
+				Consolex.writeLine("line " + i);
+			}
+			
+			List<String> history = Consolex.getHistory();
+			long segments;
+			
+			try (Stream<Path> files = Files.list(historyDirectory)) {
+				segments = files.count();
+			}
+			
+			Assertions.assertTrue(history.size() < 1000);
+			Assertions.assertTrue(segments <= 4);
+			Assertions.assertEquals("line 999", history.get(history.size() - 1));
+			Assertions.assertEquals(
+					history.subList(10, 20), 
+					Consolex.getHistory(10, 20)
+			);
+			
+			Path dump = directory.resolve("dump.txt");
+			
+			Consolex.dumpTo(dump);
+			Assertions.assertEquals(history, Files.readAllLines(dump));
+			
+			Consolex.setHistoryCapacity(2);
+			assertConsoleOutputIs("line 998", "line 999");
+		}
+		finally {
+			Consolex.setHistoryCapacity(80000);
+			Consolex.setHistoryStorage(HistoryStorage.HEAP);
+		}
+		
+		Assertions.assertFalse(Files.exists(historyDirectory));
+	}
+	
+	
+	@Test
+	void testAppendTo(@TempDir Path directory) throws IOException {
+		Path output = directory.resolve("history.txt");
+		
+		Consolex.writeLines("a", "b");
+		DumpResult firstResult = Consolex.appendTo(output);
+		
+		Consolex.writeLine("c");
+		DumpResult secondResult = Consolex.appendTo(output);
+		
+		Assertions.assertTrue(firstResult.isSuccessful());
+		Assertions.assertEquals(2, firstResult.getEntriesWritten());
+		Assertions.assertEquals(1, secondResult.getEntriesWritten());
+		Assertions.assertEquals(List.of("a", "b", "c"), Files.readAllLines(output));
+	}
+	
+	@Test
+	void testDumpToReportsErrors(@TempDir Path directory) {
+		Consolex.writeLine("a");
+		
+		DumpResult result = Consolex.dumpTo(directory.resolve("missing").resolve("history.txt"));
+		
+		Assertions.assertFalse(result.isSuccessful());
+		Assertions.assertTrue(result.getError().isPresent());
+	}
+	
+	@Test
+	void testScheduleAppendTo(@TempDir Path directory) throws Exception {
+		Path output = directory.resolve("history.txt");
+		BlockingQueue<DumpResult> results = new LinkedBlockingQueue<>();
+		
+		Consolex.writeLines("a", "b");
+		
+		try (BackgroundTask task = Consolex.scheduleAppendTo(output, Duration.ofMillis(10), results::add)) {
+			DumpResult result = results.poll(5, TimeUnit.SECONDS);
+			
+			Assertions.assertNotNull(result);
+			Assertions.assertTrue(result.isSuccessful());
+		}
+		
+		Assertions.assertEquals(List.of("a", "b"), Files.readAllLines(output));
+	}
+	
+	
+	@Test
+	void testReadLineKeepsBufferedInput() throws IOException {
+		withInput("first\r\nsecond\nthird", () -> {
+			Assertions.assertEquals("first", Consolex.readLine());
+			Assertions.assertEquals("second", Consolex.readLine());
+			Assertions.assertEquals("third", Consolex.readLine());
+			Assertions.assertNull(Consolex.readLine());
+		});
+	}
+	
+	@Test
+	void testReadLineWithCarriageReturns() throws IOException {
+		String input = "a\rb\r\n\r\rc\r\nd\r";
+		List<String> expected = List.of("a", "b", "", "", "c", "d");
+		
+		withInput(input, () -> 
+			Assertions.assertEquals(expected, Consolex.readLines())
+		);
+		
+		// A line break split across reads
+		InputStream defaultInput = System.in;
+		
+		System.setIn(new FilterInputStream(
+				new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))) {
+			
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				return super.read(b, off, Math.min(len, 1));
+			}
+		});
+		
+		try {
+			Assertions.assertEquals(expected, Consolex.readLines());
+		}
+		finally {
+			System.setIn(defaultInput);
+		}
+	}
+	
+	@Test
+	void testReadLinesInBulk() throws IOException {
+		StringBuilder input = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		
+		for (int i = 0; i < 50000; i++) {
+			input.append("line ").append(i).append('\n');
+			expected.add("line " + i);
+		}
+		
+		withInput(input.toString(), () -> 
+			Assertions.assertEquals(expected, Consolex.readLines())
+		);
+		withInput(input.toString(), () -> 
+			Assertions.assertEquals(
+					expected.subList(0, 3), 
+					Consolex.lines().limit(3).collect(Collectors.toList())
+			)
+		);
+		withInput(input.toString(), () -> {
+			List<String> lines = new ArrayList<>();
+			
+			Consolex.forEachLine(lines::add);
+			Assertions.assertEquals(expected, lines);
+		});
+	}
+	
+	@Test
+	void testReadNumbersAndTokens() throws IOException {
+		String input = "42 -7\t9223372036854775807 -9223372036854775808\r\n"
+				+ "3.25 -1e-3 0.1 12345678901234567890 NaN\n"
+				+ "word 1 2 3 rest of line\n"
+				+ "12a 99999999999";
+		
+		withInput(input, () -> {
+			Assertions.assertEquals(42, Consolex.readInt());
+			Assertions.assertEquals(-7, Consolex.readInt());
+			Assertions.assertEquals(Long.MAX_VALUE, Consolex.readLong());
+			Assertions.assertEquals(Long.MIN_VALUE, Consolex.readLong());
+			Assertions.assertEquals(3.25, Consolex.readDouble());
+			Assertions.assertEquals(-1e-3, Consolex.readDouble());
+			Assertions.assertEquals(0.1, Consolex.readDouble());
+			Assertions.assertEquals(12345678901234567890.0, Consolex.readDouble());
+			Assertions.assertTrue(Double.isNaN(Consolex.readDouble()));
+			Assertions.assertEquals("word", Consolex.readToken());
+			Assertions.assertArrayEquals(new int[] {1, 2, 3}, Consolex.readIntArray(3));
+			Assertions.assertEquals(" rest of line", Consolex.readLine());
+			Assertions.assertThrows(NumberFormatException.class, Consolex::readInt);
+			Assertions.assertThrows(NumberFormatException.class, Consolex::readInt);
+			Assertions.assertNull(Consolex.readToken());
+			Assertions.assertThrows(EOFException.class, Consolex::readLong);
+		});
+	}
+	
+	@Test
+	void testReadLineWithTimeoutAndAsync() throws Exception {
+		InputStream defaultInput = System.in;
+		Pipe pipe = Pipe.open();
+		OutputStream input = Channels.newOutputStream(pipe.sink());
+		
+		// Unlike a PipedInputStream, a pipe can be read by threads that stop
+		System.setIn(Channels.newInputStream(pipe.source()));
+		
+		try {
+			Assertions.assertThrows(
+					InterruptedIOException.class, 
+					() -> Consolex.readLine(Duration.ofMillis(100))
+			);
+			
+			input.write("hello\n".getBytes(StandardCharsets.UTF_8));
+			input.flush();
+			Assertions.assertEquals("hello", Consolex.readLineAsync().get(10, TimeUnit.SECONDS));
+			
+			CompletableFuture<String> line = Consolex.readLineAsync();
+			
+			input.write("world\n".getBytes(StandardCharsets.UTF_8));
+			input.flush();
+			Assertions.assertEquals("world", line.get(10, TimeUnit.SECONDS));
+			
+			input.write("!\n".getBytes(StandardCharsets.UTF_8));
+			input.flush();
+			Assertions.assertEquals("!", Consolex.readLine(Duration.ofSeconds(10)));
+			Assertions.assertThrows(
+					InterruptedIOException.class, 
+					() -> Consolex.readLine(Duration.ofMillis(100))
+			);
+			
+			input.write("first\nsecond\nx 42\n".getBytes(StandardCharsets.UTF_8));
+			input.flush();
+			Assertions.assertEquals("first", Consolex.readLine());
+			Assertions.assertEquals("second", Consolex.readToken() + Consolex.readLine());
+			Assertions.assertThrows(NumberFormatException.class, Consolex::readInt);
+			Assertions.assertEquals(42, Consolex.readInt());
+			Assertions.assertEquals("", Consolex.readLine());
+			
+			// Once no timed read is pending, reads are done by the caller
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			
+			while (isThreadAlive("consolex-stdin-reader") && (System.nanoTime() < deadline)) {
+				Thread.sleep(20);
+			}
+			
+			Assertions.assertFalse(isThreadAlive("consolex-stdin-reader"));
+		}
+		finally {
+			System.setIn(defaultInput);
+			input.close();
+			pipe.source().close();
+		}
+	}
+	
+	@Test
+	void testIndependentInstances() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ConsolexInstance console;
+		
+		try (OutputSink sink = new ChannelOutputSink(
+				Channels.newChannel(output), 
+				StandardCharsets.UTF_8, 
+				1024, 
+				FlushPolicy.manual()
+		)) {
+			console = ConsolexInstance.builder()
+					.outputSink(sink)
+					.loggerLevel(LogLevel.DEBUG)
+					.marginLeft(2)
+					.historyCapacity(2)
+					.build();
+			
+			console.writeLine("a");
+			console.writeDebug("b");
+			console.writeLine("c");
+			console.flush();
+		}
+		
+		Assertions.assertEquals(
+				String.join(System.lineSeparator(), "  a", "[DEBUG]  b", "  c", ""), 
+				output.toString(StandardCharsets.UTF_8)
+		);
+		Assertions.assertEquals(List.of("b", "  c"), console.getHistory());
+		Assertions.assertEquals(LogLevel.OFF, Consolex.getLoggerLevel());
+		assertConsoleOutputIsEmpty();
+	}
+	
+	@Test
+	void testConcurrentWrites() throws Exception {
+		int threads = 8;
+		int linesPerThread = 2000;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		OutputSink defaultSink = Consolex.getOutputSink();
+		ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		List<Future<?>> writers = new ArrayList<>();
+		
+		Consolex.setOutputSink(new PrintStreamSink(
+				new PrintStream(output, false, StandardCharsets.UTF_8)
+		));
+		Consolex.setLoggerLevel(LogLevel.INFO);
+		
+		try {
+			for (int t = 0; t < threads; t++) {
+				int id = t;
+				
+				writers.add(executor.submit(() -> {
+					start.await();
+					
+					for (int i = 0; i < linesPerThread; i++) {
+						Consolex.writeLine("t" + id + "-" + i);
+						Consolex.writeInfo("logged t{}-{}", id, i);
+					}
+					
+					return null;
+				}));
+			}
+			
+			Future<?> reader = executor.submit(() -> {
+				start.await();
+				
+				while (writing.get()) {
+					for (String entry : Consolex.getHistory()) {
+						Assertions.assertNotNull(entry);
+					}
+				}
+				
+				return null;
+			});
+			
+			start.countDown();
+			
+			for (Future<?> writer : writers) {
+				writer.get(60, TimeUnit.SECONDS);
+			}
+			
+			writing.set(false);
+			reader.get(60, TimeUnit.SECONDS);
+			Consolex.flush();
+		}
+		finally {
+			Consolex.setOutputSink(defaultSink);
+			executor.shutdownNow();
+		}
+		
+		assertLinesAreIntactAndOrdered(
+				output.toString(StandardCharsets.UTF_8).split(System.lineSeparator()), 
+				threads, 
+				linesPerThread
+		);
+		assertLinesAreIntactAndOrdered(
+				Consolex.getHistory().toArray(new String[0]), 
+				threads, 
+				linesPerThread
+		);
+	}
+	
+	private void assertLinesAreIntactAndOrdered(String[] lines, int threads, int linesPerThread) {
+		Pattern format = Pattern.compile("(?:\\[INFO\\]\\s+)?(logged )?t(\\d+)-(\\d+)");
+		int[] nextPlain = new int[threads];
+		int[] nextLogged = new int[threads];
+		
+		Assertions.assertEquals(2 * threads * linesPerThread, lines.length);
+		
+		for (String line : lines) {
+			Matcher matcher = format.matcher(line);
+			
+			Assertions.assertTrue(matcher.matches(), "Broken line: " + line);
+			
+			int[] next = (matcher.group(1) == null) ? nextPlain : nextLogged;
+			int thread = Integer.parseInt(matcher.group(2));
+			
+			Assertions.assertEquals(next[thread]++, Integer.parseInt(matcher.group(3)));
+		}
+	}
+	
+	
 	//-------------------------------------------------------------------------
 	//		Methods
 	//-------------------------------------------------------------------------
+	private void withInput(String input, InputTest test) throws IOException {
+		InputStream defaultInput = System.in;
+		
+		System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+		
+		try {
+			test.run();
+		}
+		finally {
+			System.setIn(defaultInput);
+		}
+	}
+	
+	private static boolean isThreadAlive(String name) {
+		return Thread.getAllStackTraces().keySet().stream()
+				.anyMatch(thread -> thread.getName().equals(name));
+	}
+	
 	private void assertConsoleOutputIsEqualsToFileContent(Path file) 
 			throws IOException {
 		assertConsoleOutputIs(Files.readAllLines(file));
@@ -322,4 +1685,13 @@ class ConsolexTest {
 	private void assertConsoleOutputIsEmpty() {
 		Assertions.assertTrue(Consolex.getHistory().isEmpty());
 	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Inner classes
+	//-------------------------------------------------------------------------
+	private interface InputTest {
+		
+		void run() throws IOException;
+	}
 }
@@ -0,0 +1,108 @@
+package wniemiec.io.java;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the log line formatting of {@link LogMessage} with the former 
+ * implementation, which used <code>printf</code> followed by 
+ * <code>println</code>. All variants write to a stream that discards its 
+ * content, so that only formatting and stream overhead are measured.
+ * 
+ * Run it with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=wniemiec.io.java.LogMessageBenchmark
+ * </pre>
+ * or pass <code>-prof gc</code> to JMH to compare allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogMessageBenchmark {
+	
+	//-------------------------------------------------------------------------
+	//		Attributes
+	//-------------------------------------------------------------------------
+	private static final int PADDING_LEFT = 8;
+	private static final String MESSAGE = "user alice took 42 ms to load the dashboard";
+	private PrintStream stream;
+	private LogMessage printStreamLogMessage;
+	private LogMessage channelLogMessage;
+	private OutputSink channelSink;
+	
+	
+	//-------------------------------------------------------------------------
+	//		Test hooks
+	//-------------------------------------------------------------------------
+	@Setup
+	public void setUp() {
+		stream = new PrintStream(OutputStream.nullOutputStream(), true);
+		channelSink = new ChannelOutputSink(
+				Channels.newChannel(OutputStream.nullOutputStream()), 
+				StandardCharsets.UTF_8, 
+				64 * 1024, 
+				FlushPolicy.perLine()
+		);
+		printStreamLogMessage = new LogMessage(new PrintStreamSink(stream));
+		channelLogMessage = new LogMessage(channelSink);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		channelSink.close();
+		stream.close();
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Benchmarks
+	//-------------------------------------------------------------------------
+	@Benchmark
+	public void legacyPrintf() {
+		stream.printf("%-" + PADDING_LEFT + "s %s", "[" + "INFO" + "]", MESSAGE);
+		stream.println();
+	}
+	
+	@Benchmark
+	public void precomputedPrefixOnPrintStream() {
+		printStreamLogMessage.log(LogLevel.INFO, MESSAGE);
+	}
+	
+	@Benchmark
+	public void precomputedPrefixOnChannel() {
+		channelLogMessage.log(LogLevel.INFO, MESSAGE);
+	}
+	
+	
+	//-------------------------------------------------------------------------
+	//		Methods
+	//-------------------------------------------------------------------------
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(LogMessageBenchmark.class.getSimpleName())
+				.build()
+		).run();
+	}
+}